@@ -212,6 +212,11 @@ abstract class AbstractAddressableByIndexData<T extends SettableByIndexData<T>>
         return setValue(i, null);
     }
 
+    @Override
+    public <V> T set(int i, V v, Class<V> sourceClass) {
+        return setValue(i, getCodecRegistry().codecFor(getType(i), sourceClass).serialize(v, protocolVersion));
+    }
+
     @Override
     public boolean equals(Object o) {
         if (!(o instanceof AbstractAddressableByIndexData))
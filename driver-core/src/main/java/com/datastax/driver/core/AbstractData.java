@@ -50,7 +50,8 @@ abstract class AbstractData<T extends SettableData<T>> extends AbstractGettableD
 
     protected abstract int[] getAllIndexesOf(String name);
 
-    private T setValue(int i, ByteBuffer value) {
+    // Package visible for ColumnHandle, which checks the type of the value beforehand
+    T setValue(int i, ByteBuffer value) {
         values[i] = value;
         return wrapped;
     }
@@ -59,6 +60,70 @@ abstract class AbstractData<T extends SettableData<T>> extends AbstractGettableD
         return values[i];
     }
 
+    /**
+     * Allocates the buffer of a fixed-width value.
+     *
+     * @param size the size of the value.
+     * @return a buffer of {@code size} remaining (zeroed) bytes, on which the value is written
+     * with absolute puts.
+     */
+    protected ByteBuffer allocateValue(int size) {
+        return ByteBuffer.allocate(size);
+    }
+
+    // Serializes a value of a fixed-width type with allocateValue, returns null for the other types
+    ByteBuffer serializeFixedWidth(DataType.Name type, Object v) {
+        switch (type) {
+            case INT:
+                return serializeInt((Integer)v);
+            case BIGINT:
+            case COUNTER:
+                return serializeLong((Long)v);
+            case TIMESTAMP:
+                return serializeLong(((Date)v).getTime());
+            case FLOAT:
+                return serializeFloat((Float)v);
+            case DOUBLE:
+                return serializeDouble((Double)v);
+            case UUID:
+            case TIMEUUID:
+                return serializeUUID((UUID)v);
+            default:
+                return null;
+        }
+    }
+
+    ByteBuffer serializeInt(int v) {
+        ByteBuffer bb = allocateValue(4);
+        bb.putInt(bb.position(), v);
+        return bb;
+    }
+
+    ByteBuffer serializeLong(long v) {
+        ByteBuffer bb = allocateValue(8);
+        bb.putLong(bb.position(), v);
+        return bb;
+    }
+
+    ByteBuffer serializeFloat(float v) {
+        ByteBuffer bb = allocateValue(4);
+        bb.putFloat(bb.position(), v);
+        return bb;
+    }
+
+    ByteBuffer serializeDouble(double v) {
+        ByteBuffer bb = allocateValue(8);
+        bb.putDouble(bb.position(), v);
+        return bb;
+    }
+
+    ByteBuffer serializeUUID(UUID v) {
+        ByteBuffer bb = allocateValue(16);
+        bb.putLong(bb.position(), v.getMostSignificantBits());
+        bb.putLong(bb.position() + 8, v.getLeastSignificantBits());
+        return bb;
+    }
+
     protected int getIndexOf(String name) {
         return getAllIndexesOf(name)[0];
     }
@@ -80,12 +145,12 @@ abstract class AbstractData<T extends SettableData<T>> extends AbstractGettableD
 
     public T setInt(int i, int v) {
         checkType(i, DataType.Name.INT);
-        return setValue(i, TypeCodec.IntCodec.instance.serializeNoBoxing(v));
+        return setValue(i, serializeInt(v));
     }
 
     public T setInt(String name, int v) {
         int[] indexes = getAllIndexesOf(name);
-        ByteBuffer value = TypeCodec.IntCodec.instance.serializeNoBoxing(v);
+        ByteBuffer value = serializeInt(v);
         for (int i = 0; i < indexes.length; i++) {
             checkType(indexes[i], DataType.Name.INT);
             setValue(indexes[i], value);
@@ -95,12 +160,12 @@ abstract class AbstractData<T extends SettableData<T>> extends AbstractGettableD
 
     public T setLong(int i, long v) {
         checkType(i, DataType.Name.BIGINT, DataType.Name.COUNTER);
-        return setValue(i, TypeCodec.LongCodec.instance.serializeNoBoxing(v));
+        return setValue(i, serializeLong(v));
     }
 
     public T setLong(String name, long v) {
         int[] indexes = getAllIndexesOf(name);
-        ByteBuffer value = TypeCodec.LongCodec.instance.serializeNoBoxing(v);
+        ByteBuffer value = serializeLong(v);
         for (int i = 0; i < indexes.length; i++) {
             checkType(indexes[i], DataType.Name.BIGINT, DataType.Name.COUNTER);
             setValue(indexes[i], value);
@@ -110,12 +175,12 @@ abstract class AbstractData<T extends SettableData<T>> extends AbstractGettableD
 
     public T setDate(int i, Date v) {
         checkType(i, DataType.Name.TIMESTAMP);
-        return setValue(i, v == null ? null : TypeCodec.DateCodec.instance.serialize(v));
+        return setValue(i, v == null ? null : serializeLong(v.getTime()));
     }
 
     public T setDate(String name, Date v) {
         int[] indexes = getAllIndexesOf(name);
-        ByteBuffer value = v == null ? null : TypeCodec.DateCodec.instance.serialize(v);
+        ByteBuffer value = v == null ? null : serializeLong(v.getTime());
         for (int i = 0; i < indexes.length; i++) {
             checkType(indexes[i], DataType.Name.TIMESTAMP);
             setValue(indexes[i], value);
@@ -125,12 +190,12 @@ abstract class AbstractData<T extends SettableData<T>> extends AbstractGettableD
 
     public T setFloat(int i, float v) {
         checkType(i, DataType.Name.FLOAT);
-        return setValue(i, TypeCodec.FloatCodec.instance.serializeNoBoxing(v));
+        return setValue(i, serializeFloat(v));
     }
 
     public T setFloat(String name, float v) {
         int[] indexes = getAllIndexesOf(name);
-        ByteBuffer value = TypeCodec.FloatCodec.instance.serializeNoBoxing(v);
+        ByteBuffer value = serializeFloat(v);
         for (int i = 0; i < indexes.length; i++) {
             checkType(indexes[i], DataType.Name.FLOAT);
             setValue(indexes[i], value);
@@ -140,12 +205,12 @@ abstract class AbstractData<T extends SettableData<T>> extends AbstractGettableD
 
     public T setDouble(int i, double v) {
         checkType(i, DataType.Name.DOUBLE);
-        return setValue(i, TypeCodec.DoubleCodec.instance.serializeNoBoxing(v));
+        return setValue(i, serializeDouble(v));
     }
 
     public T setDouble(String name, double v) {
         int[] indexes = getAllIndexesOf(name);
-        ByteBuffer value = TypeCodec.DoubleCodec.instance.serializeNoBoxing(v);
+        ByteBuffer value = serializeDouble(v);
         for (int i = 0; i < indexes.length; i++) {
             checkType(indexes[i], DataType.Name.DOUBLE);
             setValue(indexes[i], value);
@@ -239,14 +304,12 @@ abstract class AbstractData<T extends SettableData<T>> extends AbstractGettableD
         if (type == DataType.Name.TIMEUUID && v.version() != 1)
             throw new InvalidTypeException(String.format("%s is not a Type 1 (time-based) UUID", v));
 
-        return type == DataType.Name.UUID
-             ? setValue(i, TypeCodec.UUIDCodec.instance.serialize(v))
-             : setValue(i, TypeCodec.TimeUUIDCodec.instance.serialize(v));
+        return setValue(i, serializeUUID(v));
     }
 
     public T setUUID(String name, UUID v) {
         int[] indexes = getAllIndexesOf(name);
-        ByteBuffer value = v == null ? null : TypeCodec.UUIDCodec.instance.serialize(v);
+        ByteBuffer value = v == null ? null : serializeUUID(v);
         for (int i = 0; i < indexes.length; i++) {
             DataType.Name type = checkType(indexes[i], DataType.Name.UUID, DataType.Name.TIMEUUID);
             if (v != null && type == DataType.Name.TIMEUUID && v.version() != 1)
@@ -421,6 +484,17 @@ abstract class AbstractData<T extends SettableData<T>> extends AbstractGettableD
         return wrapped;
     }
 
+    public <V> T set(int i, V v, Class<V> sourceClass) {
+        return setValue(i, getCodecRegistry().codecFor(getType(i), sourceClass).serialize(v, protocolVersion));
+    }
+
+    public <V> T set(String name, V v, Class<V> sourceClass) {
+        int[] indexes = getAllIndexesOf(name);
+        for (int i = 0; i < indexes.length; i++)
+            set(indexes[i], v, sourceClass);
+        return wrapped;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (!(o instanceof AbstractData))
@@ -68,6 +68,15 @@ abstract class AbstractGettableByIndexData implements GettableByIndexData {
      */
     protected abstract ByteBuffer getValue(int i);
 
+    /**
+     * Returns the registry that resolves the codecs of {@link #get(int, Class)}.
+     *
+     * @return the codec registry.
+     */
+    protected CodecRegistry getCodecRegistry() {
+        return CodecRegistry.DEFAULT_INSTANCE;
+    }
+
     // Note: we avoid having a vararg method to avoid the array allocation that comes with it.
     protected void checkType(int i, DataType.Name name) {
         DataType defined = getType(i);
@@ -105,7 +114,11 @@ abstract class AbstractGettableByIndexData implements GettableByIndexData {
     @Override
     public boolean getBool(int i) {
         checkType(i, DataType.Name.BOOLEAN);
+        return getBoolUnchecked(i);
+    }
 
+    // The *Unchecked variants skip the type check, for callers that have checked the type beforehand (see ColumnHandle)
+    boolean getBoolUnchecked(int i) {
         ByteBuffer value = getValue(i);
         if (value == null || value.remaining() == 0)
             return false;
@@ -119,7 +132,10 @@ abstract class AbstractGettableByIndexData implements GettableByIndexData {
     @Override
     public int getInt(int i) {
         checkType(i, DataType.Name.INT);
+        return getIntUnchecked(i);
+    }
 
+    int getIntUnchecked(int i) {
         ByteBuffer value = getValue(i);
         if (value == null || value.remaining() == 0)
             return 0;
@@ -133,7 +149,10 @@ abstract class AbstractGettableByIndexData implements GettableByIndexData {
     @Override
     public long getLong(int i) {
         checkType(i, DataType.Name.BIGINT, DataType.Name.COUNTER);
+        return getLongUnchecked(i);
+    }
 
+    long getLongUnchecked(int i) {
         ByteBuffer value = getValue(i);
         if (value == null || value.remaining() == 0)
             return 0L;
@@ -147,7 +166,10 @@ abstract class AbstractGettableByIndexData implements GettableByIndexData {
     @Override
     public Date getDate(int i) {
         checkType(i, DataType.Name.TIMESTAMP);
+        return getDateUnchecked(i);
+    }
 
+    Date getDateUnchecked(int i) {
         ByteBuffer value = getValue(i);
         if (value == null || value.remaining() == 0)
             return null;
@@ -161,7 +183,10 @@ abstract class AbstractGettableByIndexData implements GettableByIndexData {
     @Override
     public float getFloat(int i) {
         checkType(i, DataType.Name.FLOAT);
+        return getFloatUnchecked(i);
+    }
 
+    float getFloatUnchecked(int i) {
         ByteBuffer value = getValue(i);
         if (value == null || value.remaining() == 0)
             return 0.0f;
@@ -175,7 +200,10 @@ abstract class AbstractGettableByIndexData implements GettableByIndexData {
     @Override
     public double getDouble(int i) {
         checkType(i, DataType.Name.DOUBLE);
+        return getDoubleUnchecked(i);
+    }
 
+    double getDoubleUnchecked(int i) {
         ByteBuffer value = getValue(i);
         if (value == null || value.remaining() == 0)
             return 0.0;
@@ -213,13 +241,35 @@ abstract class AbstractGettableByIndexData implements GettableByIndexData {
                                           DataType.Name.TEXT,
                                           DataType.Name.ASCII);
 
+        return getStringUnchecked(i, type == DataType.Name.ASCII
+                                     ? TypeCodec.StringCodec.asciiInstance
+                                     : TypeCodec.StringCodec.utf8Instance);
+    }
+
+    String getStringUnchecked(int i, TypeCodec.StringCodec codec) {
         ByteBuffer value = getValue(i);
         if (value == null)
             return null;
 
-        return type == DataType.Name.ASCII
-             ? TypeCodec.StringCodec.asciiInstance.deserialize(value)
-             : TypeCodec.StringCodec.utf8Instance.deserialize(value);
+        return deserializeString(i, value, codec);
+    }
+
+    /**
+     * Whether collections are returned as views that decode their elements on access.
+     * <p>
+     * This is a hook for rows, see {@link QueryOptions#setLazyCollectionDecoding(boolean)}.
+     */
+    protected boolean isLazyCollectionDecoding() {
+        return false;
+    }
+
+    /**
+     * Deserializes the non-null text value at index {@code i}.
+     * <p>
+     * This is a hook for rows, which may deduplicate the values of some columns.
+     */
+    protected String deserializeString(int i, ByteBuffer value, TypeCodec.StringCodec codec) {
+        return codec.deserialize(value);
     }
 
     /**
@@ -256,14 +306,17 @@ abstract class AbstractGettableByIndexData implements GettableByIndexData {
     @Override
     public UUID getUUID(int i) {
         DataType.Name type = checkType(i, DataType.Name.UUID, DataType.Name.TIMEUUID);
+        return getUUIDUnchecked(i, type == DataType.Name.UUID
+                                   ? TypeCodec.UUIDCodec.instance
+                                   : TypeCodec.TimeUUIDCodec.instance);
+    }
 
+    UUID getUUIDUnchecked(int i, TypeCodec.UUIDCodec codec) {
         ByteBuffer value = getValue(i);
         if (value == null || value.remaining() == 0)
             return null;
 
-        return type == DataType.Name.UUID
-             ? TypeCodec.UUIDCodec.instance.deserialize(value)
-             : TypeCodec.TimeUUIDCodec.instance.deserialize(value);
+        return codec.deserialize(value);
     }
 
     /**
@@ -298,6 +351,9 @@ abstract class AbstractGettableByIndexData implements GettableByIndexData {
         if (value == null)
             return Collections.<T>emptyList();
 
+        if (isLazyCollectionDecoding())
+            return CollectionViews.listView(type, value, protocolVersion);
+
         return Collections.unmodifiableList((List<T>)type.codec(protocolVersion).deserialize(value));
     }
 
@@ -319,6 +375,9 @@ abstract class AbstractGettableByIndexData implements GettableByIndexData {
         if (value == null)
             return Collections.<T>emptyList();
 
+        if (isLazyCollectionDecoding())
+            return CollectionViews.listView(type, value, protocolVersion);
+
         return Collections.unmodifiableList((List<T>)type.codec(protocolVersion).deserialize(value));
     }
 
@@ -340,6 +399,9 @@ abstract class AbstractGettableByIndexData implements GettableByIndexData {
         if (value == null)
             return Collections.<T>emptySet();
 
+        if (isLazyCollectionDecoding())
+            return CollectionViews.setView(type, value, protocolVersion);
+
         return Collections.unmodifiableSet((Set<T>)type.codec(protocolVersion).deserialize(value));
     }
 
@@ -361,6 +423,9 @@ abstract class AbstractGettableByIndexData implements GettableByIndexData {
         if (value == null)
             return Collections.<T>emptySet();
 
+        if (isLazyCollectionDecoding())
+            return CollectionViews.setView(type, value, protocolVersion);
+
         return Collections.unmodifiableSet((Set<T>)type.codec(protocolVersion).deserialize(value));
     }
 
@@ -383,6 +448,9 @@ abstract class AbstractGettableByIndexData implements GettableByIndexData {
         if (value == null)
             return Collections.<K, V>emptyMap();
 
+        if (isLazyCollectionDecoding())
+            return CollectionViews.mapView(type, value, protocolVersion);
+
         return Collections.unmodifiableMap((Map<K, V>)type.codec(protocolVersion).deserialize(value));
     }
 
@@ -405,6 +473,9 @@ abstract class AbstractGettableByIndexData implements GettableByIndexData {
         if (value == null)
             return Collections.<K, V>emptyMap();
 
+        if (isLazyCollectionDecoding())
+            return CollectionViews.mapView(type, value, protocolVersion);
+
         return Collections.unmodifiableMap((Map<K, V>)type.codec(protocolVersion).deserialize(value));
     }
 
@@ -465,4 +536,12 @@ abstract class AbstractGettableByIndexData implements GettableByIndexData {
         else
             return type.deserialize(raw, protocolVersion);
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> T get(int i, Class<T> targetClass) {
+        return getCodecRegistry().codecFor(getType(i), targetClass).deserialize(getValue(i), protocolVersion);
+    }
 }
@@ -242,4 +242,12 @@ public abstract class AbstractGettableData extends AbstractGettableByIndexData i
     public Object getObject(String name) {
         return getObject(getIndexOf(name));
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> T get(String name, Class<T> targetClass) {
+        return get(getIndexOf(name), targetClass);
+    }
 }
@@ -41,14 +41,20 @@ abstract class ArrayBackedResultSet implements ResultSet {
 
     protected final ColumnDefinitions metadata;
     protected final Token.Factory tokenFactory;
+    protected final CodecRegistry codecRegistry;
+    protected final StringCache[] stringCaches;
+    protected final boolean lazyCollectionDecoding;
     private final boolean wasApplied;
 
     protected final ProtocolVersion protocolVersion;
 
-    private ArrayBackedResultSet(ColumnDefinitions metadata, Token.Factory tokenFactory, List<ByteBuffer> firstRow, ProtocolVersion protocolVersion) {
+    private ArrayBackedResultSet(ColumnDefinitions metadata, Token.Factory tokenFactory, CodecRegistry codecRegistry, StringCache[] stringCaches, boolean lazyCollectionDecoding, List<ByteBuffer> firstRow, ProtocolVersion protocolVersion) {
         this.metadata = metadata;
         this.protocolVersion = protocolVersion;
         this.tokenFactory = tokenFactory;
+        this.codecRegistry = codecRegistry;
+        this.stringCaches = stringCaches;
+        this.lazyCollectionDecoding = lazyCollectionDecoding;
         this.wasApplied = checkWasApplied(firstRow, metadata);
     }
 
@@ -72,13 +78,22 @@ abstract class ArrayBackedResultSet implements ResultSet {
 
                 Token.Factory tokenFactory = (session == null) ? null
                     : session.getCluster().getMetadata().tokenFactory();
+                CodecRegistry codecRegistry = (session == null) ? CodecRegistry.DEFAULT_INSTANCE
+                    : session.getCluster().getConfiguration().getCodecRegistry();
+                // The definitions of prepared statements are attached when they are prepared
+                if (r.metadata.columns != null)
+                    codecRegistry.attachTo(columnDefs);
+                StringCache[] stringCaches = (session == null) ? null
+                    : session.cluster.manager.stringCaches.cachesFor(columnDefs);
+                boolean lazyCollectionDecoding = session != null
+                    && session.getCluster().getConfiguration().getQueryOptions().isLazyCollectionDecoding();
 
                 // info can be null only for internal calls, but we don't page those. We assert
                 // this explicitly because MultiPage implementation don't support info == null.
                 assert r.metadata.pagingState == null || info != null;
                 return r.metadata.pagingState == null
-                    ? new SinglePage(columnDefs, tokenFactory, protocolVersion, r.data, info)
-                    : new MultiPage(columnDefs, tokenFactory, protocolVersion, r.data, info, r.metadata.pagingState, session, statement);
+                    ? new SinglePage(columnDefs, tokenFactory, codecRegistry, stringCaches, lazyCollectionDecoding, protocolVersion, r.data, info)
+                    : new MultiPage(columnDefs, tokenFactory, codecRegistry, stringCaches, lazyCollectionDecoding, protocolVersion, r.data, info, r.metadata.pagingState, session, statement);
 
             case SET_KEYSPACE:
             case SCHEMA_CHANGE:
@@ -98,7 +113,7 @@ abstract class ArrayBackedResultSet implements ResultSet {
 
     private static ArrayBackedResultSet empty(ExecutionInfo info) {
         // We could pass the protocol version but we know we won't need it so passing a bogus value (null)
-        return new SinglePage(ColumnDefinitions.EMPTY, null,  null, EMPTY_QUEUE, info);
+        return new SinglePage(ColumnDefinitions.EMPTY, null, CodecRegistry.DEFAULT_INSTANCE, null, false, null, EMPTY_QUEUE, info);
     }
 
     public ColumnDefinitions getColumnDefinitions() {
@@ -158,10 +173,13 @@ abstract class ArrayBackedResultSet implements ResultSet {
 
         private SinglePage(ColumnDefinitions metadata,
                            Token.Factory tokenFactory,
+                           CodecRegistry codecRegistry,
+                           StringCache[] stringCaches,
+                           boolean lazyCollectionDecoding,
                            ProtocolVersion protocolVersion,
                            Queue<List<ByteBuffer>> rows,
                            ExecutionInfo info) {
-            super(metadata, tokenFactory, rows.peek(), protocolVersion);
+            super(metadata, tokenFactory, codecRegistry, stringCaches, lazyCollectionDecoding, rows.peek(), protocolVersion);
             this.info = info;
             this.rows = rows;
         }
@@ -171,7 +189,13 @@ abstract class ArrayBackedResultSet implements ResultSet {
         }
 
         public Row one() {
-            return ArrayBackedRow.fromData(metadata, tokenFactory, protocolVersion, rows.poll());
+            return ArrayBackedRow.fromData(metadata, tokenFactory, codecRegistry, stringCaches, lazyCollectionDecoding, protocolVersion, rows.poll());
+        }
+
+        public ColumnarPage nextPageAsColumns() {
+            ColumnarPage page = new ColumnarPage(metadata, rows);
+            rows.clear();
+            return page;
         }
 
         public int getAvailableWithoutFetching() {
@@ -222,6 +246,9 @@ abstract class ArrayBackedResultSet implements ResultSet {
 
         private MultiPage(ColumnDefinitions metadata,
                           Token.Factory tokenFactory,
+                          CodecRegistry codecRegistry,
+                          StringCache[] stringCaches,
+                          boolean lazyCollectionDecoding,
                           ProtocolVersion protocolVersion,
                           Queue<List<ByteBuffer>> rows,
                           ExecutionInfo info,
@@ -232,7 +259,7 @@ abstract class ArrayBackedResultSet implements ResultSet {
             // Note: as of Cassandra 2.1.0, it turns out that the result of a CAS update is never paged, so
             // we could hard-code the result of wasApplied in this class to "true". However, we can not be sure
             // that this will never change, so apply the generic check by peeking at the first row.
-            super(metadata, tokenFactory, rows.peek(), protocolVersion);
+            super(metadata, tokenFactory, codecRegistry, stringCaches, lazyCollectionDecoding, rows.peek(), protocolVersion);
             this.currentPage = rows;
             this.infos.offer(info.withPagingState(pagingState, protocolVersion).withStatement(statement));
 
@@ -248,7 +275,14 @@ abstract class ArrayBackedResultSet implements ResultSet {
 
         public Row one() {
             prepareNextRow();
-            return ArrayBackedRow.fromData(metadata, tokenFactory, protocolVersion, currentPage.poll());
+            return ArrayBackedRow.fromData(metadata, tokenFactory, codecRegistry, stringCaches, lazyCollectionDecoding, protocolVersion, currentPage.poll());
+        }
+
+        public ColumnarPage nextPageAsColumns() {
+            prepareNextRow();
+            ColumnarPage page = new ColumnarPage(metadata, currentPage);
+            currentPage.clear();
+            return page;
         }
 
         public int getAvailableWithoutFetching() {
@@ -19,6 +19,7 @@ import java.nio.ByteBuffer;
 import java.util.*;
 
 import com.datastax.driver.core.exceptions.DriverInternalError;
+import com.datastax.driver.core.exceptions.InvalidTypeException;
 
 /**
  * Implementation of a Row backed by an ArrayList.
@@ -27,20 +28,27 @@ class ArrayBackedRow extends AbstractGettableData implements Row {
 
     private final ColumnDefinitions metadata;
     private final Token.Factory tokenFactory;
+    private final CodecRegistry codecRegistry;
+    // Indexed like the columns, null if no column is deduplicated
+    private final StringCache[] stringCaches;
+    private final boolean lazyCollectionDecoding;
     private final List<ByteBuffer> data;
 
-    private ArrayBackedRow(ColumnDefinitions metadata, Token.Factory tokenFactory, ProtocolVersion protocolVersion, List<ByteBuffer> data) {
+    private ArrayBackedRow(ColumnDefinitions metadata, Token.Factory tokenFactory, CodecRegistry codecRegistry, StringCache[] stringCaches, boolean lazyCollectionDecoding, ProtocolVersion protocolVersion, List<ByteBuffer> data) {
         super(protocolVersion);
         this.metadata = metadata;
         this.tokenFactory = tokenFactory;
+        this.codecRegistry = codecRegistry;
+        this.stringCaches = stringCaches;
+        this.lazyCollectionDecoding = lazyCollectionDecoding;
         this.data = data;
     }
 
-    static Row fromData(ColumnDefinitions metadata, Token.Factory tokenFactory, ProtocolVersion protocolVersion, List<ByteBuffer> data) {
+    static Row fromData(ColumnDefinitions metadata, Token.Factory tokenFactory, CodecRegistry codecRegistry, StringCache[] stringCaches, boolean lazyCollectionDecoding, ProtocolVersion protocolVersion, List<ByteBuffer> data) {
         if (data == null)
             return null;
 
-        return new ArrayBackedRow(metadata, tokenFactory, protocolVersion, data);
+        return new ArrayBackedRow(metadata, tokenFactory, codecRegistry, stringCaches, lazyCollectionDecoding, protocolVersion, data);
     }
 
     @Override
@@ -63,6 +71,22 @@ class ArrayBackedRow extends AbstractGettableData implements Row {
         return data.get(i);
     }
 
+    @Override
+    protected CodecRegistry getCodecRegistry() {
+        return codecRegistry;
+    }
+
+    @Override
+    protected String deserializeString(int i, ByteBuffer value, TypeCodec.StringCodec codec) {
+        StringCache cache = stringCaches == null ? null : stringCaches[i];
+        return cache == null ? codec.deserialize(value) : cache.get(value, codec);
+    }
+
+    @Override
+    protected boolean isLazyCollectionDecoding() {
+        return lazyCollectionDecoding;
+    }
+
     @Override
     protected int getIndexOf(String name) {
         return metadata.getFirstIdx(name);
@@ -97,6 +121,47 @@ class ArrayBackedRow extends AbstractGettableData implements Row {
         throw new IllegalStateException("Found no column named 'token(...)'. If the column is aliased, use getToken(String).");
     }
 
+    @Override
+    public int[] getIntArray(int i) {
+        ByteBuffer value = getNumberCollectionValue(i, DataType.Name.INT);
+        return value == null ? new int[0] : TypeCodec.deserializeIntArray(value, protocolVersion);
+    }
+
+    @Override
+    public int[] getIntArray(String name) {
+        return getIntArray(metadata.getFirstIdx(name));
+    }
+
+    @Override
+    public long[] getLongArray(int i) {
+        ByteBuffer value = getNumberCollectionValue(i, DataType.Name.BIGINT);
+        return value == null ? new long[0] : TypeCodec.deserializeLongArray(value, protocolVersion);
+    }
+
+    @Override
+    public long[] getLongArray(String name) {
+        return getLongArray(metadata.getFirstIdx(name));
+    }
+
+    @Override
+    public double[] getDoubleArray(int i) {
+        ByteBuffer value = getNumberCollectionValue(i, DataType.Name.DOUBLE);
+        return value == null ? new double[0] : TypeCodec.deserializeDoubleArray(value, protocolVersion);
+    }
+
+    @Override
+    public double[] getDoubleArray(String name) {
+        return getDoubleArray(metadata.getFirstIdx(name));
+    }
+
+    private ByteBuffer getNumberCollectionValue(int i, DataType.Name elementType) {
+        DataType type = metadata.getType(i);
+        if ((type.getName() != DataType.Name.LIST && type.getName() != DataType.Name.SET)
+            || type.getTypeArguments().get(0).getName() != elementType)
+            throw new InvalidTypeException(String.format("Column %s is of type %s, cannot be retrieved as an array of %s", metadata.getName(i), type, elementType));
+        return data.get(i);
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -0,0 +1,145 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.base.Objects;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Prepares the query strings of frequently executed regular statements, and turns
+ * their later executions into bound statements (see {@link QueryOptions#setAutoPrepareThreshold}).
+ */
+class AutoPreparer {
+
+    private static final Logger logger = LoggerFactory.getLogger(AutoPreparer.class);
+
+    private final Session session;
+    private final int threshold;
+    private final Metrics metrics;
+    // Guava's caches evict the least recently used entries first
+    private final ConcurrentMap<PreparedStatementCache.Key, Entry> entries;
+
+    AutoPreparer(Session session, int threshold, int maxSize, Metrics metrics) {
+        this.session = session;
+        this.threshold = threshold;
+        this.metrics = metrics;
+        this.entries = CacheBuilder.newBuilder()
+                                   .maximumSize(maxSize)
+                                   .<PreparedStatementCache.Key, Entry>build()
+                                   .asMap();
+    }
+
+    /**
+     * Records an execution of a statement, and returns the statement to execute in its place.
+     *
+     * @return a bound statement if the query string of {@code statement} has been prepared and
+     * its values can be bound, {@code statement} otherwise.
+     */
+    Statement maybeBind(RegularStatement statement, ProtocolVersion protocolVersion) {
+        // We can't reliably bind the values of a paged statement, and the query builder doesn't
+        // generate values in protocol v1
+        if (protocolVersion == ProtocolVersion.V1 || statement.getPagingState() != null)
+            return statement;
+
+        String keyspace = session.getLoggedKeyspace();
+        String query = statement.getQueryString();
+        PreparedStatementCache.Key key = new PreparedStatementCache.Key(keyspace, query);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            Entry newEntry = new Entry();
+            entry = entries.putIfAbsent(key, newEntry);
+            if (entry == null)
+                entry = newEntry;
+        }
+
+        PreparedStatement prepared = entry.prepared;
+        if (prepared == null) {
+            // Only the execution that reaches the threshold prepares. If the preparation fails, the
+            // query string won't be prepared again, unless it gets evicted and reaches the threshold again.
+            if (entry.executions.incrementAndGet() == threshold)
+                prepare(entry, keyspace, query);
+            return statement;
+        }
+        return bind(prepared, statement, protocolVersion);
+    }
+
+    private void prepare(final Entry entry, final String keyspace, final String query) {
+        logger.debug("Automatically preparing query after {} executions: {}", threshold, query);
+        Futures.addCallback(session.prepareAsync(query), new FutureCallback<PreparedStatement>() {
+            @Override
+            public void onSuccess(PreparedStatement prepared) {
+                // The logged keyspace could have changed while preparing, and unqualified table names
+                // would then refer to another table
+                if (Objects.equal(keyspace, prepared.getQueryKeyspace()))
+                    entry.prepared = prepared;
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                logger.debug(String.format("Error while automatically preparing query (%s), it will keep being executed unprepared", query), t);
+            }
+        });
+    }
+
+    private Statement bind(PreparedStatement prepared, RegularStatement statement, ProtocolVersion protocolVersion) {
+        ByteBuffer[] values = statement.getValues(protocolVersion);
+        int valueCount = values == null ? 0 : values.length;
+        if (valueCount != prepared.getVariables().size())
+            return statement;
+
+        BoundStatement bound = new BoundStatement(prepared);
+        for (int i = 0; i < valueCount; i++)
+            bound.setBytesUnsafe(i, values[i]);
+
+        // Preserve the execution options of the original statement
+        if (statement.getConsistencyLevel() != null)
+            bound.setConsistencyLevel(statement.getConsistencyLevel());
+        if (statement.getSerialConsistencyLevel() != null)
+            bound.setSerialConsistencyLevel(statement.getSerialConsistencyLevel());
+        if (statement.isTracing())
+            bound.enableTracing();
+        if (statement.getRetryPolicy() != null)
+            bound.setRetryPolicy(statement.getRetryPolicy());
+        bound.setFetchSize(statement.getFetchSize());
+        bound.setDefaultTimestamp(statement.getDefaultTimestamp());
+        Boolean idempotent = statement.isIdempotent();
+        if (idempotent != null)
+            bound.setIdempotent(idempotent);
+        if (bound.getRoutingKey() == null && statement.getRoutingKey() != null)
+            bound.setRoutingKey(statement.getRoutingKey());
+
+        if (metrics != null)
+            metrics.getAutoPreparedExecutions().inc();
+        return bound;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private static class Entry {
+        final AtomicInteger executions = new AtomicInteger();
+        volatile PreparedStatement prepared;
+    }
+}
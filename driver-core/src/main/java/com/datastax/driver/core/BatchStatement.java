@@ -97,6 +97,7 @@ public class BatchStatement extends Statement {
                 // We handle BatchStatement in add() so ...
                 assert statement instanceof BoundStatement;
                 BoundStatement st = (BoundStatement)statement;
+                DefaultPreparedStatement.markUsed(st.statement);
                 idAndVals.ids.add(st.statement.getPreparedId().id);
                 idAndVals.values.add(Arrays.asList(st.wrapper.values));
             }
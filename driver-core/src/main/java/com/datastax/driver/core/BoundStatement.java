@@ -206,7 +206,8 @@ public class BoundStatement extends Statement implements SettableData<BoundState
                         throw new InvalidTypeException(String.format("Invalid type for value %d of CQL type %s, expecting %s but %s provided", i, columnType, expectedClass, providedClass));
                     break;
             }
-            wrapper.values[i] = columnType.codec(statement.getPreparedId().protocolVersion).serialize(toSet);
+            ByteBuffer value = wrapper.serializeFixedWidth(columnType.getName(), toSet);
+            wrapper.values[i] = value != null ? value : columnType.codec(statement.getPreparedId().protocolVersion).serialize(toSet);
         }
         return this;
     }
@@ -1359,12 +1360,112 @@ public class BoundStatement extends Statement implements SettableData<BoundState
         return wrapper.getObject(name);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public <T> T get(int i, Class<T> targetClass) {
+        return wrapper.get(i, targetClass);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public <T> T get(String name, Class<T> targetClass) {
+        return wrapper.get(name, targetClass);
+    }
+
+    /**
+     * Sets the {@code i}th value to the provided value of the given Java type.
+     * <p>
+     * The value is serialized by the codec that the {@link CodecRegistry} of the cluster
+     * (see {@link Configuration#getCodecRegistry()}) resolves for the CQL type of the
+     * variable and {@code sourceClass}.
+     *
+     * @param i the index of the variable to set.
+     * @param v the value to set.
+     * @param sourceClass the Java type of {@code v}.
+     * @return this BoundStatement.
+     *
+     * @throws IndexOutOfBoundsException if {@code i} is not a valid index for this object.
+     * @throws InvalidTypeException if there is no codec for the CQL type of variable {@code i}
+     * and {@code sourceClass}.
+     */
+    public <V> BoundStatement set(int i, V v, Class<V> sourceClass) {
+        return wrapper.set(i, v, sourceClass);
+    }
+
+    /**
+     * Sets the value for (all occurrences of) variable {@code name} to the provided value
+     * of the given Java type.
+     * <p>
+     * The value is serialized by the codec that the {@link CodecRegistry} of the cluster
+     * (see {@link Configuration#getCodecRegistry()}) resolves for the CQL type of the
+     * variable and {@code sourceClass}.
+     *
+     * @param name the name of the variable to set; if multiple variables
+     * {@code name} are prepared, all of them are set.
+     * @param v the value to set.
+     * @param sourceClass the Java type of {@code v}.
+     * @return this BoundStatement.
+     *
+     * @throws IllegalArgumentException if {@code name} is not a prepared
+     * variable, that is, if {@code !this.preparedStatement().variables().names().contains(name)}.
+     * @throws InvalidTypeException if there is no codec for the CQL type of variable {@code name}
+     * and {@code sourceClass}.
+     */
+    public <V> BoundStatement set(String name, V v, Class<V> sourceClass) {
+        return wrapper.set(name, v, sourceClass);
+    }
+
+    // The size of the values of a type that are staged, see DataWrapper#allocateValue
+    static int stagedSize(DataType.Name type) {
+        switch (type) {
+            case INT:
+            case FLOAT:
+                return 4;
+            case BIGINT:
+            case COUNTER:
+            case TIMESTAMP:
+            case DOUBLE:
+                return 8;
+            case UUID:
+            case TIMEUUID:
+                return 16;
+            default:
+                return 0;
+        }
+    }
+
     static class DataWrapper extends AbstractData<BoundStatement> {
 
+        // Fixed-width values are written one after the other in this array, so that setting all the
+        // variables of the statement allocates it only once. Written bytes are never overwritten (a
+        // value may still be referenced, by a request being written for instance): if a variable is
+        // set again and the array is full, we start a new one.
+        private byte[] staging;
+        private int stagingOffset;
+
         DataWrapper(BoundStatement wrapped, int size) {
             super(wrapped.statement.getPreparedId().protocolVersion, wrapped, size);
         }
 
+        @Override
+        protected ByteBuffer allocateValue(int size) {
+            int stagingSize = wrapped.statement instanceof DefaultPreparedStatement
+                            ? ((DefaultPreparedStatement)wrapped.statement).stagingSize
+                            : 0;
+            if (stagingSize == 0)
+                return super.allocateValue(size);
+
+            if (staging == null || stagingOffset + size > staging.length) {
+                staging = new byte[Math.max(stagingSize, size)];
+                stagingOffset = 0;
+            }
+            ByteBuffer value = ByteBuffer.wrap(staging, stagingOffset, size);
+            stagingOffset += size;
+            return value;
+        }
+
         protected int[] getAllIndexesOf(String name) {
             return wrapped.statement.getVariables().getAllIdx(name);
         }
@@ -1376,6 +1477,13 @@ public class BoundStatement extends Statement implements SettableData<BoundState
         protected String getName(int i) {
             return wrapped.statement.getVariables().getName(i);
         }
+
+        @Override
+        protected CodecRegistry getCodecRegistry() {
+            return wrapped.statement instanceof DefaultPreparedStatement
+                 ? ((DefaultPreparedStatement)wrapped.statement).codecRegistry
+                 : super.getCodecRegistry();
+        }
     }
 
     void ensureAllSet() {
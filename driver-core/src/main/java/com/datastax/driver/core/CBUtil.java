@@ -268,7 +268,11 @@ abstract class CBUtil { // TODO rename
         }
 
         cb.writeInt(bytes.remaining());
-        cb.writeBytes(bytes.duplicate());
+        // Copy straight from the backing array when there is one, this avoids creating a duplicate
+        if (bytes.hasArray())
+            cb.writeBytes(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+        else
+            cb.writeBytes(bytes.duplicate());
     }
 
     public static int sizeOfValue(byte[] bytes) {
@@ -586,6 +586,7 @@ public class Cluster implements Closeable {
         private QueryOptions queryOptions;
 
         private NettyOptions nettyOptions = NettyOptions.DEFAULT_INSTANCE;
+        private CodecRegistry codecRegistry = CodecRegistry.DEFAULT_INSTANCE;
 
         private Collection<Host.StateListener> listeners;
 
@@ -1111,6 +1112,20 @@ public class Cluster implements Closeable {
             return this;
         }
 
+        /**
+         * Set the {@link CodecRegistry} to use for the newly created Cluster.
+         * <p>
+         * If no registry is set through this method, {@link CodecRegistry#DEFAULT_INSTANCE}
+         * will be used as a default value.
+         *
+         * @param codecRegistry the {@link CodecRegistry} to use.
+         * @return this builder.
+         */
+        public Builder withCodecRegistry(CodecRegistry codecRegistry) {
+            this.codecRegistry = codecRegistry;
+            return this;
+        }
+
         /**
          * The configuration that will be used for the new cluster.
          * <p>
@@ -1136,7 +1151,8 @@ public class Cluster implements Closeable {
                                      socketOptions == null ? new SocketOptions() : socketOptions,
                                      metricsEnabled ? new MetricsOptions(jmxEnabled) : null,
                                      queryOptions == null ? new QueryOptions() : queryOptions,
-                                     nettyOptions);
+                                     nettyOptions,
+                                     codecRegistry);
         }
 
         @Override
@@ -1161,6 +1177,58 @@ public class Cluster implements Closeable {
         return destUnit.convert(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
     }
 
+    /*
+     * Groups the queries to re-prepare on a host by keyspace. If maxIdleSeconds is positive, the statements
+     * that were not executed in the last maxIdleSeconds are skipped.
+     */
+    // Package visible for testing
+    static SetMultimap<String, String> queriesToReprepare(Collection<PreparedStatement> statements, int maxIdleSeconds) {
+        long usedSince = System.nanoTime() - TimeUnit.SECONDS.toNanos(maxIdleSeconds);
+        SetMultimap<String, String> perKeyspace = HashMultimap.create();
+        for (PreparedStatement ps : statements) {
+            if (maxIdleSeconds > 0 && !DefaultPreparedStatement.usedSince(ps, usedSince))
+                continue;
+            // It's possible for a query to not have a current keyspace. But since null doesn't work well as
+            // map keys, we use the empty string instead (that is not a valid keyspace name).
+            String keyspace = ps.getQueryKeyspace() == null ? "" : ps.getQueryKeyspace();
+            perKeyspace.put(keyspace, ps.getQueryString());
+        }
+        return perKeyspace;
+    }
+
+    /*
+     * Pipelines the preparation of queries on a connection, with at most concurrency requests in flight.
+     * This blocks until the last request is written, and returns the futures of all the requests.
+     */
+    // Package visible for testing
+    static List<Connection.Future> prepareAll(Connection connection, Collection<String> queries, int concurrency) throws ConnectionException, BusyConnectionException, InterruptedException {
+        final Semaphore inFlight = new Semaphore(concurrency);
+        Runnable release = new Runnable() {
+            @Override
+            public void run() {
+                inFlight.release();
+            }
+        };
+
+        List<Connection.Future> futures = new ArrayList<Connection.Future>(queries.size());
+        for (String query : queries) {
+            inFlight.acquire();
+            Connection.Future future;
+            try {
+                future = connection.write(new Requests.Prepare(query));
+            } catch (ConnectionException e) {
+                inFlight.release();
+                throw e;
+            } catch (BusyConnectionException e) {
+                inFlight.release();
+                throw e;
+            }
+            future.addListener(release, MoreExecutors.sameThreadExecutor());
+            futures.add(future);
+        }
+        return futures;
+    }
+
     private static String generateClusterName() {
         return "cluster" + CLUSTER_ID.incrementAndGet();
     }
@@ -1185,6 +1253,7 @@ public class Cluster implements Closeable {
         Metadata metadata;
         final Configuration configuration;
         Metrics metrics;
+        StringCache.Factory stringCaches;
 
         Connection.Factory connectionFactory;
         ControlConnection controlConnection;
@@ -1208,6 +1277,8 @@ public class Cluster implements Closeable {
 
         ConnectionReaper reaper;
 
+        final RefreshCoalescer refreshCoalescer = new RefreshCoalescer(this);
+
         final AtomicReference<CloseFuture> closeFuture = new AtomicReference<CloseFuture>();
 
         // All the queries that have been prepared (we keep them so we can re-prepared them when a node fail or a
@@ -1252,6 +1323,7 @@ public class Cluster implements Closeable {
             this.connectionFactory = new Connection.Factory(this, configuration);
             this.controlConnection = new ControlConnection(this);
             this.metrics = configuration.getMetricsOptions() == null ? null : new Metrics(this);
+            this.stringCaches = new StringCache.Factory(configuration.getQueryOptions(), metrics);
             this.preparedQueries = new MapMaker().weakValues().makeMap();
 
             this.scheduledTasksExecutor.scheduleWithFixedDelay(new CleanupIdleConnectionsTask(), 10, 10, TimeUnit.SECONDS);
@@ -1957,24 +2029,20 @@ public class Cluster implements Closeable {
                 // used for preparing it. However, since we are likely that all prepared query belong to only a handful
                 // of different keyspace (possibly only one), and to avoid setting the current keyspace more than needed,
                 // we first sort the query per keyspace.
-                SetMultimap<String, String> perKeyspace = HashMultimap.create();
-                for (PreparedStatement ps : preparedQueries.values()) {
-                    // It's possible for a query to not have a current keyspace. But since null doesn't work well as
-                    // map keys, we use the empty string instead (that is not a valid keyspace name).
-                    String keyspace = ps.getQueryKeyspace() == null ? "" : ps.getQueryKeyspace();
-                    perKeyspace.put(keyspace, ps.getQueryString());
-                }
+                // Optionally skip the statements that were not used recently, they'll be prepared lazily on UNPREPARED errors
+                QueryOptions queryOptions = configuration.getQueryOptions();
+                SetMultimap<String, String> perKeyspace = queriesToReprepare(preparedQueries.values(), queryOptions.getReprepareMaxIdleSeconds());
+                int skipped = preparedQueries.size() - perKeyspace.size();
+                if (skipped > 0)
+                    logger.debug("Skipping {} prepared queries not used in the last {} seconds on {}", skipped, queryOptions.getReprepareMaxIdleSeconds(), host);
 
                 for (String keyspace : perKeyspace.keySet()) {
                     // Empty string mean no particular keyspace to set
                     if (!keyspace.isEmpty())
                         connection.setKeyspace(keyspace);
 
-                    List<Connection.Future> futures = new ArrayList<Connection.Future>(preparedQueries.size());
-                    for (String query : perKeyspace.get(keyspace)) {
-                        futures.add(connection.write(new Requests.Prepare(query)));
-                    }
-                    for (Connection.Future future : futures) {
+                    // Wait for all the queries of this keyspace before switching to the next one
+                    for (Connection.Future future : prepareAll(connection, perKeyspace.get(keyspace), queryOptions.getReprepareConcurrency())) {
                         try {
                             future.get();
                         } catch (ExecutionException e) {
@@ -2007,14 +2075,15 @@ public class Cluster implements Closeable {
             }
         }
 
-        public void submitSchemaRefresh(final SchemaElement targetType, final String targetKeyspace, final String targetName) {
+        // The refresh is coalesced with the other refreshes submitted in the same window, see QueryOptions#setRefreshWindowMillis
+        public void submitSchemaRefresh(SchemaElement targetType, String targetKeyspace, String targetName) {
             logger.trace("Submitting schema refresh");
-            executor.submit(new ExceptionCatchingRunnable() {
-                @Override
-                public void runMayThrow() throws InterruptedException, ExecutionException {
-                    controlConnection.refreshSchema(targetType, targetKeyspace, targetName);
-                }
-            });
+            refreshCoalescer.submitSchemaRefresh(targetType, targetKeyspace, targetName);
+        }
+
+        public void submitNodeListRefresh() {
+            logger.trace("Submitting node list refresh");
+            refreshCoalescer.submitNodeListRefresh();
         }
 
         // refresh the schema using the provided connection, and notice the future with the provided resultset once done
@@ -2034,14 +2103,16 @@ public class Cluster implements Closeable {
         private void maybeRefreshSchemaAndSignal(final Connection connection, final DefaultResultSetFuture future, final ResultSet rs, final SchemaElement targetType, final String targetKeyspace, final String targetName) {
             final boolean refreshSchema = (targetKeyspace != null); // if false, only wait for schema agreement
 
-            executor.submit(new Runnable() {
+            // Before refreshing the schema, wait for schema agreement so that querying a table just after
+            // having created it don't fail. The wait doesn't block any thread, the refresh runs on the executor
+            // once it's over.
+            final ListenableFuture<Boolean> agreementFuture = SchemaAgreementFuture.start(connection, this);
+            agreementFuture.addListener(new Runnable() {
                 @Override
                 public void run() {
                     boolean schemaInAgreement = false;
                     try {
-                        // Before refreshing the schema, wait for schema agreement so
-                        // that querying a table just after having created it don't fail.
-                        schemaInAgreement = ControlConnection.waitForSchemaAgreement(connection, Manager.this);
+                        schemaInAgreement = Uninterruptibles.getUninterruptibly(agreementFuture);
                         if (!schemaInAgreement)
                             logger.warn("No schema agreement from live replicas after {} s. The schema may not be up to date on some nodes.", configuration.getProtocolOptions().getMaxSchemaAgreementWaitSeconds());
                         if (refreshSchema)
@@ -2059,7 +2130,7 @@ public class Cluster implements Closeable {
                         future.setResult(rs);
                     }
                 }
-            });
+            }, executor);
         }
 
         // Called when some message has been received but has been initiated from the server (streamId < 0).
@@ -2106,12 +2177,7 @@ public class Cluster implements Closeable {
                             removeHost(metadata.getHost(tpAddr), false);
                             break;
                         case MOVED_NODE:
-                            executor.submit(new ExceptionCatchingRunnable() {
-                                @Override
-                                public void runMayThrow() {
-                                    controlConnection.refreshNodeListAndTokenMap();
-                                }
-                            });
+                            submitNodeListRefresh();
                             break;
                     }
                     break;
@@ -0,0 +1,168 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.datastax.driver.core.exceptions.InvalidTypeException;
+
+/**
+ * The codecs used to map CQL types to Java types.
+ * <p>
+ * A registry resolves the codec of a (CQL type, Java type) pair, for the typed accessors
+ * {@link GettableByIndexData#get(int, Class)} and {@link SettableByIndexData#set(int, Object, Class)}
+ * (and their by-name equivalents). It knows of the codecs registered with {@link #register},
+ * and of the driver's own mappings (the Java type of a CQL type being given by
+ * {@link DataType#asJavaClass()}).
+ * <p>
+ * Resolved codecs are cached, so that looking up the codec of a column doesn't allocate.
+ * <p>
+ * The registry of a cluster is set with {@link Cluster.Builder#withCodecRegistry}, and
+ * defaults to {@link #DEFAULT_INSTANCE}. {@link UDTValue} and {@link TupleValue} use the
+ * registry of their type: the user types and tuple types obtained from a cluster (from
+ * its schema metadata, or from the column definitions of its prepared statements and
+ * result sets) have the registry of the cluster, while the types created by the user
+ * with {@link TupleType#of} have {@link #DEFAULT_INSTANCE}.
+ * <p>
+ * This class is thread-safe.
+ */
+public class CodecRegistry {
+
+    /**
+     * The default registry, used by clusters that don't set their own, and by the UDT and
+     * tuple values of types that were not obtained from a cluster.
+     */
+    public static final CodecRegistry DEFAULT_INSTANCE = new CodecRegistry();
+
+    // CQL type -> Java type -> codec. Holds both the registered codecs and the resolved built-in ones.
+    private final ConcurrentMap<DataType, ConcurrentMap<Class<?>, CustomCodec<?>>> codecs = new ConcurrentHashMap<DataType, ConcurrentMap<Class<?>, CustomCodec<?>>>();
+
+    /**
+     * Registers codecs.
+     * <p>
+     * A registered codec replaces any codec previously registered for the same CQL and
+     * Java types, including the driver's own mapping.
+     *
+     * @param codecs the codecs to register.
+     * @return this registry.
+     */
+    public CodecRegistry register(CustomCodec<?>... codecs) {
+        for (CustomCodec<?> codec : codecs)
+            codecsFor(codec.getCqlType()).put(codec.getJavaType(), codec);
+        return this;
+    }
+
+    /**
+     * Returns the codec for a CQL type and a Java type.
+     *
+     * @param cqlType the CQL type.
+     * @param javaType the Java type.
+     * @return the codec registered for these types or, if {@code javaType} is the Java type
+     * the driver maps {@code cqlType} to, a codec for the driver's mapping.
+     *
+     * @throws InvalidTypeException if there is no codec for these types.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CustomCodec<T> codecFor(DataType cqlType, Class<T> javaType) {
+        ConcurrentMap<Class<?>, CustomCodec<?>> byJavaType = codecs.get(cqlType);
+        CustomCodec<?> codec = byJavaType == null ? null : byJavaType.get(javaType);
+        if (codec == null) {
+            if (!cqlType.asJavaClass().equals(javaType))
+                throw new InvalidTypeException(String.format("No codec registered for CQL type %s and Java type %s", cqlType, javaType.getName()));
+
+            CustomCodec<?> builtIn = new BuiltInCodec<T>(cqlType, javaType);
+            codec = codecsFor(cqlType).putIfAbsent(javaType, builtIn);
+            if (codec == null)
+                codec = builtIn;
+        }
+        return (CustomCodec<T>)codec;
+    }
+
+    /**
+     * Makes the UDT and tuple values of a type, and of the types it contains, use this registry.
+     */
+    void attachTo(DataType type) {
+        if (type instanceof UserType) {
+            UserType userType = (UserType)type;
+            userType.codecRegistry = this;
+            for (UserType.Field field : userType)
+                attachTo(field.getType());
+        } else if (type instanceof TupleType) {
+            TupleType tupleType = (TupleType)type;
+            tupleType.codecRegistry = this;
+            for (DataType componentType : tupleType.getComponentTypes())
+                attachTo(componentType);
+        } else {
+            for (DataType typeArgument : type.getTypeArguments())
+                attachTo(typeArgument);
+        }
+    }
+
+    void attachTo(ColumnDefinitions definitions) {
+        for (ColumnDefinitions.Definition definition : definitions)
+            attachTo(definition.getType());
+    }
+
+    private ConcurrentMap<Class<?>, CustomCodec<?>> codecsFor(DataType cqlType) {
+        ConcurrentMap<Class<?>, CustomCodec<?>> byJavaType = codecs.get(cqlType);
+        if (byJavaType == null) {
+            ConcurrentMap<Class<?>, CustomCodec<?>> newMap = new ConcurrentHashMap<Class<?>, CustomCodec<?>>();
+            byJavaType = codecs.putIfAbsent(cqlType, newMap);
+            if (byJavaType == null)
+                byJavaType = newMap;
+        }
+        return byJavaType;
+    }
+
+    /**
+     * Adapts the driver's mapping of a CQL type.
+     * <p>
+     * Like {@link GettableByIndexData#getObject(int)}, this returns an empty collection for
+     * a NULL collection.
+     */
+    private static class BuiltInCodec<T> extends CustomCodec<T> {
+
+        BuiltInCodec(DataType cqlType, Class<T> javaType) {
+            super(cqlType, javaType);
+        }
+
+        @Override
+        public ByteBuffer serialize(T value, ProtocolVersion protocolVersion) {
+            return value == null ? null : getCqlType().serialize(value, protocolVersion);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T deserialize(ByteBuffer bytes, ProtocolVersion protocolVersion) {
+            if (bytes == null) {
+                switch (getCqlType().getName()) {
+                    case LIST:
+                        return (T)Collections.emptyList();
+                    case SET:
+                        return (T)Collections.emptySet();
+                    case MAP:
+                        return (T)Collections.emptyMap();
+                    default:
+                        return null;
+                }
+            }
+            return (T)getCqlType().deserialize(bytes, protocolVersion);
+        }
+    }
+}
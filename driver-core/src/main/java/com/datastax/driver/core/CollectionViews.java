@@ -0,0 +1,337 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+import com.datastax.driver.core.exceptions.InvalidTypeException;
+
+/**
+ * Read-only collections backed by the serialized form of a CQL collection, which decode
+ * their elements when they are accessed (see {@link QueryOptions#setLazyCollectionDecoding}).
+ * <p>
+ * Elements are decoded on each access and not retained. Iterating decodes the elements in
+ * order; the first random access ({@code List.get}, {@code Map.get}, {@code Map.containsKey})
+ * indexes the positions of the elements (and for maps, decodes the keys), so that the
+ * following ones only decode the element they return.
+ */
+class CollectionViews {
+
+    private CollectionViews() {}
+
+    @SuppressWarnings("unchecked")
+    static <T> List<T> listView(DataType type, ByteBuffer bytes, ProtocolVersion protocolVersion) {
+        TypeCodec<T> codec = (TypeCodec<T>)type.getTypeArguments().get(0).codec(protocolVersion);
+        return new ListView<T>(codec, bytes, protocolVersion);
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> Set<T> setView(DataType type, ByteBuffer bytes, ProtocolVersion protocolVersion) {
+        TypeCodec<T> codec = (TypeCodec<T>)type.getTypeArguments().get(0).codec(protocolVersion);
+        return new SetView<T>(codec, bytes, protocolVersion);
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> Map<K, V> mapView(DataType type, ByteBuffer bytes, ProtocolVersion protocolVersion) {
+        TypeCodec<K> keyCodec = (TypeCodec<K>)type.getTypeArguments().get(0).codec(protocolVersion);
+        TypeCodec<V> valueCodec = (TypeCodec<V>)type.getTypeArguments().get(1).codec(protocolVersion);
+        return new MapView<K, V>(keyCodec, valueCodec, bytes, protocolVersion);
+    }
+
+    private static class ListView<T> extends AbstractList<T> implements RandomAccess {
+
+        private final TypeCodec<T> codec;
+        private final ProtocolVersion protocolVersion;
+        // Positioned on the first element, never moved
+        private final ByteBuffer elements;
+        private final int size;
+        private volatile int[] offsets;
+
+        ListView(TypeCodec<T> codec, ByteBuffer bytes, ProtocolVersion protocolVersion) {
+            this.codec = codec;
+            this.protocolVersion = protocolVersion;
+            this.elements = bytes.duplicate();
+            this.size = readSize(elements, protocolVersion);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public T get(int index) {
+            if (index < 0 || index >= size)
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+
+            ByteBuffer input = elements.duplicate();
+            input.position(offsets()[index]);
+            return decode(codec, input, protocolVersion);
+        }
+
+        private int[] offsets() {
+            int[] offsets = this.offsets;
+            if (offsets == null) {
+                offsets = new int[size];
+                ByteBuffer input = elements.duplicate();
+                for (int i = 0; i < size; i++) {
+                    offsets[i] = input.position();
+                    skip(input, protocolVersion);
+                }
+                this.offsets = offsets;
+            }
+            return offsets;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new DecodingIterator<T>(elements, size) {
+                @Override
+                T next(ByteBuffer input) {
+                    return decode(codec, input, protocolVersion);
+                }
+            };
+        }
+    }
+
+    private static class SetView<T> extends AbstractSet<T> {
+
+        private final TypeCodec<T> codec;
+        private final ProtocolVersion protocolVersion;
+        private final ByteBuffer elements;
+        private final int size;
+
+        SetView(TypeCodec<T> codec, ByteBuffer bytes, ProtocolVersion protocolVersion) {
+            this.codec = codec;
+            this.protocolVersion = protocolVersion;
+            this.elements = bytes.duplicate();
+            this.size = readSize(elements, protocolVersion);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new DecodingIterator<T>(elements, size) {
+                @Override
+                T next(ByteBuffer input) {
+                    return decode(codec, input, protocolVersion);
+                }
+            };
+        }
+    }
+
+    private static class MapView<K, V> extends AbstractMap<K, V> {
+
+        private final TypeCodec<K> keyCodec;
+        private final TypeCodec<V> valueCodec;
+        private final ProtocolVersion protocolVersion;
+        private final ByteBuffer elements;
+        private final int size;
+        // key -> position of its value
+        private volatile Map<K, Integer> valueOffsets;
+
+        MapView(TypeCodec<K> keyCodec, TypeCodec<V> valueCodec, ByteBuffer bytes, ProtocolVersion protocolVersion) {
+            this.keyCodec = keyCodec;
+            this.valueCodec = valueCodec;
+            this.protocolVersion = protocolVersion;
+            this.elements = bytes.duplicate();
+            this.size = readSize(elements, protocolVersion);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return valueOffsets().containsKey(key);
+        }
+
+        @Override
+        public V get(Object key) {
+            Integer offset = valueOffsets().get(key);
+            if (offset == null)
+                return null;
+
+            ByteBuffer input = elements.duplicate();
+            input.position(offset);
+            return decode(valueCodec, input, protocolVersion);
+        }
+
+        private Map<K, Integer> valueOffsets() {
+            Map<K, Integer> offsets = this.valueOffsets;
+            if (offsets == null) {
+                offsets = new HashMap<K, Integer>(size * 4 / 3 + 1);
+                ByteBuffer input = elements.duplicate();
+                for (int i = 0; i < size; i++) {
+                    K key = decode(keyCodec, input, protocolVersion);
+                    offsets.put(key, input.position());
+                    skip(input, protocolVersion);
+                }
+                this.valueOffsets = offsets;
+            }
+            return offsets;
+        }
+
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return new AbstractSet<Entry<K, V>>() {
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    return new DecodingIterator<Entry<K, V>>(elements, size) {
+                        @Override
+                        Entry<K, V> next(ByteBuffer input) {
+                            K key = decode(keyCodec, input, protocolVersion);
+                            return new SimpleImmutableEntry<K, V>(key, decode(valueCodec, input, protocolVersion));
+                        }
+                    };
+                }
+            };
+        }
+
+        @Override
+        public Set<K> keySet() {
+            return new AbstractSet<K>() {
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return containsKey(o);
+                }
+
+                @Override
+                public Iterator<K> iterator() {
+                    return new DecodingIterator<K>(elements, size) {
+                        @Override
+                        K next(ByteBuffer input) {
+                            K key = decode(keyCodec, input, protocolVersion);
+                            skip(input, protocolVersion);
+                            return key;
+                        }
+                    };
+                }
+            };
+        }
+
+        @Override
+        public Collection<V> values() {
+            return new AbstractCollection<V>() {
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public Iterator<V> iterator() {
+                    return new DecodingIterator<V>(elements, size) {
+                        @Override
+                        V next(ByteBuffer input) {
+                            skip(input, protocolVersion);
+                            return decode(valueCodec, input, protocolVersion);
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+    private static abstract class DecodingIterator<T> implements Iterator<T> {
+
+        private final ByteBuffer input;
+        private int remaining;
+
+        DecodingIterator(ByteBuffer elements, int size) {
+            this.input = elements.duplicate();
+            this.remaining = size;
+        }
+
+        abstract T next(ByteBuffer input);
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public T next() {
+            if (remaining == 0)
+                throw new NoSuchElementException();
+            remaining -= 1;
+            return next(input);
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static int readSize(ByteBuffer input, ProtocolVersion protocolVersion) {
+        try {
+            return TypeCodec.readCollectionSize(input, protocolVersion);
+        } catch (BufferUnderflowException e) {
+            throw new InvalidTypeException("Not enough bytes to deserialize collection");
+        }
+    }
+
+    private static <T> T decode(TypeCodec<T> codec, ByteBuffer input, ProtocolVersion protocolVersion) {
+        try {
+            return codec.deserialize(TypeCodec.readCollectionValue(input, protocolVersion));
+        } catch (BufferUnderflowException e) {
+            throw new InvalidTypeException("Not enough bytes to deserialize collection element");
+        }
+    }
+
+    // Moves past a value without creating a buffer for it
+    private static void skip(ByteBuffer input, ProtocolVersion protocolVersion) {
+        try {
+            int length;
+            switch (protocolVersion) {
+                case V1:
+                case V2:
+                    length = input.getShort() & 0xFFFF;
+                    break;
+                case V3:
+                    length = input.getInt();
+                    break;
+                default:
+                    throw protocolVersion.unsupported();
+            }
+            if (length > 0)
+                input.position(input.position() + length);
+        } catch (BufferUnderflowException e) {
+            throw new InvalidTypeException("Not enough bytes to deserialize collection element");
+        } catch (IllegalArgumentException e) {
+            // The new position is past the limit
+            throw new InvalidTypeException("Not enough bytes to deserialize collection element");
+        }
+    }
+}
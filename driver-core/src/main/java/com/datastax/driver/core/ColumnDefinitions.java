@@ -156,6 +156,10 @@ public class ColumnDefinitions implements Iterable<ColumnDefinitions.Definition>
         return byIdx[i].type;
     }
 
+    Definition getDefinition(int i) {
+        return byIdx[i];
+    }
+
     /**
      * Returns the type of the first occurrence of {@code name} in this metadata.
      *
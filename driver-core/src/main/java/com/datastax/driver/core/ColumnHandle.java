@@ -0,0 +1,651 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.nio.ByteBuffer;
+import java.util.Date;
+import java.util.UUID;
+
+import com.datastax.driver.core.exceptions.InvalidTypeException;
+
+/**
+ * A column, resolved once by name in some metadata, that can then be accessed by index
+ * in rows and bound statements.
+ * <p>
+ * Accessing a value by name ({@code row.getString("name")}) looks the name up in the
+ * metadata each time. A handle does this once, when it is created from the metadata of
+ * a result ({@link ResultSet#getColumnDefinitions}) or from the variables of a prepared
+ * statement ({@link PreparedStatement#getVariables}), and also checks the type of the
+ * column at that time:
+ * <pre>
+ *     ColumnHandle.IntHandle id = ColumnHandle.forInt(prepared.getVariables(), "id");
+ *     ColumnHandle.StringHandle name = ColumnHandle.forString(prepared.getVariables(), "name");
+ *     for (User user : users) {
+ *         BoundStatement bs = prepared.bind();
+ *         id.set(bs, user.getId());
+ *         name.set(bs, user.getName());
+ *         session.execute(bs);
+ *     }
+ * </pre>
+ * Handles are immutable and thread-safe. Each time a handle is used with metadata other
+ * than the one it was last used with, it checks that the column it was resolved to
+ * (keyspace, table, name and type) is still at the same index, and throws an
+ * {@code IllegalStateException} otherwise. This check is only a few comparisons, and it
+ * is skipped as long as the handle is used with the same metadata instance (which is the
+ * case for all the statements bound from a prepared statement).
+ */
+public abstract class ColumnHandle {
+
+    private final String name;
+    // All the occurrences of the name: we read the first one, but set all of them (like setX(String, ...))
+    final int[] indexes;
+    private final ColumnDefinitions.Definition[] definitions;
+    // The last metadata this handle was checked against
+    private volatile ColumnDefinitions validated;
+
+    private ColumnHandle(ColumnDefinitions metadata, String name, DataType.Name... types) {
+        this.name = name;
+        this.indexes = metadata.getAllIdx(name);
+        this.definitions = new ColumnDefinitions.Definition[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            DataType type = metadata.getType(indexes[i]);
+            if (!accepts(types, type.getName()))
+                throw new InvalidTypeException(String.format("Column %s is of type %s", name, type));
+            definitions[i] = metadata.getDefinition(indexes[i]);
+        }
+        this.validated = metadata;
+    }
+
+    private static boolean accepts(DataType.Name[] types, DataType.Name type) {
+        for (DataType.Name accepted : types) {
+            if (accepted == type)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the name this handle was resolved from.
+     *
+     * @return the name this handle was resolved from.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the index of the column in the metadata this handle was resolved from.
+     * <p>
+     * If the name occurs several times in the metadata, this is the index of its first
+     * occurrence.
+     *
+     * @return the index of the column.
+     */
+    public int getIndex() {
+        return indexes[0];
+    }
+
+    int index(Row row) {
+        validate(row.getColumnDefinitions());
+        return indexes[0];
+    }
+
+    int[] indexes(BoundStatement statement) {
+        validate(statement.preparedStatement().getVariables());
+        return indexes;
+    }
+
+    private void validate(ColumnDefinitions metadata) {
+        if (metadata == validated)
+            return;
+
+        for (int i = 0; i < indexes.length; i++) {
+            int idx = indexes[i];
+            if (idx >= metadata.size() || !metadata.getDefinition(idx).equals(definitions[i]))
+                throw new IllegalStateException(String.format("Column %s is not at index %d anymore, the metadata has changed since this handle was created", name, idx));
+        }
+        validated = metadata;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ColumnHandle[%s at %d]", name, indexes[0]);
+    }
+
+    /**
+     * Creates a handle for a column of type INT.
+     *
+     * @param metadata the metadata to resolve the column in.
+     * @param name the name of the column.
+     * @return the handle.
+     *
+     * @throws IllegalArgumentException if {@code name} is not a column of {@code metadata}.
+     * @throws InvalidTypeException if the column is not of type INT.
+     */
+    public static IntHandle forInt(ColumnDefinitions metadata, String name) {
+        return new IntHandle(metadata, name);
+    }
+
+    /**
+     * Creates a handle for a column of type BIGINT or COUNTER.
+     *
+     * @param metadata the metadata to resolve the column in.
+     * @param name the name of the column.
+     * @return the handle.
+     *
+     * @throws IllegalArgumentException if {@code name} is not a column of {@code metadata}.
+     * @throws InvalidTypeException if the column is not of type BIGINT or COUNTER.
+     */
+    public static LongHandle forLong(ColumnDefinitions metadata, String name) {
+        return new LongHandle(metadata, name);
+    }
+
+    /**
+     * Creates a handle for a column of type FLOAT.
+     *
+     * @param metadata the metadata to resolve the column in.
+     * @param name the name of the column.
+     * @return the handle.
+     *
+     * @throws IllegalArgumentException if {@code name} is not a column of {@code metadata}.
+     * @throws InvalidTypeException if the column is not of type FLOAT.
+     */
+    public static FloatHandle forFloat(ColumnDefinitions metadata, String name) {
+        return new FloatHandle(metadata, name);
+    }
+
+    /**
+     * Creates a handle for a column of type DOUBLE.
+     *
+     * @param metadata the metadata to resolve the column in.
+     * @param name the name of the column.
+     * @return the handle.
+     *
+     * @throws IllegalArgumentException if {@code name} is not a column of {@code metadata}.
+     * @throws InvalidTypeException if the column is not of type DOUBLE.
+     */
+    public static DoubleHandle forDouble(ColumnDefinitions metadata, String name) {
+        return new DoubleHandle(metadata, name);
+    }
+
+    /**
+     * Creates a handle for a column of type BOOLEAN.
+     *
+     * @param metadata the metadata to resolve the column in.
+     * @param name the name of the column.
+     * @return the handle.
+     *
+     * @throws IllegalArgumentException if {@code name} is not a column of {@code metadata}.
+     * @throws InvalidTypeException if the column is not of type BOOLEAN.
+     */
+    public static BoolHandle forBool(ColumnDefinitions metadata, String name) {
+        return new BoolHandle(metadata, name);
+    }
+
+    /**
+     * Creates a handle for a column of type VARCHAR, TEXT or ASCII.
+     *
+     * @param metadata the metadata to resolve the column in.
+     * @param name the name of the column.
+     * @return the handle.
+     *
+     * @throws IllegalArgumentException if {@code name} is not a column of {@code metadata}.
+     * @throws InvalidTypeException if the column is not of type VARCHAR, TEXT or ASCII.
+     */
+    public static StringHandle forString(ColumnDefinitions metadata, String name) {
+        return new StringHandle(metadata, name);
+    }
+
+    /**
+     * Creates a handle for a column of type UUID or TIMEUUID.
+     *
+     * @param metadata the metadata to resolve the column in.
+     * @param name the name of the column.
+     * @return the handle.
+     *
+     * @throws IllegalArgumentException if {@code name} is not a column of {@code metadata}.
+     * @throws InvalidTypeException if the column is not of type UUID or TIMEUUID.
+     */
+    public static UUIDHandle forUUID(ColumnDefinitions metadata, String name) {
+        return new UUIDHandle(metadata, name);
+    }
+
+    /**
+     * Creates a handle for a column of type TIMESTAMP.
+     *
+     * @param metadata the metadata to resolve the column in.
+     * @param name the name of the column.
+     * @return the handle.
+     *
+     * @throws IllegalArgumentException if {@code name} is not a column of {@code metadata}.
+     * @throws InvalidTypeException if the column is not of type TIMESTAMP.
+     */
+    public static DateHandle forDate(ColumnDefinitions metadata, String name) {
+        return new DateHandle(metadata, name);
+    }
+
+    /**
+     * Creates a handle for a column of type BLOB.
+     *
+     * @param metadata the metadata to resolve the column in.
+     * @param name the name of the column.
+     * @return the handle.
+     *
+     * @throws IllegalArgumentException if {@code name} is not a column of {@code metadata}.
+     * @throws InvalidTypeException if the column is not of type BLOB.
+     */
+    public static BytesHandle forBytes(ColumnDefinitions metadata, String name) {
+        return new BytesHandle(metadata, name);
+    }
+
+    /**
+     * A handle for a column of type INT.
+     */
+    public static class IntHandle extends ColumnHandle {
+
+        private IntHandle(ColumnDefinitions metadata, String name) {
+            super(metadata, name, DataType.Name.INT);
+        }
+
+        /**
+         * Returns the value of the column in a row, like {@link Row#getInt(int)}.
+         *
+         * @param row the row.
+         * @return the value of the column. If it is NULL, {@code 0} is returned.
+         *
+         * @throws IllegalStateException if the metadata of {@code row} does not match.
+         */
+        public int get(Row row) {
+            int i = index(row);
+            return row instanceof AbstractGettableByIndexData
+                 ? ((AbstractGettableByIndexData)row).getIntUnchecked(i)
+                 : row.getInt(i);
+        }
+
+        /**
+         * Sets the value of the column in a bound statement, like {@link BoundStatement#setInt(int, int)}.
+         *
+         * @param statement the statement.
+         * @param v the value to set.
+         * @return {@code statement}.
+         *
+         * @throws IllegalStateException if the variables of {@code statement} do not match.
+         */
+        public BoundStatement set(BoundStatement statement, int v) {
+            int[] indexes = indexes(statement);
+            ByteBuffer value = statement.wrapper.serializeInt(v);
+            for (int i : indexes)
+                statement.wrapper.setValue(i, value);
+            return statement;
+        }
+    }
+
+    /**
+     * A handle for a column of type BIGINT or COUNTER.
+     */
+    public static class LongHandle extends ColumnHandle {
+
+        private LongHandle(ColumnDefinitions metadata, String name) {
+            super(metadata, name, DataType.Name.BIGINT, DataType.Name.COUNTER);
+        }
+
+        /**
+         * Returns the value of the column in a row, like {@link Row#getLong(int)}.
+         *
+         * @param row the row.
+         * @return the value of the column. If it is NULL, {@code 0L} is returned.
+         *
+         * @throws IllegalStateException if the metadata of {@code row} does not match.
+         */
+        public long get(Row row) {
+            int i = index(row);
+            return row instanceof AbstractGettableByIndexData
+                 ? ((AbstractGettableByIndexData)row).getLongUnchecked(i)
+                 : row.getLong(i);
+        }
+
+        /**
+         * Sets the value of the column in a bound statement, like {@link BoundStatement#setLong(int, long)}.
+         *
+         * @param statement the statement.
+         * @param v the value to set.
+         * @return {@code statement}.
+         *
+         * @throws IllegalStateException if the variables of {@code statement} do not match.
+         */
+        public BoundStatement set(BoundStatement statement, long v) {
+            int[] indexes = indexes(statement);
+            ByteBuffer value = statement.wrapper.serializeLong(v);
+            for (int i : indexes)
+                statement.wrapper.setValue(i, value);
+            return statement;
+        }
+    }
+
+    /**
+     * A handle for a column of type FLOAT.
+     */
+    public static class FloatHandle extends ColumnHandle {
+
+        private FloatHandle(ColumnDefinitions metadata, String name) {
+            super(metadata, name, DataType.Name.FLOAT);
+        }
+
+        /**
+         * Returns the value of the column in a row, like {@link Row#getFloat(int)}.
+         *
+         * @param row the row.
+         * @return the value of the column. If it is NULL, {@code 0.0f} is returned.
+         *
+         * @throws IllegalStateException if the metadata of {@code row} does not match.
+         */
+        public float get(Row row) {
+            int i = index(row);
+            return row instanceof AbstractGettableByIndexData
+                 ? ((AbstractGettableByIndexData)row).getFloatUnchecked(i)
+                 : row.getFloat(i);
+        }
+
+        /**
+         * Sets the value of the column in a bound statement, like {@link BoundStatement#setFloat(int, float)}.
+         *
+         * @param statement the statement.
+         * @param v the value to set.
+         * @return {@code statement}.
+         *
+         * @throws IllegalStateException if the variables of {@code statement} do not match.
+         */
+        public BoundStatement set(BoundStatement statement, float v) {
+            int[] indexes = indexes(statement);
+            ByteBuffer value = statement.wrapper.serializeFloat(v);
+            for (int i : indexes)
+                statement.wrapper.setValue(i, value);
+            return statement;
+        }
+    }
+
+    /**
+     * A handle for a column of type DOUBLE.
+     */
+    public static class DoubleHandle extends ColumnHandle {
+
+        private DoubleHandle(ColumnDefinitions metadata, String name) {
+            super(metadata, name, DataType.Name.DOUBLE);
+        }
+
+        /**
+         * Returns the value of the column in a row, like {@link Row#getDouble(int)}.
+         *
+         * @param row the row.
+         * @return the value of the column. If it is NULL, {@code 0.0} is returned.
+         *
+         * @throws IllegalStateException if the metadata of {@code row} does not match.
+         */
+        public double get(Row row) {
+            int i = index(row);
+            return row instanceof AbstractGettableByIndexData
+                 ? ((AbstractGettableByIndexData)row).getDoubleUnchecked(i)
+                 : row.getDouble(i);
+        }
+
+        /**
+         * Sets the value of the column in a bound statement, like {@link BoundStatement#setDouble(int, double)}.
+         *
+         * @param statement the statement.
+         * @param v the value to set.
+         * @return {@code statement}.
+         *
+         * @throws IllegalStateException if the variables of {@code statement} do not match.
+         */
+        public BoundStatement set(BoundStatement statement, double v) {
+            int[] indexes = indexes(statement);
+            ByteBuffer value = statement.wrapper.serializeDouble(v);
+            for (int i : indexes)
+                statement.wrapper.setValue(i, value);
+            return statement;
+        }
+    }
+
+    /**
+     * A handle for a column of type BOOLEAN.
+     */
+    public static class BoolHandle extends ColumnHandle {
+
+        private BoolHandle(ColumnDefinitions metadata, String name) {
+            super(metadata, name, DataType.Name.BOOLEAN);
+        }
+
+        /**
+         * Returns the value of the column in a row, like {@link Row#getBool(int)}.
+         *
+         * @param row the row.
+         * @return the value of the column. If it is NULL, {@code false} is returned.
+         *
+         * @throws IllegalStateException if the metadata of {@code row} does not match.
+         */
+        public boolean get(Row row) {
+            int i = index(row);
+            return row instanceof AbstractGettableByIndexData
+                 ? ((AbstractGettableByIndexData)row).getBoolUnchecked(i)
+                 : row.getBool(i);
+        }
+
+        /**
+         * Sets the value of the column in a bound statement, like {@link BoundStatement#setBool(int, boolean)}.
+         *
+         * @param statement the statement.
+         * @param v the value to set.
+         * @return {@code statement}.
+         *
+         * @throws IllegalStateException if the variables of {@code statement} do not match.
+         */
+        public BoundStatement set(BoundStatement statement, boolean v) {
+            int[] indexes = indexes(statement);
+            ByteBuffer value = TypeCodec.BooleanCodec.instance.serializeNoBoxing(v);
+            for (int i : indexes)
+                statement.wrapper.setValue(i, value);
+            return statement;
+        }
+    }
+
+    /**
+     * A handle for a column of type VARCHAR, TEXT or ASCII.
+     */
+    public static class StringHandle extends ColumnHandle {
+
+        // The codec of each occurrence, which depends on its type
+        private final TypeCodec.StringCodec[] codecs;
+
+        private StringHandle(ColumnDefinitions metadata, String name) {
+            super(metadata, name, DataType.Name.VARCHAR, DataType.Name.TEXT, DataType.Name.ASCII);
+            this.codecs = new TypeCodec.StringCodec[indexes.length];
+            for (int i = 0; i < indexes.length; i++)
+                codecs[i] = metadata.getType(indexes[i]).getName() == DataType.Name.ASCII
+                          ? TypeCodec.StringCodec.asciiInstance
+                          : TypeCodec.StringCodec.utf8Instance;
+        }
+
+        /**
+         * Returns the value of the column in a row, like {@link Row#getString(int)}.
+         *
+         * @param row the row.
+         * @return the value of the column. If it is NULL, {@code null} is returned.
+         *
+         * @throws IllegalStateException if the metadata of {@code row} does not match.
+         */
+        public String get(Row row) {
+            int i = index(row);
+            return row instanceof AbstractGettableByIndexData
+                 ? ((AbstractGettableByIndexData)row).getStringUnchecked(i, codecs[0])
+                 : row.getString(i);
+        }
+
+        /**
+         * Sets the value of the column in a bound statement, like {@link BoundStatement#setString(int, String)}.
+         *
+         * @param statement the statement.
+         * @param v the value to set.
+         * @return {@code statement}.
+         *
+         * @throws IllegalStateException if the variables of {@code statement} do not match.
+         */
+        public BoundStatement set(BoundStatement statement, String v) {
+            int[] indexes = indexes(statement);
+            for (int i = 0; i < indexes.length; i++)
+                statement.wrapper.setValue(indexes[i], v == null ? null : codecs[i].serialize(v));
+            return statement;
+        }
+    }
+
+    /**
+     * A handle for a column of type UUID or TIMEUUID.
+     */
+    public static class UUIDHandle extends ColumnHandle {
+
+        private final TypeCodec.UUIDCodec codec;
+        // Whether one of the occurrences is a TIMEUUID, which only accepts type 1 UUIDs
+        private final boolean timeBased;
+
+        private UUIDHandle(ColumnDefinitions metadata, String name) {
+            super(metadata, name, DataType.Name.UUID, DataType.Name.TIMEUUID);
+            this.codec = metadata.getType(indexes[0]).getName() == DataType.Name.UUID
+                       ? TypeCodec.UUIDCodec.instance
+                       : TypeCodec.TimeUUIDCodec.instance;
+            boolean timeBased = false;
+            for (int i : indexes)
+                timeBased |= metadata.getType(i).getName() == DataType.Name.TIMEUUID;
+            this.timeBased = timeBased;
+        }
+
+        /**
+         * Returns the value of the column in a row, like {@link Row#getUUID(int)}.
+         *
+         * @param row the row.
+         * @return the value of the column. If it is NULL, {@code null} is returned.
+         *
+         * @throws IllegalStateException if the metadata of {@code row} does not match.
+         */
+        public UUID get(Row row) {
+            int i = index(row);
+            return row instanceof AbstractGettableByIndexData
+                 ? ((AbstractGettableByIndexData)row).getUUIDUnchecked(i, codec)
+                 : row.getUUID(i);
+        }
+
+        /**
+         * Sets the value of the column in a bound statement, like {@link BoundStatement#setUUID(int, UUID)}.
+         *
+         * @param statement the statement.
+         * @param v the value to set.
+         * @return {@code statement}.
+         *
+         * @throws IllegalStateException if the variables of {@code statement} do not match.
+         * @throws InvalidTypeException if the column is of type TIMEUUID and {@code v} is not
+         * a type 1 UUID.
+         */
+        public BoundStatement set(BoundStatement statement, UUID v) {
+            int[] indexes = indexes(statement);
+            if (v != null && timeBased && v.version() != 1)
+                throw new InvalidTypeException(String.format("%s is not a Type 1 (time-based) UUID", v));
+            ByteBuffer value = v == null ? null : statement.wrapper.serializeUUID(v);
+            for (int i : indexes)
+                statement.wrapper.setValue(i, value);
+            return statement;
+        }
+    }
+
+    /**
+     * A handle for a column of type TIMESTAMP.
+     */
+    public static class DateHandle extends ColumnHandle {
+
+        private DateHandle(ColumnDefinitions metadata, String name) {
+            super(metadata, name, DataType.Name.TIMESTAMP);
+        }
+
+        /**
+         * Returns the value of the column in a row, like {@link Row#getDate(int)}.
+         *
+         * @param row the row.
+         * @return the value of the column. If it is NULL, {@code null} is returned.
+         *
+         * @throws IllegalStateException if the metadata of {@code row} does not match.
+         */
+        public Date get(Row row) {
+            int i = index(row);
+            return row instanceof AbstractGettableByIndexData
+                 ? ((AbstractGettableByIndexData)row).getDateUnchecked(i)
+                 : row.getDate(i);
+        }
+
+        /**
+         * Sets the value of the column in a bound statement, like {@link BoundStatement#setDate(int, Date)}.
+         *
+         * @param statement the statement.
+         * @param v the value to set.
+         * @return {@code statement}.
+         *
+         * @throws IllegalStateException if the variables of {@code statement} do not match.
+         */
+        public BoundStatement set(BoundStatement statement, Date v) {
+            int[] indexes = indexes(statement);
+            ByteBuffer value = v == null ? null : statement.wrapper.serializeLong(v.getTime());
+            for (int i : indexes)
+                statement.wrapper.setValue(i, value);
+            return statement;
+        }
+    }
+
+    /**
+     * A handle for a column of type BLOB.
+     */
+    public static class BytesHandle extends ColumnHandle {
+
+        private BytesHandle(ColumnDefinitions metadata, String name) {
+            super(metadata, name, DataType.Name.BLOB);
+        }
+
+        /**
+         * Returns the value of the column in a row, like {@link Row#getBytes(int)}.
+         *
+         * @param row the row.
+         * @return the value of the column. If it is NULL, {@code null} is returned.
+         *
+         * @throws IllegalStateException if the metadata of {@code row} does not match.
+         */
+        public ByteBuffer get(Row row) {
+            // The type was checked when the handle was resolved
+            return row.getBytesUnsafe(index(row));
+        }
+
+        /**
+         * Sets the value of the column in a bound statement, like {@link BoundStatement#setBytes(int, ByteBuffer)}.
+         *
+         * @param statement the statement.
+         * @param v the value to set.
+         * @return {@code statement}.
+         *
+         * @throws IllegalStateException if the variables of {@code statement} do not match.
+         */
+        public BoundStatement set(BoundStatement statement, ByteBuffer v) {
+            int[] indexes = indexes(statement);
+            ByteBuffer value = v == null ? null : v.duplicate();
+            for (int i : indexes)
+                statement.wrapper.setValue(i, value);
+            return statement;
+        }
+    }
+}
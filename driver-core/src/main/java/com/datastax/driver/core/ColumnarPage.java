@@ -0,0 +1,363 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+import com.datastax.driver.core.exceptions.InvalidTypeException;
+
+/**
+ * A page of results decoded column by column (see {@link ResultSet#nextPageAsColumns}).
+ * <p>
+ * Columns of a fixed-width type are decoded into primitive arrays, with one element per row:
+ * <ul>
+ *   <li>{@code int}: {@link #getInts};</li>
+ *   <li>{@code bigint}, {@code counter} and {@code timestamp} (as milliseconds since the epoch): {@link #getLongs};</li>
+ *   <li>{@code double}: {@link #getDoubles};</li>
+ *   <li>{@code float}: {@link #getFloats};</li>
+ *   <li>{@code boolean}: {@link #getBooleans}.</li>
+ * </ul>
+ * The elements corresponding to CQL NULL values are 0 (or {@code false}); use {@link #isNull}
+ * or {@link #getNullBitmap} to tell them apart.
+ * <p>
+ * The values of all the other columns are copied, in their serialized form, into a single byte
+ * array per column ({@link #getVariableWidthData}). The value of row {@code r} spans from
+ * {@code getOffsets(c)[r]} (inclusive) to {@code getOffsets(c)[r + 1]} (exclusive).
+ * <p>
+ * For efficiency, the arrays returned by this class are not copied: modifying them will modify
+ * the page.
+ */
+public class ColumnarPage {
+
+    private final ColumnDefinitions metadata;
+    private final int rowCount;
+
+    // For each column, one of int[], long[], double[], float[], boolean[], or null for variable-width columns
+    private final Object[] fixedWidthValues;
+    private final byte[][] variableWidthData;
+    private final int[][] offsets;
+    private final BitSet[] nulls;
+
+    ColumnarPage(ColumnDefinitions metadata, Collection<List<ByteBuffer>> rows) {
+        this.metadata = metadata;
+        this.rowCount = rows.size();
+
+        int columnCount = metadata.size();
+        this.fixedWidthValues = new Object[columnCount];
+        this.variableWidthData = new byte[columnCount][];
+        this.offsets = new int[columnCount][];
+        this.nulls = new BitSet[columnCount];
+
+        int[] widths = new int[columnCount];
+        for (int c = 0; c < columnCount; c++) {
+            DataType.Name name = metadata.getType(c).getName();
+            widths[c] = fixedWidth(name);
+            nulls[c] = new BitSet(rowCount);
+            switch (name) {
+                case INT:
+                    fixedWidthValues[c] = new int[rowCount];
+                    break;
+                case BIGINT:
+                case COUNTER:
+                case TIMESTAMP:
+                    fixedWidthValues[c] = new long[rowCount];
+                    break;
+                case DOUBLE:
+                    fixedWidthValues[c] = new double[rowCount];
+                    break;
+                case FLOAT:
+                    fixedWidthValues[c] = new float[rowCount];
+                    break;
+                case BOOLEAN:
+                    fixedWidthValues[c] = new boolean[rowCount];
+                    break;
+                default:
+                    variableWidthData[c] = new byte[64];
+                    offsets[c] = new int[rowCount + 1];
+            }
+        }
+
+        int r = 0;
+        for (List<ByteBuffer> row : rows) {
+            for (int c = 0; c < columnCount; c++) {
+                ByteBuffer value = row.get(c);
+                if (widths[c] < 0)
+                    appendVariableWidth(c, r, value);
+                else
+                    setFixedWidth(c, r, widths[c], value);
+            }
+            r += 1;
+        }
+    }
+
+    private static int fixedWidth(DataType.Name name) {
+        switch (name) {
+            case INT:
+            case FLOAT:
+                return 4;
+            case BIGINT:
+            case COUNTER:
+            case TIMESTAMP:
+            case DOUBLE:
+                return 8;
+            case BOOLEAN:
+                return 1;
+            default:
+                return -1;
+        }
+    }
+
+    private void setFixedWidth(int c, int r, int width, ByteBuffer value) {
+        if (value == null) {
+            nulls[c].set(r);
+            return;
+        }
+
+        // Like the getters of Row, an empty value decodes to 0
+        int length = value.remaining();
+        if (length == 0)
+            return;
+        if (length != width)
+            throw new InvalidTypeException(String.format("Invalid value for column %s, expecting %d bytes but got %d", metadata.getName(c), width, length));
+
+        // Absolute reads, so the buffers of the rows are left untouched
+        int position = value.position();
+        Object values = fixedWidthValues[c];
+        if (values instanceof int[])
+            ((int[])values)[r] = value.getInt(position);
+        else if (values instanceof long[])
+            ((long[])values)[r] = value.getLong(position);
+        else if (values instanceof double[])
+            ((double[])values)[r] = value.getDouble(position);
+        else if (values instanceof float[])
+            ((float[])values)[r] = value.getFloat(position);
+        else
+            ((boolean[])values)[r] = value.get(position) != 0;
+    }
+
+    private void appendVariableWidth(int c, int r, ByteBuffer value) {
+        int[] columnOffsets = offsets[c];
+        int start = columnOffsets[r];
+        if (value == null) {
+            nulls[c].set(r);
+            columnOffsets[r + 1] = start;
+            return;
+        }
+
+        int length = value.remaining();
+        byte[] data = variableWidthData[c];
+        if (start + length > data.length) {
+            byte[] grown = new byte[Math.max(data.length * 2, start + length)];
+            System.arraycopy(data, 0, grown, 0, start);
+            variableWidthData[c] = data = grown;
+        }
+        if (value.hasArray())
+            System.arraycopy(value.array(), value.arrayOffset() + value.position(), data, start, length);
+        else
+            value.duplicate().get(data, start, length);
+        columnOffsets[r + 1] = start + length;
+    }
+
+    /**
+     * Returns the columns of this page.
+     *
+     * @return the columns of this page.
+     */
+    public ColumnDefinitions getColumnDefinitions() {
+        return metadata;
+    }
+
+    /**
+     * Returns the number of rows in this page.
+     *
+     * @return the number of rows in this page.
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns whether a value of this page is NULL.
+     *
+     * @param row the index ({@code 0 <= row < getRowCount()}) of the row.
+     * @param column the index ({@code 0 <= column < getColumnDefinitions().size()}) of the column.
+     * @return whether the value of {@code column} in {@code row} is NULL.
+     *
+     * @throws IndexOutOfBoundsException if {@code row} or {@code column} is not a valid index.
+     */
+    public boolean isNull(int row, int column) {
+        checkRow(row);
+        return nulls[column].get(row);
+    }
+
+    /**
+     * Returns the rows in which a column is NULL.
+     *
+     * @param column the index ({@code 0 <= column < getColumnDefinitions().size()}) of the column.
+     * @return a bitmap in which the bit of index {@code r} is set if the value of {@code column}
+     * is NULL in row {@code r}.
+     *
+     * @throws IndexOutOfBoundsException if {@code column} is not a valid index.
+     */
+    public BitSet getNullBitmap(int column) {
+        return nulls[column];
+    }
+
+    /**
+     * Returns the values of a column of type {@code int}.
+     *
+     * @param column the index ({@code 0 <= column < getColumnDefinitions().size()}) of the column.
+     * @return the values of {@code column}, indexed by row.
+     *
+     * @throws IndexOutOfBoundsException if {@code column} is not a valid index.
+     * @throws InvalidTypeException if {@code column} is not of type INT.
+     */
+    public int[] getInts(int column) {
+        metadata.checkType(column, DataType.Name.INT);
+        return (int[])fixedWidthValues[column];
+    }
+
+    /**
+     * Returns the values of a column of type {@code bigint}, {@code counter} or {@code timestamp}.
+     * <p>
+     * The values of a {@code timestamp} column are returned as milliseconds since the epoch.
+     *
+     * @param column the index ({@code 0 <= column < getColumnDefinitions().size()}) of the column.
+     * @return the values of {@code column}, indexed by row.
+     *
+     * @throws IndexOutOfBoundsException if {@code column} is not a valid index.
+     * @throws InvalidTypeException if {@code column} is not of type BIGINT, COUNTER or TIMESTAMP.
+     */
+    public long[] getLongs(int column) {
+        metadata.checkType(column, DataType.Name.BIGINT, DataType.Name.COUNTER, DataType.Name.TIMESTAMP);
+        return (long[])fixedWidthValues[column];
+    }
+
+    /**
+     * Returns the values of a column of type {@code double}.
+     *
+     * @param column the index ({@code 0 <= column < getColumnDefinitions().size()}) of the column.
+     * @return the values of {@code column}, indexed by row.
+     *
+     * @throws IndexOutOfBoundsException if {@code column} is not a valid index.
+     * @throws InvalidTypeException if {@code column} is not of type DOUBLE.
+     */
+    public double[] getDoubles(int column) {
+        metadata.checkType(column, DataType.Name.DOUBLE);
+        return (double[])fixedWidthValues[column];
+    }
+
+    /**
+     * Returns the values of a column of type {@code float}.
+     *
+     * @param column the index ({@code 0 <= column < getColumnDefinitions().size()}) of the column.
+     * @return the values of {@code column}, indexed by row.
+     *
+     * @throws IndexOutOfBoundsException if {@code column} is not a valid index.
+     * @throws InvalidTypeException if {@code column} is not of type FLOAT.
+     */
+    public float[] getFloats(int column) {
+        metadata.checkType(column, DataType.Name.FLOAT);
+        return (float[])fixedWidthValues[column];
+    }
+
+    /**
+     * Returns the values of a column of type {@code boolean}.
+     *
+     * @param column the index ({@code 0 <= column < getColumnDefinitions().size()}) of the column.
+     * @return the values of {@code column}, indexed by row.
+     *
+     * @throws IndexOutOfBoundsException if {@code column} is not a valid index.
+     * @throws InvalidTypeException if {@code column} is not of type BOOLEAN.
+     */
+    public boolean[] getBooleans(int column) {
+        metadata.checkType(column, DataType.Name.BOOLEAN);
+        return (boolean[])fixedWidthValues[column];
+    }
+
+    /**
+     * Returns the serialized values of a column that is not of a fixed-width type.
+     * <p>
+     * The returned array may be larger than the values it contains; the values end at
+     * {@code getOffsets(column)[getRowCount()]}.
+     *
+     * @param column the index ({@code 0 <= column < getColumnDefinitions().size()}) of the column.
+     * @return the serialized values of {@code column}, one after the other.
+     *
+     * @throws IndexOutOfBoundsException if {@code column} is not a valid index.
+     * @throws InvalidTypeException if {@code column} is of a fixed-width type.
+     */
+    public byte[] getVariableWidthData(int column) {
+        checkVariableWidth(column);
+        return variableWidthData[column];
+    }
+
+    /**
+     * Returns the offsets of the values of a column that is not of a fixed-width type
+     * in {@link #getVariableWidthData}.
+     *
+     * @param column the index ({@code 0 <= column < getColumnDefinitions().size()}) of the column.
+     * @return an array of {@code getRowCount() + 1} offsets, where the value of row {@code r}
+     * spans from {@code offsets[r]} to {@code offsets[r + 1]}. NULL values are empty.
+     *
+     * @throws IndexOutOfBoundsException if {@code column} is not a valid index.
+     * @throws InvalidTypeException if {@code column} is of a fixed-width type.
+     */
+    public int[] getOffsets(int column) {
+        checkVariableWidth(column);
+        return offsets[column];
+    }
+
+    /**
+     * Returns the value of a column of type {@code text}, {@code varchar} or {@code ascii}
+     * as a string.
+     *
+     * @param row the index ({@code 0 <= row < getRowCount()}) of the row.
+     * @param column the index ({@code 0 <= column < getColumnDefinitions().size()}) of the column.
+     * @return the value of {@code column} in {@code row}. If the value is NULL, {@code null}
+     * is returned.
+     *
+     * @throws IndexOutOfBoundsException if {@code row} or {@code column} is not a valid index.
+     * @throws InvalidTypeException if {@code column} is not of type VARCHAR, TEXT or ASCII.
+     */
+    public String getString(int row, int column) {
+        DataType.Name type = metadata.checkType(column, DataType.Name.VARCHAR,
+                                                        DataType.Name.TEXT,
+                                                        DataType.Name.ASCII);
+        checkRow(row);
+        if (nulls[column].get(row))
+            return null;
+
+        int start = offsets[column][row];
+        ByteBuffer value = ByteBuffer.wrap(variableWidthData[column], start, offsets[column][row + 1] - start);
+        return type == DataType.Name.ASCII
+             ? TypeCodec.StringCodec.asciiInstance.deserialize(value)
+             : TypeCodec.StringCodec.utf8Instance.deserialize(value);
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= rowCount)
+            throw new IndexOutOfBoundsException("Row: " + row + ", Row count: " + rowCount);
+    }
+
+    private void checkVariableWidth(int column) {
+        if (fixedWidthValues[column] != null)
+            throw new InvalidTypeException(String.format("Column %s is of type %s", metadata.getName(column), metadata.getType(column)));
+    }
+}
@@ -26,6 +26,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
+import com.google.common.base.Function;
 import com.google.common.collect.Lists;
 import com.google.common.collect.MapMaker;
 import com.google.common.util.concurrent.*;
@@ -240,7 +241,7 @@ class Connection {
             public ListenableFuture<Void> apply(Message.Response response) throws Exception {
                 switch (response.type) {
                     case READY:
-                        return checkClusterName(protocolVersion, initExecutor);
+                        return finishInitialization(protocolVersion, initExecutor);
                     case ERROR:
                         Responses.Error error = (Responses.Error)response;
                         // Testing for a specific string is a tad fragile but well, we don't have much choice
@@ -269,6 +270,20 @@ class Connection {
         };
     }
 
+    // Once the connection is ready (and authenticated), the remaining requests are sent together rather than one
+    // round trip after the other.
+    private ListenableFuture<Void> finishInitialization(ProtocolVersion protocolVersion, Executor executor) {
+        ListenableFuture<Void> clusterNameFuture = checkClusterName(protocolVersion, executor);
+        final ListenableFuture<Void> keyspaceFuture = initKeyspace(executor);
+        // Report a cluster name mismatch first, since it causes the host to be ignored
+        return Futures.transform(clusterNameFuture, new AsyncFunction<Void, Void>() {
+            @Override
+            public ListenableFuture<Void> apply(Void input) throws Exception {
+                return keyspaceFuture;
+            }
+        }, executor);
+    }
+
     // Due to C* gossip bugs, system.peers may report nodes that are gone from the cluster.
     // If these nodes have been recommissionned to another cluster and are up, nothing prevents the driver from connecting
     // to them. So we check that the cluster the node thinks it belongs to is our cluster (JAVA-397).
@@ -279,6 +294,10 @@ class Connection {
         if (expected == null)
             return MoreFutures.VOID_SUCCESS;
 
+        final Host host = factory.manager.metadata.getHost(address);
+        if (host != null && host.clusterNameChecked && host.isUp())
+            return MoreFutures.VOID_SUCCESS;
+
         DefaultResultSetFuture clusterNameFuture = new DefaultResultSetFuture(null, protocolVersion, new Requests.Query("select cluster_name from system.local"));
         try {
             write(clusterNameFuture);
@@ -290,6 +309,8 @@ class Connection {
                         String actual = row.getString("cluster_name");
                         if (!expected.equals(actual))
                             throw new ClusterNameMismatchException(address, actual, expected);
+                        if (host != null)
+                            host.clusterNameChecked = true;
                         return MoreFutures.VOID_SUCCESS;
                     }
                 }, executor);
@@ -298,6 +319,40 @@ class Connection {
         }
     }
 
+    // Sets the keyspace of pool connections during initialization, so that borrowing them doesn't block on a USE.
+    // This is best effort: if it fails, the keyspace will be set when the connection is borrowed.
+    private ListenableFuture<Void> initKeyspace(Executor executor) {
+        HostConnectionPool pool = poolRef.get();
+        final String keyspace = pool == null ? null : pool.manager.poolsState.keyspace;
+        if (keyspace == null)
+            return MoreFutures.VOID_SUCCESS;
+
+        ListenableFuture<Void> keyspaceFuture;
+        try {
+            // Note: we quote the keyspace below, because the name is the one coming from Cassandra, so it's in the right case already
+            Future future = write(new Requests.Query("USE \"" + keyspace + '"'));
+            keyspaceFuture = Futures.transform(future, new Function<Message.Response, Void>() {
+                @Override
+                public Void apply(Message.Response response) {
+                    if (response.type == Message.Response.Type.RESULT)
+                        Connection.this.keyspace = keyspace;
+                    else
+                        logger.debug("{} Could not set keyspace {} during initialization, got {}", Connection.this, keyspace, response);
+                    return null;
+                }
+            }, executor);
+        } catch (Exception e) {
+            keyspaceFuture = Futures.immediateFailedFuture(e);
+        }
+        return Futures.withFallback(keyspaceFuture, new FutureFallback<Void>() {
+            @Override
+            public ListenableFuture<Void> create(Throwable t) throws Exception {
+                logger.debug("{} Could not set keyspace {} during initialization{}", Connection.this, keyspace, extractMessage(t));
+                return MoreFutures.VOID_SUCCESS;
+            }
+        }, executor);
+    }
+
     private ListenableFuture<Void> authenticateV1(Authenticator authenticator, final ProtocolVersion protocolVersion, final Executor executor) {
         Requests.Credentials creds = new Requests.Credentials(((ProtocolV1Authenticator)authenticator).getCredentials());
         try {
@@ -308,7 +363,7 @@ class Connection {
                     public ListenableFuture<Void> apply(Message.Response authResponse) throws Exception {
                         switch (authResponse.type) {
                             case READY:
-                                return checkClusterName(protocolVersion, executor);
+                                return finishInitialization(protocolVersion, executor);
                             case ERROR:
                                 throw new AuthenticationException(address, ((Responses.Error)authResponse).message);
                             default:
@@ -342,14 +397,14 @@ class Connection {
                     case AUTH_SUCCESS:
                         logger.trace("{} Authentication complete", this);
                         authenticator.onAuthenticationSuccess(((Responses.AuthSuccess)authResponse).token);
-                        return checkClusterName(protocolVersion, executor);
+                        return finishInitialization(protocolVersion, executor);
                     case AUTH_CHALLENGE:
                         byte[] responseToServer = authenticator.evaluateChallenge(((Responses.AuthChallenge)authResponse).token);
                         if (responseToServer == null) {
                             // If we generate a null response, then authentication has completed, proceed without
                             // sending a further response back to the server.
                             logger.trace("{} Authentication complete (No response to server)", this);
-                            return checkClusterName(protocolVersion, executor);
+                            return finishInitialization(protocolVersion, executor);
                         } else {
                             // Otherwise, send the challenge response back to the server
                             logger.trace("{} Sending Auth response to challenge", this);
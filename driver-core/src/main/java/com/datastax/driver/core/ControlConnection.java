@@ -15,15 +15,16 @@
  */
 package com.datastax.driver.core;
 
+import java.io.File;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
 import java.util.*;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 import com.google.common.base.Objects;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -58,8 +59,8 @@ class ControlConnection implements Host.StateListener {
     private static final String SELECT_PEERS = "SELECT * FROM system.peers";
     private static final String SELECT_LOCAL = "SELECT * FROM system.local WHERE key='local'";
 
-    private static final String SELECT_SCHEMA_PEERS = "SELECT peer, rpc_address, schema_version FROM system.peers";
-    private static final String SELECT_SCHEMA_LOCAL = "SELECT schema_version FROM system.local WHERE key='local'";
+    static final String SELECT_SCHEMA_PEERS = "SELECT peer, rpc_address, schema_version FROM system.peers";
+    static final String SELECT_SCHEMA_LOCAL = "SELECT schema_version FROM system.local WHERE key='local'";
 
     private final AtomicReference<Connection> connectionRef = new AtomicReference<Connection>();
 
@@ -260,10 +261,37 @@ class ControlConnection implements Host.StateListener {
             );
             connection.write(new Requests.Register(evs));
 
+            // When starting from a snapshot, send the schema version query along with the node list queries below
+            File snapshotFile = cluster.configuration.getQueryOptions().getMetadataSnapshotFile();
+            MetadataSnapshot snapshot = null;
+            DefaultResultSetFuture schemaVersionFuture = null;
+            if (isInitialConnection && snapshotFile != null) {
+                snapshot = MetadataSnapshot.read(snapshotFile);
+                if (snapshot != null) {
+                    schemaVersionFuture = new DefaultResultSetFuture(null, cluster.protocolVersion(), new Requests.Query(SELECT_SCHEMA_LOCAL));
+                    connection.write(schemaVersionFuture);
+                }
+            }
+
             // We need to refresh the node list first so we know about the cassandra version of
             // the node we're connecting to.
             refreshNodeListAndTokenMap(connection, cluster, isInitialConnection, true);
 
+            // The snapshot can only be trusted once we know the name of the cluster we're connected to
+            if (snapshot != null) {
+                if (cluster.metadata.restore(snapshot)) {
+                    Row row = schemaVersionFuture.get().one();
+                    if (row != null && snapshot.schemaVersion.equals(row.getUUID("schema_version"))) {
+                        logger.debug("[Control connection] Schema restored from snapshot {}", snapshotFile);
+                    } else {
+                        logger.debug("[Control connection] Snapshot {} is outdated, refreshing schema in the background", snapshotFile);
+                        cluster.submitSchemaRefresh(null, null, null);
+                    }
+                    return connection;
+                }
+                logger.warn("Ignoring metadata snapshot {} since it belongs to cluster {}", snapshotFile, snapshot.clusterName);
+            }
+
             // Note that refreshing the schema will trigger refreshNodeListAndTokenMap since table == null
             // We want that because the token map was not properly initialized by the first call above, since it requires the list of keyspaces
             // to be loaded.
@@ -289,6 +317,11 @@ class ControlConnection implements Host.StateListener {
     }
 
     public void refreshSchema(SchemaElement targetType, String targetKeyspace, String targetName) throws InterruptedException {
+        refreshSchema(targetType, targetKeyspace, targetName, true);
+    }
+
+    // If refreshTokenMap is false, the caller is responsible for refreshing the token map after a keyspace refresh
+    void refreshSchema(SchemaElement targetType, String targetKeyspace, String targetName, boolean refreshTokenMap) throws InterruptedException {
         logger.debug("[Control connection] Refreshing schema for {}{}",
             targetType == null ? "everything" : targetKeyspace,
             (targetType == KEYSPACE) ? "" : "." + targetName + " (" + targetType + ")");
@@ -297,7 +330,7 @@ class ControlConnection implements Host.StateListener {
             // At startup, when we add the initial nodes, this will be null, which is ok
             if (c == null)
                 return;
-            refreshSchema(c, targetType, targetKeyspace, targetName, cluster, false);
+            refreshSchema(c, targetType, targetKeyspace, targetName, cluster, false, refreshTokenMap);
         } catch (ConnectionException e) {
             logger.debug("[Control connection] Connection error while refreshing schema ({})", e.getMessage());
             signalError();
@@ -313,19 +346,38 @@ class ControlConnection implements Host.StateListener {
     }
 
     static void refreshSchema(Connection connection, SchemaElement targetType, String targetKeyspace, String targetName, Cluster.Manager cluster, boolean isInitialConnection) throws ConnectionException, BusyConnectionException, ExecutionException, InterruptedException {
-        Host host = cluster.metadata.getHost(connection.address);
-        // Neither host, nor it's version should be null. But instead of dying if there is a race or something, we can kind of try to infer
-        // a Cassandra version from the protocol version (this is not full proof, we can have the protocol 1 against C* 2.0+, but it's worth
-        // a shot, and since we log in this case, it should be relatively easy to debug when if this ever fail).
-        VersionNumber cassandraVersion;
-        if (host == null || host.getCassandraVersion() == null) {
-            cassandraVersion = cluster.protocolVersion().minCassandraVersion();
-            logger.warn("Cannot find Cassandra version for host {} to parse the schema, using {} based on protocol version in use. "
-                      + "If parsing the schema fails, this could be the cause", connection.address, cassandraVersion);
+        refreshSchema(connection, targetType, targetKeyspace, targetName, cluster, isInitialConnection, true);
+    }
+
+    private static void refreshSchema(Connection connection, SchemaElement targetType, String targetKeyspace, String targetName, Cluster.Manager cluster, boolean isInitialConnection, boolean refreshTokenMap) throws ConnectionException, BusyConnectionException, ExecutionException, InterruptedException {
+        QueryOptions options = cluster.configuration.getQueryOptions();
+
+        // Tables and user types are only fetched for tracked keyspaces, and not fetched along with
+        // keyspaces if they are loaded lazily (see QueryOptions#setLazySchemaLoading)
+        boolean fetchElements;
+        String elementsWhereClause = null;
+        if (targetType == null) {
+            Set<String> tracked = options.getTrackedKeyspaces();
+            fetchElements = !options.isLazySchemaLoading() && (tracked == null || !tracked.isEmpty());
+            if (fetchElements && tracked != null)
+                elementsWhereClause = " WHERE keyspace_name IN (" + quoteAndJoin(tracked) + ')';
+        } else if (!options.isTrackedKeyspace(targetKeyspace)) {
+            fetchElements = false;
+        } else if (targetType == KEYSPACE) {
+            fetchElements = !options.isLazySchemaLoading();
         } else {
-            cassandraVersion = host.getCassandraVersion();
+            // Refresh a table or type only if the rest of the keyspace is loaded (if the keyspace is unknown, let
+            // Metadata#rebuildSchema handle it)
+            KeyspaceMetadata ksm = cluster.metadata.getKeyspaceInternal(targetKeyspace);
+            fetchElements = ksm == null || ksm.isLoaded();
         }
 
+        boolean isSchemaOrKeyspace = (targetType == null || targetType == KEYSPACE);
+        if (!isSchemaOrKeyspace && !fetchElements)
+            return;
+
+        VersionNumber cassandraVersion = cassandraVersion(connection, cluster);
+
         // Make sure we're up to date on schema
         String whereClause = "";
         if (targetType != null) {
@@ -335,21 +387,30 @@ class ControlConnection implements Host.StateListener {
             else if (targetType == TYPE)
                 whereClause += " AND type_name = '" + targetName + '\'';
         }
+        if (elementsWhereClause == null)
+            elementsWhereClause = whereClause;
 
-        boolean isSchemaOrKeyspace = (targetType == null || targetType == KEYSPACE);
         DefaultResultSetFuture ksFuture = isSchemaOrKeyspace
                                         ? new DefaultResultSetFuture(null, cluster.protocolVersion(), new Requests.Query(SELECT_KEYSPACES + whereClause))
                                         : null;
-        DefaultResultSetFuture udtFuture = (isSchemaOrKeyspace && supportsUdts(cassandraVersion) || targetType == TYPE)
-                                         ? new DefaultResultSetFuture(null, cluster.protocolVersion(), new Requests.Query(SELECT_USERTYPES + whereClause))
+        DefaultResultSetFuture udtFuture = fetchElements && (isSchemaOrKeyspace && supportsUdts(cassandraVersion) || targetType == TYPE)
+                                         ? new DefaultResultSetFuture(null, cluster.protocolVersion(), new Requests.Query(SELECT_USERTYPES + elementsWhereClause))
                                          : null;
-        DefaultResultSetFuture cfFuture = (isSchemaOrKeyspace || targetType == TABLE)
-                                        ? new DefaultResultSetFuture(null, cluster.protocolVersion(), new Requests.Query(SELECT_COLUMN_FAMILIES + whereClause))
+        DefaultResultSetFuture cfFuture = fetchElements && (isSchemaOrKeyspace || targetType == TABLE)
+                                        ? new DefaultResultSetFuture(null, cluster.protocolVersion(), new Requests.Query(SELECT_COLUMN_FAMILIES + elementsWhereClause))
                                         : null;
-        DefaultResultSetFuture colsFuture = (isSchemaOrKeyspace || targetType == TABLE)
-                                          ? new DefaultResultSetFuture(null, cluster.protocolVersion(), new Requests.Query(SELECT_COLUMNS + whereClause))
+        DefaultResultSetFuture colsFuture = fetchElements && (isSchemaOrKeyspace || targetType == TABLE)
+                                          ? new DefaultResultSetFuture(null, cluster.protocolVersion(), new Requests.Query(SELECT_COLUMNS + elementsWhereClause))
                                           : null;
 
+        // Read the schema version before the schema, so that the snapshot is never more recent than its version
+        File snapshotFile = targetType == null ? options.getMetadataSnapshotFile() : null;
+        DefaultResultSetFuture schemaVersionFuture = snapshotFile == null
+                                                   ? null
+                                                   : new DefaultResultSetFuture(null, cluster.protocolVersion(), new Requests.Query(SELECT_SCHEMA_LOCAL));
+        if (schemaVersionFuture != null)
+            connection.write(schemaVersionFuture);
+
         if (ksFuture != null)
             connection.write(ksFuture);
         if (udtFuture != null)
@@ -371,14 +432,94 @@ class ControlConnection implements Host.StateListener {
             // work and this can happen when new Cassandra versions modify stuff in the schema and the driver hasn't yet be modified.
             // So log, but let things go otherwise.
             logger.error("Error parsing schema from Cassandra system tables: the schema in Cluster#getMetadata() will appear incomplete or stale", e);
+            schemaVersionFuture = null;
+        }
+
+        if (schemaVersionFuture != null) {
+            Row row = schemaVersionFuture.get().one();
+            if (row != null && !row.isNull("schema_version") && cluster.metadata.clusterName != null)
+                cluster.metadata.snapshot(row.getUUID("schema_version")).write(snapshotFile);
         }
 
         // If we rebuild all from scratch or have an updated keyspace, rebuild the token map since some replication on some keyspace
         // may have changed
-        if (isSchemaOrKeyspace)
+        if (isSchemaOrKeyspace && refreshTokenMap)
             refreshNodeListAndTokenMap(connection, cluster, false, false);
     }
 
+    /**
+     * Loads the tables and user types of a keyspace that was loaded lazily.
+     *
+     * @return whether the load succeeded.
+     */
+    boolean loadKeyspaceElements(KeyspaceMetadata ksm) throws InterruptedException {
+        Connection c = connectionRef.get();
+        if (c == null)
+            return false;
+
+        logger.debug("[Control connection] Loading tables and types of keyspace {}", ksm.getName());
+        try {
+            VersionNumber cassandraVersion = cassandraVersion(c, cluster);
+            String whereClause = " WHERE keyspace_name = '" + ksm.getName() + '\'';
+
+            DefaultResultSetFuture udtFuture = supportsUdts(cassandraVersion)
+                                             ? new DefaultResultSetFuture(null, cluster.protocolVersion(), new Requests.Query(SELECT_USERTYPES + whereClause))
+                                             : null;
+            DefaultResultSetFuture cfFuture = new DefaultResultSetFuture(null, cluster.protocolVersion(), new Requests.Query(SELECT_COLUMN_FAMILIES + whereClause));
+            DefaultResultSetFuture colsFuture = new DefaultResultSetFuture(null, cluster.protocolVersion(), new Requests.Query(SELECT_COLUMNS + whereClause));
+
+            if (udtFuture != null)
+                c.write(udtFuture);
+            c.write(cfFuture);
+            c.write(colsFuture);
+
+            cluster.metadata.loadKeyspaceElements(ksm,
+                                                  udtFuture == null ? null : udtFuture.get(),
+                                                  cfFuture.get(),
+                                                  colsFuture.get(),
+                                                  cassandraVersion);
+            return true;
+        } catch (ConnectionException e) {
+            logger.debug("[Control connection] Connection error while loading keyspace {} ({})", ksm.getName(), e.getMessage());
+            signalError();
+        } catch (ExecutionException e) {
+            if (!isShutdown)
+                logger.error("[Control connection] Unexpected error while loading keyspace " + ksm.getName(), e);
+            signalError();
+        } catch (BusyConnectionException e) {
+            logger.debug("[Control connection] Connection is busy, reconnecting");
+            signalError();
+        } catch (RuntimeException e) {
+            // See refreshSchema
+            logger.error("Error parsing schema of keyspace " + ksm.getName() + " from Cassandra system tables", e);
+        }
+        return false;
+    }
+
+    private static VersionNumber cassandraVersion(Connection connection, Cluster.Manager cluster) {
+        Host host = cluster.metadata.getHost(connection.address);
+        // Neither host, nor it's version should be null. But instead of dying if there is a race or something, we can kind of try to infer
+        // a Cassandra version from the protocol version (this is not full proof, we can have the protocol 1 against C* 2.0+, but it's worth
+        // a shot, and since we log in this case, it should be relatively easy to debug when if this ever fail).
+        if (host == null || host.getCassandraVersion() == null) {
+            VersionNumber cassandraVersion = cluster.protocolVersion().minCassandraVersion();
+            logger.warn("Cannot find Cassandra version for host {} to parse the schema, using {} based on protocol version in use. "
+                      + "If parsing the schema fails, this could be the cause", connection.address, cassandraVersion);
+            return cassandraVersion;
+        }
+        return host.getCassandraVersion();
+    }
+
+    private static String quoteAndJoin(Set<String> keyspaces) {
+        StringBuilder sb = new StringBuilder();
+        for (String keyspace : keyspaces) {
+            if (sb.length() > 0)
+                sb.append(", ");
+            sb.append('\'').append(keyspace.replace("'", "''")).append('\'');
+        }
+        return sb.toString();
+    }
+
     private static boolean supportsUdts(VersionNumber cassandraVersion) {
         return cassandraVersion.getMajor() > 2 || (cassandraVersion.getMajor() == 2 && cassandraVersion.getMinor() >= 1);
     }
@@ -622,23 +763,8 @@ class ControlConnection implements Host.StateListener {
         cluster.metadata.rebuildTokenMap(partitioner, tokenMap);
     }
 
-    static boolean waitForSchemaAgreement(Connection connection, Cluster.Manager cluster) throws ConnectionException, BusyConnectionException, ExecutionException, InterruptedException {
-
-        long start = System.nanoTime();
-        long elapsed = 0;
-        int maxSchemaAgreementWaitSeconds = cluster.configuration.getProtocolOptions().getMaxSchemaAgreementWaitSeconds();
-        while (elapsed < maxSchemaAgreementWaitSeconds * 1000) {
-
-            if (checkSchemaAgreement(connection, cluster))
-                return true;
-
-            // let's not flood the node too much
-            Thread.sleep(200);
-
-            elapsed = Cluster.timeSince(start, TimeUnit.MILLISECONDS);
-        }
-
-        return false;
+    static boolean waitForSchemaAgreement(Connection connection, Cluster.Manager cluster) throws ExecutionException, InterruptedException {
+        return SchemaAgreementFuture.start(connection, cluster).get();
     }
 
     private static boolean checkSchemaAgreement(Connection connection, Cluster.Manager cluster) throws ConnectionException, BusyConnectionException, InterruptedException, ExecutionException {
@@ -647,15 +773,19 @@ class ControlConnection implements Host.StateListener {
         connection.write(peersFuture);
         connection.write(localFuture);
 
+        return checkSchemaAgreement(peersFuture.get(), localFuture.get(), connection.address, cluster);
+    }
+
+    static boolean checkSchemaAgreement(ResultSet peers, ResultSet local, InetSocketAddress connectedHost, Cluster.Manager cluster) {
         Set<UUID> versions = new HashSet<UUID>();
 
-        Row localRow = localFuture.get().one();
+        Row localRow = local.one();
         if (localRow != null && !localRow.isNull("schema_version"))
             versions.add(localRow.getUUID("schema_version"));
 
-        for (Row row : peersFuture.get()) {
+        for (Row row : peers) {
 
-            InetSocketAddress addr = addressToUseForPeerHost(row, connection.address, cluster, true);
+            InetSocketAddress addr = addressToUseForPeerHost(row, connectedHost, cluster, true);
             if (addr == null || row.isNull("schema_version"))
                 continue;
 
@@ -677,6 +807,13 @@ class ControlConnection implements Host.StateListener {
         }
     }
 
+    ListenableFuture<Boolean> waitForSchemaAgreementAsync() {
+        Connection c = connectionRef.get();
+        return c == null
+             ? Futures.immediateFuture(false)
+             : SchemaAgreementFuture.start(c, cluster);
+    }
+
     boolean isOpen() {
         Connection c = connectionRef.get();
         return c != null && !c.isClosed();
@@ -724,6 +861,6 @@ class ControlConnection implements Host.StateListener {
             backgroundReconnect(0);
         }
 
-        refreshNodeListAndTokenMap();
+        cluster.submitNodeListRefresh();
     }
 }
@@ -0,0 +1,109 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.nio.ByteBuffer;
+
+import com.datastax.driver.core.exceptions.InvalidTypeException;
+
+/**
+ * Converts between the values of a CQL type and a Java type.
+ * <p>
+ * Codecs are registered in a {@link CodecRegistry}, and are used by the typed accessors
+ * {@link GettableByIndexData#get(int, Class)} and {@link SettableByIndexData#set(int, Object, Class)}
+ * (and their by-name equivalents) to map columns to Java types that the driver doesn't know of:
+ * <pre>
+ *     public class JsonCodec extends CustomCodec&lt;JsonNode&gt; {
+ *         public JsonCodec() { super(DataType.text(), JsonNode.class); }
+ *
+ *         public ByteBuffer serialize(JsonNode value, ProtocolVersion protocolVersion) {
+ *             return value == null ? null : DataType.text().serialize(value.toString(), protocolVersion);
+ *         }
+ *
+ *         public JsonNode deserialize(ByteBuffer bytes, ProtocolVersion protocolVersion) {
+ *             return bytes == null ? null : parse((String)DataType.text().deserialize(bytes, protocolVersion));
+ *         }
+ *     }
+ * </pre>
+ * Implementations must be thread-safe, as a single instance is shared by all the
+ * rows and statements of a cluster.
+ *
+ * @param <T> the Java type handled by this codec.
+ */
+public abstract class CustomCodec<T> {
+
+    private final DataType cqlType;
+    private final Class<T> javaType;
+
+    /**
+     * Creates a new codec.
+     *
+     * @param cqlType the CQL type handled by this codec.
+     * @param javaType the Java type handled by this codec.
+     */
+    protected CustomCodec(DataType cqlType, Class<T> javaType) {
+        if (cqlType == null || javaType == null)
+            throw new NullPointerException();
+        this.cqlType = cqlType;
+        this.javaType = javaType;
+    }
+
+    /**
+     * Returns the CQL type handled by this codec.
+     *
+     * @return the CQL type.
+     */
+    public DataType getCqlType() {
+        return cqlType;
+    }
+
+    /**
+     * Returns the Java type handled by this codec.
+     *
+     * @return the Java type.
+     */
+    public Class<T> getJavaType() {
+        return javaType;
+    }
+
+    /**
+     * Serializes a value to the binary encoding of {@link #getCqlType()}.
+     *
+     * @param value the value to serialize, which may be {@code null}.
+     * @param protocolVersion the protocol version in use.
+     * @return the serialized value, or {@code null} to store a CQL NULL.
+     *
+     * @throws InvalidTypeException if {@code value} can't be serialized.
+     */
+    public abstract ByteBuffer serialize(T value, ProtocolVersion protocolVersion);
+
+    /**
+     * Deserializes a value from the binary encoding of {@link #getCqlType()}.
+     *
+     * @param bytes the bytes to deserialize, or {@code null} if the value is a CQL NULL.
+     * Implementations must not modify the position of this buffer.
+     * @param protocolVersion the protocol version in use.
+     * @return the deserialized value.
+     *
+     * @throws InvalidTypeException if {@code bytes} is not a valid encoding.
+     */
+    public abstract T deserialize(ByteBuffer bytes, ProtocolVersion protocolVersion);
+
+    @Override
+    public String toString() {
+        return String.format("%s [%s <-> %s]", getClass().getSimpleName(), cqlType, javaType.getName());
+    }
+}
@@ -207,6 +207,11 @@ public abstract class DataType {
 
     abstract TypeCodec<Object> codec(ProtocolVersion protocolVersion);
 
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static TypeCodec<Object>[] newCodecArray() {
+        return new TypeCodec[ProtocolVersion.values().length];
+    }
+
     /**
      * Returns the ASCII type.
      *
@@ -803,6 +808,8 @@ public abstract class DataType {
 
         private final List<DataType> typeArguments;
         private boolean frozen;
+        // The codecs are immutable, so racing to build them is harmless
+        private final TypeCodec<Object>[] codecs = newCodecArray();
 
         private Collection(DataType.Name name, List<DataType> typeArguments, boolean frozen) {
             super(name);
@@ -836,13 +843,18 @@ public abstract class DataType {
         @SuppressWarnings("unchecked")
         @Override
         TypeCodec<Object> codec(ProtocolVersion protocolVersion) {
-            switch (name)
-            {
-                case LIST: return (TypeCodec)TypeCodec.listOf(typeArguments.get(0), protocolVersion);
-                case SET: return (TypeCodec)TypeCodec.setOf(typeArguments.get(0), protocolVersion);
-                case MAP: return (TypeCodec)TypeCodec.mapOf(typeArguments.get(0), typeArguments.get(1), protocolVersion);
+            TypeCodec<Object> codec = codecs[protocolVersion.ordinal()];
+            if (codec == null) {
+                switch (name)
+                {
+                    case LIST: codec = (TypeCodec)TypeCodec.listOf(typeArguments.get(0), protocolVersion); break;
+                    case SET: codec = (TypeCodec)TypeCodec.setOf(typeArguments.get(0), protocolVersion); break;
+                    case MAP: codec = (TypeCodec)TypeCodec.mapOf(typeArguments.get(0), typeArguments.get(1), protocolVersion); break;
+                    default: throw new AssertionError();
+                }
+                codecs[protocolVersion.ordinal()] = codec;
             }
-            throw new AssertionError();
+            return codec;
         }
 
         @Override
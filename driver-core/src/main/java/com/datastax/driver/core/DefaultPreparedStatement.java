@@ -17,6 +17,7 @@ package com.datastax.driver.core;
 
 import java.nio.ByteBuffer;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import com.datastax.driver.core.policies.RetryPolicy;
 
@@ -34,19 +35,58 @@ public class DefaultPreparedStatement implements PreparedStatement{
     volatile boolean traceQuery;
     volatile RetryPolicy retryPolicy;
 
-    private DefaultPreparedStatement(PreparedId id, String query, String queryKeyspace) {
+    // Last execution time (from System.nanoTime), updated with a coarse resolution, see QueryOptions#setReprepareMaxIdleSeconds
+    // Package visible for testing
+    volatile long lastUsedNanos = System.nanoTime();
+    private static final long LAST_USED_RESOLUTION_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    final CodecRegistry codecRegistry;
+
+    // Size of the array where bound statements stage their fixed-width values, 0 if values are
+    // not staged (see QueryOptions#setBoundValueStaging)
+    final int stagingSize;
+
+    private DefaultPreparedStatement(PreparedId id, String query, String queryKeyspace, CodecRegistry codecRegistry, boolean boundValueStaging) {
         this.preparedId = id;
         this.query = query;
         this.queryKeyspace = queryKeyspace;
+        this.codecRegistry = codecRegistry;
+        this.stagingSize = boundValueStaging ? stagingSize(id.metadata) : 0;
+    }
+
+    private static int stagingSize(ColumnDefinitions variables) {
+        int size = 0;
+        for (int i = 0; i < variables.size(); i++)
+            size += BoundStatement.stagedSize(variables.getType(i).getName());
+        return size;
+    }
+
+    static void markUsed(PreparedStatement statement) {
+        if (statement instanceof DefaultPreparedStatement) {
+            DefaultPreparedStatement dps = (DefaultPreparedStatement)statement;
+            long now = System.nanoTime();
+            // Avoid writing the shared field on every execution
+            if (now - dps.lastUsedNanos > LAST_USED_RESOLUTION_NANOS)
+                dps.lastUsedNanos = now;
+        }
+    }
+
+    static boolean usedSince(PreparedStatement statement, long nanoTime) {
+        // We don't track statements we don't know, consider them used
+        return !(statement instanceof DefaultPreparedStatement)
+            || ((DefaultPreparedStatement)statement).lastUsedNanos - nanoTime >= 0;
     }
 
-    static DefaultPreparedStatement fromMessage(Responses.Result.Prepared msg, Metadata clusterMetadata, ProtocolVersion protocolVersion, String query, String queryKeyspace) {
+    static DefaultPreparedStatement fromMessage(Responses.Result.Prepared msg, Metadata clusterMetadata, ProtocolVersion protocolVersion, CodecRegistry codecRegistry, boolean boundValueStaging, String query, String queryKeyspace) {
         assert msg.metadata.columns != null;
 
         ColumnDefinitions defs = msg.metadata.columns;
+        codecRegistry.attachTo(defs);
+        if (msg.resultMetadata.columns != null)
+            codecRegistry.attachTo(msg.resultMetadata.columns);
 
         if (defs.size() == 0)
-            return new DefaultPreparedStatement(new PreparedId(msg.statementId, defs, msg.resultMetadata.columns, null, protocolVersion), query, queryKeyspace);
+            return new DefaultPreparedStatement(new PreparedId(msg.statementId, defs, msg.resultMetadata.columns, null, protocolVersion), query, queryKeyspace, codecRegistry, boundValueStaging);
 
         List<ColumnMetadata> partitionKeyColumns = null;
         int[] pkIndexes = null;
@@ -67,7 +107,7 @@ public class DefaultPreparedStatement implements PreparedStatement{
 
         PreparedId prepId = new PreparedId(msg.statementId, defs, msg.resultMetadata.columns, allSet(pkIndexes) ? pkIndexes : null, protocolVersion);
 
-        return new DefaultPreparedStatement(prepId, query, queryKeyspace);
+        return new DefaultPreparedStatement(prepId, query, queryKeyspace, codecRegistry, boundValueStaging);
     }
 
     private static void maybeGetIndex(String name, int j, List<ColumnMetadata> pkColumns, int[] pkIndexes) {
@@ -22,6 +22,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.*;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Functions;
 import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.*;
 import org.slf4j.Logger;
@@ -145,6 +146,65 @@ class DynamicConnectionPool extends HostConnectionPool {
         return manager.configuration().getPoolingOptions();
     }
 
+    /**
+     * Opens connections up to the maximum, all in parallel (contrarily to the connections
+     * created under load, which are opened one at a time). The connections in excess of
+     * core are still trashed if they remain unused, like the ones created under load.
+     */
+    @Override
+    ListenableFuture<Void> warmUp() {
+        List<ListenableFuture<Void>> connectionFutures = Lists.newArrayList();
+        for (;;) {
+            // Same reservation as addConnectionIfUnderMaximum
+            int opened = open.get();
+            if (opened >= options().getMaxConnectionsPerHost(hostDistance))
+                break;
+            if (!open.compareAndSet(opened, opened + 1))
+                continue;
+
+            if (phase.get() != Phase.READY) {
+                open.decrementAndGet();
+                break;
+            }
+
+            Connection resurrected = tryResurrectFromTrash();
+            if (resurrected != null) {
+                connections.add(resurrected);
+                resurrected.state.compareAndSet(RESURRECTING, OPEN);
+                signalAvailableConnection();
+                continue;
+            }
+
+            logger.debug("Creating new connection to warm up pool to {}", host);
+            final Connection connection = manager.connectionFactory().newConnection(this);
+            final SettableFuture<Void> connectionFuture = SettableFuture.create();
+            Futures.addCallback(connection.initAsync(), new FutureCallback<Void>() {
+                @Override
+                public void onSuccess(Void result) {
+                    connections.add(connection);
+                    // We might have raced with pool shutdown, ensure the connection gets closed in case the pool did not do it.
+                    if (isClosed() && !connection.isClosed()) {
+                        close(connection);
+                        open.decrementAndGet();
+                    } else {
+                        signalAvailableConnection();
+                    }
+                    connectionFuture.set(null);
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    open.decrementAndGet();
+                    logger.debug("Error while warming up pool to {}: {}", host, t.getMessage());
+                    // Warm-up is best effort, the pool will open connections on demand
+                    connectionFuture.set(null);
+                }
+            });
+            connectionFutures.add(connectionFuture);
+        }
+        return Futures.transform(Futures.allAsList(connectionFutures), Functions.<Void>constant(null));
+    }
+
     @Override
     public Connection borrowConnection(long timeout, TimeUnit unit) throws ConnectionException, TimeoutException {
         Phase phase = this.phase.get();
@@ -163,6 +223,7 @@ class DynamicConnectionPool extends HostConnectionPool {
             Connection c = waitForConnection(timeout, unit);
             totalInFlight.incrementAndGet();
             c.setKeyspace(manager.poolsState.keyspace);
+            host.inFlightQueries.incrementAndGet();
             return c;
         }
 
@@ -216,6 +277,7 @@ class DynamicConnectionPool extends HostConnectionPool {
         }
 
         leastBusy.setKeyspace(manager.poolsState.keyspace);
+        host.inFlightQueries.incrementAndGet();
         return leastBusy;
     }
 
@@ -308,6 +370,7 @@ class DynamicConnectionPool extends HostConnectionPool {
     public void returnConnection(Connection connection) {
         connection.inFlight.decrementAndGet();
         totalInFlight.decrementAndGet();
+        host.inFlightQueries.decrementAndGet();
 
         if (isClosed()) {
             close(connection);
@@ -365,4 +365,22 @@ public interface GettableByIndexData {
      * @throws IndexOutOfBoundsException if {@code i} is not a valid index for this object.
      */
     public Object getObject(int i);
-}
\ No newline at end of file
+
+    /**
+     * Returns the {@code i}th value converted to the given Java type.
+     * <p>
+     * The conversion is done by the codec that the {@link CodecRegistry} in use (see
+     * {@link Configuration#getCodecRegistry()}) resolves for the CQL type of the value and
+     * {@code targetClass}. Resolved codecs are cached, so this is as cheap as the other getters.
+     *
+     * @param i the index to retrieve.
+     * @param targetClass the Java type to convert the value to.
+     * @return the value of the {@code i}th value converted to {@code targetClass}. How NULL is
+     * converted is up to the codec; the driver's own mappings behave like {@link #getObject(int)}.
+     *
+     * @throws IndexOutOfBoundsException if {@code i} is not a valid index for this object.
+     * @throws InvalidTypeException if there is no codec for the CQL type of value {@code i}
+     * and {@code targetClass}.
+     */
+    public <T> T get(int i, Class<T> targetClass);
+}
@@ -364,4 +364,22 @@ public interface GettableByNameData {
      * @throws IllegalArgumentException if {@code name} is not a valid name for this object.
      */
     Object getObject(String name);
-}
\ No newline at end of file
+
+    /**
+     * Returns the value for {@code name} converted to the given Java type.
+     * <p>
+     * The conversion is done by the codec that the {@link CodecRegistry} in use (see
+     * {@link Configuration#getCodecRegistry()}) resolves for the CQL type of the value and
+     * {@code targetClass}. Resolved codecs are cached, so this is as cheap as the other getters.
+     *
+     * @param name the name to retrieve.
+     * @param targetClass the Java type to convert the value to.
+     * @return the value for {@code name} converted to {@code targetClass}. How NULL is
+     * converted is up to the codec; the driver's own mappings behave like {@link #getObject(String)}.
+     *
+     * @throws IllegalArgumentException if {@code name} is not a valid name for this object.
+     * @throws InvalidTypeException if there is no codec for the CQL type of value {@code name}
+     * and {@code targetClass}.
+     */
+    public <T> T get(String name, Class<T> targetClass);
+}
@@ -18,6 +18,7 @@ package com.datastax.driver.core;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -52,6 +53,11 @@ public class Host {
 
     final ExecutionInfo defaultExecutionInfo;
 
+    // The number of requests currently borrowing a connection to this host, across all sessions. This is maintained
+    // by the connection pools (see HostConnectionPool) and exposed to load balancing policies as a real-time
+    // load indicator.
+    final AtomicInteger inFlightQueries = new AtomicInteger();
+
     private volatile String datacenter;
     private volatile String rack;
     private volatile VersionNumber cassandraVersion;
@@ -64,6 +70,10 @@ public class Host {
 
     private volatile Set<Token> tokens;
 
+    // Whether a connection has checked that this host belongs to our cluster since the host was last down.
+    // A host that stays up can't switch clusters, so other connections can skip the check (see Connection#checkClusterName).
+    volatile boolean clusterNameChecked;
+
     // ClusterMetadata keeps one Host object per inet address and we rely on this (more precisely,
     // we rely on the fact that we can use Object equality as a valid equality), so don't use
     // that constructor but ClusterMetadata.getHost instead.
@@ -186,6 +196,24 @@ public class Host {
         return state == State.UP;
     }
 
+    /**
+     * Returns the number of requests currently in flight to this host, across
+     * all the sessions of the {@code Cluster}.
+     * <p>
+     * Contrarily to {@link Session.State#getInFlightQueries(Host)}, this is
+     * read from a single counter and doesn't create any object, so it is
+     * cheap enough to be called for every query (typically from a
+     * {@link com.datastax.driver.core.policies.LoadBalancingPolicy}).
+     * <p>
+     * As for the other information exposed by this class, this is a
+     * best-effort value that may be slightly stale by the time it is used.
+     *
+     * @return the number of requests currently in flight to this host.
+     */
+    public int getInFlightQueries() {
+        return inFlightQueries.get();
+    }
+
     /**
      * Returns a description of the host's state, as seen by the driver.
      * <p>
@@ -274,6 +302,7 @@ public class Host {
 
     void setDown() {
         state = State.DOWN;
+        clusterNameChecked = false;
     }
 
     void setUp() {
@@ -63,6 +63,13 @@ abstract class HostConnectionPool {
      */
     abstract ListenableFuture<Void> initAsync(Connection reusedConnection);
 
+    /**
+     * Opens the connections that the pool would otherwise open lazily under load.
+     *
+     * @return a future that completes once the connections have been opened (or failed to).
+     */
+    abstract ListenableFuture<Void> warmUp();
+
     abstract Connection borrowConnection(long timeout, TimeUnit unit) throws ConnectionException, TimeoutException;
 
     abstract void returnConnection(Connection connection);
@@ -18,11 +18,16 @@ package com.datastax.driver.core;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 /**
  * Describes a keyspace defined in this cluster.
  */
 public class KeyspaceMetadata {
 
+    private static final Logger logger = LoggerFactory.getLogger(KeyspaceMetadata.class);
+
     public static final String KS_NAME           = "keyspace_name";
     private static final String DURABLE_WRITES   = "durable_writes";
     private static final String STRATEGY_CLASS   = "strategy_class";
@@ -39,6 +44,9 @@ public class KeyspaceMetadata {
     private final Map<String, TableMetadata> tables = new ConcurrentHashMap<String, TableMetadata>();
     private final Map<String, UserType> userTypes = new ConcurrentHashMap<String, UserType>();
 
+    // Set while the tables and user types have not been loaded yet, see QueryOptions#setLazySchemaLoading
+    private volatile Cluster.Manager lazyLoader;
+
     private KeyspaceMetadata(String name, boolean durableWrites, Map<String, String> replication) {
         this.name = name;
         this.durableWrites = durableWrites;
@@ -46,7 +54,7 @@ public class KeyspaceMetadata {
         this.strategy = ReplicationStrategy.create(replication);
     }
 
-    static KeyspaceMetadata build(Row row, List<Row> udtRows) {
+    static KeyspaceMetadata build(Row row, List<Row> udtRows, CodecRegistry codecRegistry) {
 
         String name = row.getString(KS_NAME);
         boolean durableWrites = row.getBool(DURABLE_WRITES);
@@ -60,11 +68,16 @@ public class KeyspaceMetadata {
         if (udtRows == null)
             return ksm;
 
-        ksm.addUserTypes(udtRows);
+        ksm.addUserTypes(udtRows, codecRegistry);
 
         return ksm;
     }
 
+    // Rebuilds a keyspace from a MetadataSnapshot, the tables and user types are not part of snapshots
+    static KeyspaceMetadata restore(String name, boolean durableWrites, Map<String, String> replication) {
+        return new KeyspaceMetadata(name, durableWrites, replication);
+    }
+
     /**
      * Returns the name of this keyspace.
      *
@@ -101,6 +114,7 @@ public class KeyspaceMetadata {
      * {@code null} otherwise.
      */
     public TableMetadata getTable(String name) {
+        maybeLoadElements();
         return tables.get(Metadata.handleId(name));
     }
 
@@ -115,6 +129,7 @@ public class KeyspaceMetadata {
      * keyspace.
      */
     public Collection<TableMetadata> getTables() {
+        maybeLoadElements();
         return Collections.<TableMetadata>unmodifiableCollection(tables.values());
     }
 
@@ -126,6 +141,7 @@ public class KeyspaceMetadata {
      * {@code null} otherwise.
      */
     public UserType getUserType(String name) {
+        maybeLoadElements();
         return userTypes.get(Metadata.handleId(name));
     }
 
@@ -136,12 +152,14 @@ public class KeyspaceMetadata {
      * keyspace.
      */
     public Collection<UserType> getUserTypes() {
+        maybeLoadElements();
         return Collections.<UserType>unmodifiableCollection(userTypes.values());
     }
 
-    void addUserTypes(List<Row> udtRows) {
+    void addUserTypes(List<Row> udtRows, CodecRegistry codecRegistry) {
         for (Row r : udtRows) {
             UserType def = UserType.build(r);
+            codecRegistry.attachTo(def);
             userTypes.put(def.getTypeName(), def);
         }
     }
@@ -165,6 +183,7 @@ public class KeyspaceMetadata {
      * String}.
      */
     public String exportAsString() {
+        maybeLoadElements();
         StringBuilder sb = new StringBuilder();
 
         sb.append(asCQLQuery()).append('\n');
@@ -207,6 +226,37 @@ public class KeyspaceMetadata {
         return asCQLQuery();
     }
 
+    void loadElementsOnDemand(Cluster.Manager cluster) {
+        this.lazyLoader = cluster;
+    }
+
+    /**
+     * Whether the tables and user types of this keyspace are loaded, i.e. whether
+     * they are not waiting to be loaded lazily.
+     */
+    boolean isLoaded() {
+        return lazyLoader == null;
+    }
+
+    private void maybeLoadElements() {
+        if (lazyLoader == null)
+            return;
+
+        synchronized (this) {
+            Cluster.Manager cluster = lazyLoader;
+            if (cluster == null)
+                return;
+            try {
+                // If this fails, leave the keyspace unloaded so that the next access retries
+                if (cluster.controlConnection.loadKeyspaceElements(this))
+                    lazyLoader = null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("Interrupted while loading the tables and types of keyspace {}", name);
+            }
+        }
+    }
+
     void add(TableMetadata tm) {
         tables.put(tm.getName(), tm);
     }
@@ -25,6 +25,7 @@ import java.util.regex.Pattern;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ListenableFuture;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -58,62 +59,20 @@ public class Metadata {
     // Synchronized to make it easy to detect dropped keyspaces
     synchronized void rebuildSchema(SchemaElement targetType, String targetKeyspace, String targetName, ResultSet ks, ResultSet udts, ResultSet cfs, ResultSet cols, VersionNumber cassandraVersion) {
 
-        Map<String, List<Row>> cfDefs = new HashMap<String, List<Row>>();
-        Map<String, List<Row>> udtDefs = new HashMap<String, List<Row>>();
-        Map<String, Map<String, Map<String, ColumnMetadata.Raw>>> colsDefs = new HashMap<String, Map<String, Map<String, ColumnMetadata.Raw>>>();
-
-        // Gather cf defs
-        if (cfs != null) {
-            for (Row row : cfs) {
-                String ksName = row.getString(KeyspaceMetadata.KS_NAME);
-                List<Row> l = cfDefs.get(ksName);
-                if (l == null) {
-                    l = new ArrayList<Row>();
-                    cfDefs.put(ksName, l);
-                }
-                l.add(row);
-            }
-        }
-
-        // Gather udt defs
-        if (udts != null) {
-            for (Row row : udts) {
-                String ksName = row.getString(KeyspaceMetadata.KS_NAME);
-                List<Row> l = udtDefs.get(ksName);
-                if (l == null) {
-                    l = new ArrayList<Row>();
-                    udtDefs.put(ksName, l);
-                }
-                l.add(row);
-            }
-        }
-
-        // Gather columns per Cf
-        if (cols != null) {
-            for (Row row : cols) {
-                String ksName = row.getString(KeyspaceMetadata.KS_NAME);
-                String cfName = row.getString(TableMetadata.CF_NAME);
-                Map<String, Map<String, ColumnMetadata.Raw>> colsByCf = colsDefs.get(ksName);
-                if (colsByCf == null) {
-                    colsByCf = new HashMap<String, Map<String, ColumnMetadata.Raw>>();
-                    colsDefs.put(ksName, colsByCf);
-                }
-                Map<String, ColumnMetadata.Raw> l = colsByCf.get(cfName);
-                if (l == null) {
-                    l = new HashMap<String, ColumnMetadata.Raw>();
-                    colsByCf.put(cfName, l);
-                }
-                ColumnMetadata.Raw c = ColumnMetadata.Raw.fromRow(row, cassandraVersion);
-                l.put(c.name, c);
-            }
-        }
+        Map<String, List<Row>> cfDefs = groupByKeyspace(cfs);
+        Map<String, List<Row>> udtDefs = groupByKeyspace(udts);
+        Map<String, Map<String, Map<String, ColumnMetadata.Raw>>> colsDefs = groupColumns(cols, cassandraVersion);
 
         if (targetType == null || targetType == KEYSPACE) { // Refresh one or all keyspaces
             assert ks != null;
             Set<String> addedKs = new HashSet<String>();
             for (Row ksRow : ks) {
                 String ksName = ksRow.getString(KeyspaceMetadata.KS_NAME);
-                KeyspaceMetadata ksm = KeyspaceMetadata.build(ksRow, udtDefs.get(ksName));
+                KeyspaceMetadata ksm = KeyspaceMetadata.build(ksRow, udtDefs.get(ksName), cluster.configuration.getCodecRegistry());
+
+                // If tables were not fetched with the keyspace, they will be loaded on first access
+                if (cfs == null && cluster.configuration.getQueryOptions().isTrackedKeyspace(ksName))
+                    ksm.loadElementsOnDemand(cluster);
 
                 if (cfDefs.containsKey(ksName)) {
                     buildTableMetadata(ksm, cfDefs.get(ksName), colsDefs.get(ksName), cassandraVersion);
@@ -156,8 +115,97 @@ public class Metadata {
             }
 
             if (udtDefs.containsKey(targetKeyspace))
-                ksm.addUserTypes(udtDefs.get(targetKeyspace));
+                ksm.addUserTypes(udtDefs.get(targetKeyspace), cluster.configuration.getCodecRegistry());
+        }
+    }
+
+    // Replaces all keyspaces with the ones restored from a MetadataSnapshot, and rebuilds the token map for them.
+    // This must be called once the cluster name is known: a snapshot of another cluster is ignored and false is returned.
+    synchronized boolean restore(MetadataSnapshot snapshot) {
+        if (!snapshot.clusterName.equals(clusterName))
+            return false;
+
+        QueryOptions options = cluster.configuration.getQueryOptions();
+        keyspaces.clear();
+        for (KeyspaceMetadata ksm : snapshot.keyspaces) {
+            if (options.isTrackedKeyspace(ksm.getName()))
+                ksm.loadElementsOnDemand(cluster);
+            keyspaces.put(ksm.getName(), ksm);
+        }
+
+        // The ring hasn't changed, only the replicas need to be computed for the restored keyspaces
+        if (tokenMap != null) {
+            Map<Host, Collection<String>> allTokens = new HashMap<Host, Collection<String>>();
+            for (Host host : tokenMap.hosts) {
+                Set<Token> tokens = host.getTokens();
+                if (tokens == null)
+                    continue;
+                List<String> tokenStrs = new ArrayList<String>(tokens.size());
+                for (Token token : tokens)
+                    tokenStrs.add(token.toString());
+                allTokens.put(host, tokenStrs);
+            }
+            rebuildTokenMap(null, allTokens);
         }
+        return true;
+    }
+
+    synchronized MetadataSnapshot snapshot(UUID schemaVersion) {
+        return new MetadataSnapshot(clusterName, schemaVersion, new ArrayList<KeyspaceMetadata>(keyspaces.values()));
+    }
+
+    // Synchronized with rebuildSchema so that refreshes are not applied before the initial load
+    synchronized void loadKeyspaceElements(KeyspaceMetadata ksm, ResultSet udts, ResultSet cfs, ResultSet cols, VersionNumber cassandraVersion) {
+        String ksName = ksm.getName();
+        List<Row> udtRows = groupByKeyspace(udts).get(ksName);
+        if (udtRows != null)
+            ksm.addUserTypes(udtRows, cluster.configuration.getCodecRegistry());
+
+        List<Row> cfRows = groupByKeyspace(cfs).get(ksName);
+        if (cfRows != null)
+            buildTableMetadata(ksm, cfRows, groupColumns(cols, cassandraVersion).get(ksName), cassandraVersion);
+    }
+
+    private static Map<String, List<Row>> groupByKeyspace(ResultSet rs) {
+        Map<String, List<Row>> defs = new HashMap<String, List<Row>>();
+        if (rs == null)
+            return defs;
+
+        for (Row row : rs) {
+            String ksName = row.getString(KeyspaceMetadata.KS_NAME);
+            List<Row> l = defs.get(ksName);
+            if (l == null) {
+                l = new ArrayList<Row>();
+                defs.put(ksName, l);
+            }
+            l.add(row);
+        }
+        return defs;
+    }
+
+    // Gather columns per keyspace and per Cf
+    private static Map<String, Map<String, Map<String, ColumnMetadata.Raw>>> groupColumns(ResultSet cols, VersionNumber cassandraVersion) {
+        Map<String, Map<String, Map<String, ColumnMetadata.Raw>>> colsDefs = new HashMap<String, Map<String, Map<String, ColumnMetadata.Raw>>>();
+        if (cols == null)
+            return colsDefs;
+
+        for (Row row : cols) {
+            String ksName = row.getString(KeyspaceMetadata.KS_NAME);
+            String cfName = row.getString(TableMetadata.CF_NAME);
+            Map<String, Map<String, ColumnMetadata.Raw>> colsByCf = colsDefs.get(ksName);
+            if (colsByCf == null) {
+                colsByCf = new HashMap<String, Map<String, ColumnMetadata.Raw>>();
+                colsDefs.put(ksName, colsByCf);
+            }
+            Map<String, ColumnMetadata.Raw> l = colsByCf.get(cfName);
+            if (l == null) {
+                l = new HashMap<String, ColumnMetadata.Raw>();
+                colsByCf.put(cfName, l);
+            }
+            ColumnMetadata.Raw c = ColumnMetadata.Raw.fromRow(row, cassandraVersion);
+            l.put(c.name, c);
+        }
+        return colsDefs;
     }
 
     private void buildTableMetadata(KeyspaceMetadata ksm, List<Row> cfRows, Map<String, Map<String, ColumnMetadata.Raw>> colsDefs, VersionNumber cassandraVersion) {
@@ -184,6 +232,8 @@ public class Metadata {
                         cols = Collections.<String, ColumnMetadata.Raw>emptyMap();
                     }
                 }
+                for (ColumnMetadata.Raw col : cols.values())
+                    cluster.configuration.getCodecRegistry().attachTo(col.dataType);
                 TableMetadata.build(ksm, cfRow, cols, cassandraVersion);
             } catch (RuntimeException e) {
                 // See ControlConnection#refreshSchema for why we'd rather not probably this further
@@ -400,6 +450,23 @@ public class Metadata {
         return cluster.controlConnection.checkSchemaAgreement();
     }
 
+    /**
+     * Waits asynchronously until the hosts that are currently up agree on the schema definition.
+     * <p>
+     * The check is repeated until the hosts agree, for at most
+     * {@link Cluster.Builder#withMaxSchemaAgreementWaitSeconds(int)}. No thread is blocked
+     * while waiting, which makes this method suitable to chain schema changes (for example
+     * when provisioning many keyspaces) without tying up threads.
+     *
+     * @return a future that completes with {@code true} once all hosts agree on the schema, or
+     * {@code false} if they still don't after the maximum wait or if the check could not be
+     * started (for example, if the control connection is down). The future fails if an error
+     * occurs while querying the schema versions.
+     */
+    public ListenableFuture<Boolean> waitForSchemaAgreementAsync() {
+        return cluster.controlConnection.waitForSchemaAgreementAsync();
+    }
+
     /**
      * Returns the metadata of a keyspace given its name.
      *
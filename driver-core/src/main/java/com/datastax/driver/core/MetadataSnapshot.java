@@ -0,0 +1,131 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.io.*;
+import java.util.*;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A snapshot of the keyspace definitions of a cluster, persisted to a local file
+ * to speed up the next startup (see {@link QueryOptions#setMetadataSnapshotFile}).
+ */
+class MetadataSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetadataSnapshot.class);
+
+    // Bump when the format changes, older snapshots will be ignored
+    private static final int FORMAT_VERSION = 1;
+
+    final String clusterName;
+    final UUID schemaVersion;
+    final List<KeyspaceMetadata> keyspaces;
+
+    MetadataSnapshot(String clusterName, UUID schemaVersion, List<KeyspaceMetadata> keyspaces) {
+        this.clusterName = clusterName;
+        this.schemaVersion = schemaVersion;
+        this.keyspaces = keyspaces;
+    }
+
+    /**
+     * Reads a snapshot.
+     *
+     * @return the snapshot, or {@code null} if the file doesn't exist or can't be read.
+     */
+    static MetadataSnapshot read(File file) {
+        if (!file.exists())
+            return null;
+
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if (in.readInt() != FORMAT_VERSION) {
+                logger.debug("Ignoring metadata snapshot {} written with a different format", file);
+                return null;
+            }
+
+            String clusterName = in.readUTF();
+            UUID schemaVersion = new UUID(in.readLong(), in.readLong());
+            int keyspaceCount = in.readInt();
+            List<KeyspaceMetadata> keyspaces = new ArrayList<KeyspaceMetadata>(keyspaceCount);
+            for (int i = 0; i < keyspaceCount; i++) {
+                String name = in.readUTF();
+                boolean durableWrites = in.readBoolean();
+                int optionCount = in.readInt();
+                Map<String, String> replication = new HashMap<String, String>();
+                for (int j = 0; j < optionCount; j++)
+                    replication.put(in.readUTF(), in.readUTF());
+                keyspaces.add(KeyspaceMetadata.restore(name, durableWrites, replication));
+            }
+            return new MetadataSnapshot(clusterName, schemaVersion, keyspaces);
+        } catch (Exception e) {
+            logger.warn("Error reading metadata snapshot " + file + ", ignoring it", e);
+            return null;
+        } finally {
+            closeQuietly(in);
+        }
+    }
+
+    /**
+     * Writes this snapshot. The file is replaced atomically where the platform allows it,
+     * so that a concurrent reader never sees a partially written snapshot.
+     */
+    void write(File file) {
+        File tmp = new File(file.getPath() + ".tmp");
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(clusterName);
+            out.writeLong(schemaVersion.getMostSignificantBits());
+            out.writeLong(schemaVersion.getLeastSignificantBits());
+            out.writeInt(keyspaces.size());
+            for (KeyspaceMetadata keyspace : keyspaces) {
+                out.writeUTF(keyspace.getName());
+                out.writeBoolean(keyspace.isDurableWrites());
+                Map<String, String> replication = keyspace.getReplication();
+                out.writeInt(replication.size());
+                for (Map.Entry<String, String> entry : replication.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeUTF(entry.getValue());
+                }
+            }
+            out.close();
+            out = null;
+
+            // renameTo doesn't replace existing files on some platforms
+            if (!tmp.renameTo(file) && !(file.delete() && tmp.renameTo(file)))
+                throw new IOException("Could not rename " + tmp + " to " + file);
+        } catch (IOException e) {
+            logger.warn("Error writing metadata snapshot " + file, e);
+            tmp.delete();
+        } finally {
+            closeQuietly(out);
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null)
+            return;
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+}
@@ -107,6 +107,21 @@ public class Metrics {
         }
     });
 
+    private final Counter coalescedRefreshEvents = registry.counter("coalesced-refresh-events");
+    private final Counter preparedStatementCacheHits = registry.counter("prepared-statement-cache-hits");
+    private final Counter preparedStatementCacheMisses = registry.counter("prepared-statement-cache-misses");
+    private final Counter autoPreparedExecutions = registry.counter("auto-prepared-executions");
+    private final Counter stringCacheHits = registry.counter("string-cache-hits");
+    private final Counter stringCacheMisses = registry.counter("string-cache-misses");
+    private final Gauge<Double> stringCacheHitRatio = registry.register("string-cache-hit-ratio", new Gauge<Double>() {
+        @Override
+        public Double getValue() {
+            long hits = stringCacheHits.getCount();
+            long total = hits + stringCacheMisses.getCount();
+            return total == 0 ? 0.0 : (double)hits / total;
+        }
+    });
+
     Metrics(Cluster.Manager manager) {
         this.manager = manager;
         if (manager.configuration.getMetricsOptions().isJMXReportingEnabled()) {
@@ -176,6 +191,87 @@ public class Metrics {
         return requests;
     }
 
+    /**
+     * Returns the number of schema and topology events received from Cassandra that did
+     * not require their own metadata refresh, because they were coalesced with other events.
+     *
+     * @return the number of coalesced events.
+     *
+     * @see QueryOptions#setRefreshWindowMillis(int)
+     */
+    public Counter getCoalescedRefreshEvents() {
+        return coalescedRefreshEvents;
+    }
+
+    /**
+     * Returns the number of times a session found a statement to prepare in its cache.
+     *
+     * @return the number of prepared statement cache hits, for all sessions.
+     *
+     * @see QueryOptions#setPreparedStatementCacheSize(int)
+     */
+    public Counter getPreparedStatementCacheHits() {
+        return preparedStatementCacheHits;
+    }
+
+    /**
+     * Returns the number of times a session did not find a statement to prepare in its
+     * cache, and had to prepare it on the cluster.
+     *
+     * @return the number of prepared statement cache misses, for all sessions.
+     *
+     * @see QueryOptions#setPreparedStatementCacheSize(int)
+     */
+    public Counter getPreparedStatementCacheMisses() {
+        return preparedStatementCacheMisses;
+    }
+
+    /**
+     * Returns the number of regular statements that were executed as bound statements,
+     * because their query string was automatically prepared.
+     *
+     * @return the number of automatically prepared executions, for all sessions.
+     *
+     * @see QueryOptions#setAutoPrepareThreshold(int)
+     */
+    public Counter getAutoPreparedExecutions() {
+        return autoPreparedExecutions;
+    }
+
+    /**
+     * Returns the number of times a deduplicated string value was found in its column's cache.
+     *
+     * @return the number of string cache hits, for all columns.
+     *
+     * @see QueryOptions#setDeduplicatedStringColumns
+     */
+    public Counter getStringCacheHits() {
+        return stringCacheHits;
+    }
+
+    /**
+     * Returns the number of times a deduplicated string value was not found in its column's
+     * cache, and had to be decoded.
+     *
+     * @return the number of string cache misses, for all columns.
+     *
+     * @see QueryOptions#setDeduplicatedStringColumns
+     */
+    public Counter getStringCacheMisses() {
+        return stringCacheMisses;
+    }
+
+    /**
+     * Returns the ratio of deduplicated string values that were found in their column's cache.
+     *
+     * @return the ratio of string cache hits (between 0 and 1), for all columns.
+     *
+     * @see QueryOptions#setDeduplicatedStringColumns
+     */
+    public Gauge<Double> getStringCacheHitRatio() {
+        return stringCacheHitRatio;
+    }
+
     /**
      * Returns an object grouping metrics related to the errors encountered.
      *
@@ -0,0 +1,142 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Supplier;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * A bounded cache of the statements prepared by a session, keyed by keyspace and
+ * query string.
+ * <p>
+ * Concurrent requests to prepare the same query share the same in-flight
+ * preparation. Failed preparations are not cached.
+ */
+class PreparedStatementCache {
+
+    private final ConcurrentMap<Key, SettableFuture<PreparedStatement>> cache;
+    private final Metrics metrics;
+
+    PreparedStatementCache(int maxSize, Metrics metrics) {
+        // Guava's caches evict the least recently used entries first
+        this.cache = CacheBuilder.newBuilder()
+                                 .maximumSize(maxSize)
+                                 .<Key, SettableFuture<PreparedStatement>>build()
+                                 .asMap();
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the cached preparation of a query, or starts a new one.
+     *
+     * @param keyspace the keyspace the query is prepared in (can be {@code null}).
+     * @param query the query.
+     * @param preparation starts the preparation on a cache miss.
+     * @return a future on the prepared statement. Each call returns a new future, so that
+     * cancelling it doesn't affect the other callers.
+     */
+    ListenableFuture<PreparedStatement> get(String keyspace, String query, Supplier<ListenableFuture<PreparedStatement>> preparation) {
+        final Key key = new Key(keyspace, query);
+        SettableFuture<PreparedStatement> cached = cache.get(key);
+        if (cached == null) {
+            final SettableFuture<PreparedStatement> future = SettableFuture.create();
+            cached = cache.putIfAbsent(key, future);
+            if (cached == null) {
+                if (metrics != null)
+                    metrics.getPreparedStatementCacheMisses().inc();
+                startPreparation(key, future, preparation);
+                return forward(future);
+            }
+        }
+        if (metrics != null)
+            metrics.getPreparedStatementCacheHits().inc();
+        return forward(cached);
+    }
+
+    int size() {
+        return cache.size();
+    }
+
+    private void startPreparation(final Key key, final SettableFuture<PreparedStatement> future, Supplier<ListenableFuture<PreparedStatement>> preparation) {
+        ListenableFuture<PreparedStatement> prepared;
+        try {
+            prepared = preparation.get();
+        } catch (RuntimeException e) {
+            prepared = Futures.immediateFailedFuture(e);
+        }
+        Futures.addCallback(prepared, new FutureCallback<PreparedStatement>() {
+            @Override
+            public void onSuccess(PreparedStatement result) {
+                future.set(result);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                // Let the next caller retry
+                cache.remove(key, future);
+                future.setException(t);
+            }
+        });
+    }
+
+    private static ListenableFuture<PreparedStatement> forward(ListenableFuture<PreparedStatement> source) {
+        final SettableFuture<PreparedStatement> result = SettableFuture.create();
+        Futures.addCallback(source, new FutureCallback<PreparedStatement>() {
+            @Override
+            public void onSuccess(PreparedStatement prepared) {
+                result.set(prepared);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                result.setException(t);
+            }
+        });
+        return result;
+    }
+
+    static class Key {
+        private final String keyspace;
+        private final String query;
+
+        Key(String keyspace, String query) {
+            this.keyspace = keyspace;
+            this.query = query;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (other == this)
+                return true;
+            if (!(other instanceof Key))
+                return false;
+            Key that = (Key)other;
+            return Objects.equal(this.keyspace, that.keyspace) && this.query.equals(that.query);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(keyspace, query);
+        }
+    }
+}
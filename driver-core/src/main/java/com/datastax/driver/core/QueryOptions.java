@@ -15,6 +15,9 @@
  */
 package com.datastax.driver.core;
 
+import java.io.File;
+import java.util.*;
+
 import com.datastax.driver.core.exceptions.UnsupportedFeatureException;
 
 /**
@@ -42,10 +45,71 @@ public class QueryOptions {
      */
     public static final boolean DEFAULT_IDEMPOTENCE = false;
 
+    /**
+     * The default window to coalesce schema and topology refreshes: 1 second.
+     */
+    public static final int DEFAULT_REFRESH_WINDOW_MILLIS = 1000;
+
+    /**
+     * The default maximum delay of a coalesced schema or topology refresh: 10 seconds.
+     */
+    public static final int DEFAULT_MAX_REFRESH_DELAY_MILLIS = 10000;
+
+    /**
+     * The default maximum number of prepared statements cached by each session: 1000.
+     */
+    public static final int DEFAULT_PREPARED_STATEMENT_CACHE_SIZE = 1000;
+
+    /**
+     * The default maximum number of query strings tracked by each session for automatic
+     * preparation: 1000.
+     */
+    public static final int DEFAULT_AUTO_PREPARE_CACHE_SIZE = 1000;
+
+    /**
+     * The default maximum number of statements re-prepared concurrently on a host: 100.
+     */
+    public static final int DEFAULT_REPREPARE_CONCURRENCY = 100;
+
+    /**
+     * Whether table and user type metadata are loaded lazily by default: {@code false}.
+     */
+    public static final boolean DEFAULT_LAZY_SCHEMA_LOADING = false;
+
+    /**
+     * The default size of the caches of deduplicated string columns.
+     */
+    public static final int DEFAULT_STRING_CACHE_SIZE = 1024;
+
+    /**
+     * The default value for {@link #isLazyCollectionDecoding()}: {@value}.
+     */
+    public static final boolean DEFAULT_LAZY_COLLECTION_DECODING = false;
+
+    /**
+     * The default value for {@link #isBoundValueStaging()}: {@value}.
+     */
+    public static final boolean DEFAULT_BOUND_VALUE_STAGING = false;
+
     private volatile ConsistencyLevel consistency = DEFAULT_CONSISTENCY_LEVEL;
     private volatile ConsistencyLevel serialConsistency = DEFAULT_SERIAL_CONSISTENCY_LEVEL;
     private volatile int fetchSize = DEFAULT_FETCH_SIZE;
     private volatile boolean defaultIdempotence = DEFAULT_IDEMPOTENCE;
+    private volatile int refreshWindowMillis = DEFAULT_REFRESH_WINDOW_MILLIS;
+    private volatile int maxRefreshDelayMillis = DEFAULT_MAX_REFRESH_DELAY_MILLIS;
+    private volatile boolean lazySchemaLoading = DEFAULT_LAZY_SCHEMA_LOADING;
+    private volatile Set<String> trackedKeyspaces;
+    private volatile File metadataSnapshotFile;
+    private volatile int preparedStatementCacheSize = DEFAULT_PREPARED_STATEMENT_CACHE_SIZE;
+    private volatile int autoPrepareThreshold;
+    private volatile int autoPrepareCacheSize = DEFAULT_AUTO_PREPARE_CACHE_SIZE;
+    private volatile int reprepareConcurrency = DEFAULT_REPREPARE_CONCURRENCY;
+    private volatile int reprepareMaxIdleSeconds;
+    // keyspace -> table -> columns, copied on write
+    private volatile Map<String, Map<String, Set<String>>> deduplicatedStringColumns = Collections.emptyMap();
+    private volatile int stringCacheSize = DEFAULT_STRING_CACHE_SIZE;
+    private volatile boolean lazyCollectionDecoding = DEFAULT_LAZY_COLLECTION_DECODING;
+    private volatile boolean boundValueStaging = DEFAULT_BOUND_VALUE_STAGING;
     private volatile Cluster.Manager manager;
 
     /**
@@ -169,4 +233,545 @@ public class QueryOptions {
     public boolean getDefaultIdempotence() {
         return defaultIdempotence;
     }
+
+    /**
+     * Sets the window used to coalesce the schema and topology refreshes
+     * triggered by server events.
+     * <p>
+     * Each {@code SCHEMA_CHANGE} or {@code TOPOLOGY_CHANGE} event received from
+     * Cassandra requires the driver to refresh its metadata. Instead of running
+     * one refresh per event, the driver waits until no new event has been received
+     * for this amount of time (or until the {@link #setMaxRefreshDelayMillis maximum delay}
+     * has elapsed since the first pending event), and then runs a single refresh
+     * covering all the pending events, with at most one rebuild of the token map.
+     * <p>
+     * Note that this does not delay the schema refresh performed after a schema
+     * change request issued by this client, which is still run before the request
+     * completes.
+     *
+     * @param refreshWindowMillis the window in milliseconds. It must be
+     * positive or {@code 0}, which disables coalescing.
+     * @return this {@code QueryOptions} instance.
+     *
+     * @throws IllegalArgumentException if {@code refreshWindowMillis < 0}.
+     */
+    public QueryOptions setRefreshWindowMillis(int refreshWindowMillis) {
+        if (refreshWindowMillis < 0)
+            throw new IllegalArgumentException("Invalid refreshWindowMillis, should be >= 0, got " + refreshWindowMillis);
+        this.refreshWindowMillis = refreshWindowMillis;
+        return this;
+    }
+
+    /**
+     * The window used to coalesce schema and topology refreshes.
+     * <p>
+     * It defaults to {@link #DEFAULT_REFRESH_WINDOW_MILLIS}.
+     *
+     * @return the window in milliseconds.
+     */
+    public int getRefreshWindowMillis() {
+        return refreshWindowMillis;
+    }
+
+    /**
+     * Sets the maximum delay between the first server event requiring a schema or
+     * topology refresh, and the coalesced refresh.
+     * <p>
+     * This guarantees that the metadata is eventually refreshed when events keep
+     * coming in faster than the {@link #setRefreshWindowMillis window}.
+     *
+     * @param maxRefreshDelayMillis the maximum delay in milliseconds. It must
+     * be positive or {@code 0}.
+     * @return this {@code QueryOptions} instance.
+     *
+     * @throws IllegalArgumentException if {@code maxRefreshDelayMillis < 0}.
+     */
+    public QueryOptions setMaxRefreshDelayMillis(int maxRefreshDelayMillis) {
+        if (maxRefreshDelayMillis < 0)
+            throw new IllegalArgumentException("Invalid maxRefreshDelayMillis, should be >= 0, got " + maxRefreshDelayMillis);
+        this.maxRefreshDelayMillis = maxRefreshDelayMillis;
+        return this;
+    }
+
+    /**
+     * The maximum delay of a coalesced schema or topology refresh.
+     * <p>
+     * It defaults to {@link #DEFAULT_MAX_REFRESH_DELAY_MILLIS}.
+     *
+     * @return the maximum delay in milliseconds.
+     */
+    public int getMaxRefreshDelayMillis() {
+        return maxRefreshDelayMillis;
+    }
+
+    /**
+     * Sets whether the metadata of tables and user types should be loaded lazily.
+     * <p>
+     * By default, the driver loads the whole schema (keyspaces, tables, columns and
+     * user types) when it connects, and keeps it up to date. On clusters with
+     * thousands of tables, this can take significant time and memory. If this option
+     * is enabled, only the keyspaces (and their replication settings, which are
+     * needed for token-aware routing) are loaded eagerly; the tables and user types
+     * of a keyspace are loaded the first time they are accessed through its
+     * {@link KeyspaceMetadata}, and kept up to date afterwards.
+     * <p>
+     * Note that this first access issues queries to Cassandra and blocks until they
+     * complete, so it should not be done from a callback running on one of the
+     * driver's I/O threads.
+     *
+     * @param lazySchemaLoading whether to load tables and user types lazily.
+     * @return this {@code QueryOptions} instance.
+     */
+    public QueryOptions setLazySchemaLoading(boolean lazySchemaLoading) {
+        this.lazySchemaLoading = lazySchemaLoading;
+        return this;
+    }
+
+    /**
+     * Whether the metadata of tables and user types is loaded lazily.
+     * <p>
+     * It defaults to {@link #DEFAULT_LAZY_SCHEMA_LOADING}.
+     *
+     * @return whether the metadata of tables and user types is loaded lazily.
+     */
+    public boolean isLazySchemaLoading() {
+        return lazySchemaLoading;
+    }
+
+    /**
+     * Restricts the keyspaces for which the driver tracks table and user type metadata.
+     * <p>
+     * All keyspaces are still listed in {@link Metadata#getKeyspaces()}, since their
+     * replication settings are needed for token-aware routing, but the keyspaces not in
+     * this list have no tables nor user types.
+     * <p>
+     * Keyspace names follow the same rules as {@link Metadata#getKeyspace(String)}:
+     * they are case-insensitive unless enclosed in double-quotes.
+     *
+     * @param keyspaces the keyspaces to track, or {@code null} to track all keyspaces
+     * (the default).
+     * @return this {@code QueryOptions} instance.
+     */
+    public QueryOptions setTrackedKeyspaces(Collection<String> keyspaces) {
+        if (keyspaces == null) {
+            this.trackedKeyspaces = null;
+        } else {
+            Set<String> names = new HashSet<String>();
+            for (String keyspace : keyspaces)
+                names.add(Metadata.handleId(keyspace));
+            this.trackedKeyspaces = Collections.unmodifiableSet(names);
+        }
+        return this;
+    }
+
+    /**
+     * The keyspaces for which the driver tracks table and user type metadata.
+     *
+     * @return the (internal, i.e. case-sensitive) names of the tracked keyspaces, or
+     * {@code null} if all keyspaces are tracked.
+     */
+    public Set<String> getTrackedKeyspaces() {
+        return trackedKeyspaces;
+    }
+
+    boolean isTrackedKeyspace(String keyspace) {
+        Set<String> tracked = trackedKeyspaces;
+        return tracked == null || tracked.contains(keyspace);
+    }
+
+    /**
+     * Sets a local file used to persist a snapshot of the schema metadata across restarts.
+     * <p>
+     * When the driver connects, it normally loads the whole schema from the system
+     * tables. If this option is set, the driver saves the keyspace definitions (and
+     * the schema version they correspond to) to this file each time it loads the
+     * whole schema. At the next startup, the keyspaces are restored from the file
+     * and the token map is built right away. If the schema version of the node the
+     * driver connects to matches the snapshot, the schema is not loaded at all;
+     * otherwise, the driver starts with the snapshot and reloads the schema in the
+     * background.
+     * <p>
+     * Tables and user types are not part of the snapshot: when the driver starts
+     * from a snapshot, they are loaded lazily, as if {@link #setLazySchemaLoading lazy
+     * schema loading} was enabled.
+     * <p>
+     * This is mostly useful for short-lived clients connecting to clusters with
+     * large schemas. The file must not be shared by clients of different clusters
+     * (the driver checks the cluster name, and ignores the snapshot if it doesn't
+     * match).
+     *
+     * @param metadataSnapshotFile the file, or {@code null} to disable snapshots
+     * (the default).
+     * @return this {@code QueryOptions} instance.
+     */
+    public QueryOptions setMetadataSnapshotFile(File metadataSnapshotFile) {
+        this.metadataSnapshotFile = metadataSnapshotFile;
+        return this;
+    }
+
+    /**
+     * The local file used to persist a snapshot of the schema metadata.
+     *
+     * @return the file, or {@code null} if snapshots are disabled.
+     */
+    public File getMetadataSnapshotFile() {
+        return metadataSnapshotFile;
+    }
+
+    /**
+     * Sets the maximum number of prepared statements cached by each session.
+     * <p>
+     * Each {@link Session} caches the statements it prepares, keyed by query string and
+     * logged keyspace: preparing the same query again returns the cached
+     * {@link PreparedStatement} without contacting Cassandra, and concurrent requests to
+     * prepare the same query result in a single preparation. When the cache is full,
+     * the least recently used statements are evicted.
+     * <p>
+     * This only applies to the sessions created after this method is called.
+     *
+     * @param preparedStatementCacheSize the maximum number of cached statements, or
+     * {@code 0} to disable the cache.
+     * @return this {@code QueryOptions} instance.
+     *
+     * @throws IllegalArgumentException if {@code preparedStatementCacheSize < 0}.
+     */
+    public QueryOptions setPreparedStatementCacheSize(int preparedStatementCacheSize) {
+        if (preparedStatementCacheSize < 0)
+            throw new IllegalArgumentException("Invalid preparedStatementCacheSize, should be >= 0, got " + preparedStatementCacheSize);
+        this.preparedStatementCacheSize = preparedStatementCacheSize;
+        return this;
+    }
+
+    /**
+     * The maximum number of prepared statements cached by each session.
+     * <p>
+     * It defaults to {@link #DEFAULT_PREPARED_STATEMENT_CACHE_SIZE}.
+     *
+     * @return the maximum number of cached statements ({@code 0} if the cache is disabled).
+     */
+    public int getPreparedStatementCacheSize() {
+        return preparedStatementCacheSize;
+    }
+
+    /**
+     * Enables the automatic preparation of frequently executed regular statements.
+     * <p>
+     * If this option is set, each {@link Session} counts the executions of each query
+     * string of a {@link RegularStatement} (typically a {@link SimpleStatement} or a
+     * statement built with the {@link com.datastax.driver.core.querybuilder.QueryBuilder}).
+     * Once a query string has been executed {@code autoPrepareThreshold} times, it is
+     * prepared in the background, and its subsequent executions are sent as
+     * {@link BoundStatement}s, with the values of the statement bound positionally. This
+     * saves the parsing of the query on the server, and allows token-aware routing
+     * without setting routing keys by hand.
+     * <p>
+     * Statements are executed unchanged if their number of values doesn't match the
+     * number of bind variables of the prepared statement, if they have a paging state,
+     * or if the native protocol version 1 is in use. Note that the
+     * {@link ExecutionInfo#getStatement() statement} reported by the results of an
+     * automatically prepared execution is the {@link BoundStatement}.
+     * <p>
+     * This only applies to the sessions created after this method is called.
+     *
+     * @param autoPrepareThreshold the number of executions after which a query string is
+     * prepared, or {@code 0} to disable automatic preparation (the default).
+     * @return this {@code QueryOptions} instance.
+     *
+     * @throws IllegalArgumentException if {@code autoPrepareThreshold < 0}.
+     *
+     * @see #setAutoPrepareCacheSize(int)
+     */
+    public QueryOptions setAutoPrepareThreshold(int autoPrepareThreshold) {
+        if (autoPrepareThreshold < 0)
+            throw new IllegalArgumentException("Invalid autoPrepareThreshold, should be >= 0, got " + autoPrepareThreshold);
+        this.autoPrepareThreshold = autoPrepareThreshold;
+        return this;
+    }
+
+    /**
+     * The number of executions after which a query string is automatically prepared.
+     *
+     * @return the threshold, or {@code 0} if automatic preparation is disabled.
+     */
+    public int getAutoPrepareThreshold() {
+        return autoPrepareThreshold;
+    }
+
+    /**
+     * Sets the maximum number of query strings tracked by each session for automatic
+     * preparation (see {@link #setAutoPrepareThreshold(int)}).
+     * <p>
+     * This bounds both the execution counters and the automatically prepared statements.
+     * When the limit is reached, the least recently executed query strings are evicted
+     * (and counted from zero again if they are executed later).
+     *
+     * @param autoPrepareCacheSize the maximum number of tracked query strings.
+     * @return this {@code QueryOptions} instance.
+     *
+     * @throws IllegalArgumentException if {@code autoPrepareCacheSize <= 0}.
+     */
+    public QueryOptions setAutoPrepareCacheSize(int autoPrepareCacheSize) {
+        if (autoPrepareCacheSize <= 0)
+            throw new IllegalArgumentException("Invalid autoPrepareCacheSize, should be > 0, got " + autoPrepareCacheSize);
+        this.autoPrepareCacheSize = autoPrepareCacheSize;
+        return this;
+    }
+
+    /**
+     * The maximum number of query strings tracked by each session for automatic
+     * preparation.
+     * <p>
+     * It defaults to {@link #DEFAULT_AUTO_PREPARE_CACHE_SIZE}.
+     *
+     * @return the maximum number of tracked query strings.
+     */
+    public int getAutoPrepareCacheSize() {
+        return autoPrepareCacheSize;
+    }
+
+    /**
+     * Sets the maximum number of statements re-prepared concurrently when a host is
+     * added or comes back up.
+     * <p>
+     * Before a host is used, the driver prepares on it all the statements prepared so
+     * far, so that executions don't fail with an {@code UNPREPARED} error. The
+     * preparation requests are pipelined, with at most this number of requests in flight.
+     * Note that with version 1 or 2 of the native protocol, there can be at most 128
+     * requests in flight on a connection.
+     *
+     * @param reprepareConcurrency the maximum number of concurrent preparations.
+     * @return this {@code QueryOptions} instance.
+     *
+     * @throws IllegalArgumentException if {@code reprepareConcurrency <= 0}.
+     */
+    public QueryOptions setReprepareConcurrency(int reprepareConcurrency) {
+        if (reprepareConcurrency <= 0)
+            throw new IllegalArgumentException("Invalid reprepareConcurrency, should be > 0, got " + reprepareConcurrency);
+        this.reprepareConcurrency = reprepareConcurrency;
+        return this;
+    }
+
+    /**
+     * The maximum number of statements re-prepared concurrently when a host is added
+     * or comes back up.
+     * <p>
+     * It defaults to {@link #DEFAULT_REPREPARE_CONCURRENCY}.
+     *
+     * @return the maximum number of concurrent preparations.
+     */
+    public int getReprepareConcurrency() {
+        return reprepareConcurrency;
+    }
+
+    /**
+     * Restricts the statements re-prepared when a host is added or comes back up to the
+     * ones executed recently.
+     * <p>
+     * With many prepared statements, re-preparing all of them can noticeably delay the
+     * moment a restarted host is used again. If this option is set, only the
+     * statements executed in the given period are re-prepared; the other ones are
+     * prepared on the host the first time they are executed on it (the host replies
+     * that the statement is unknown, and the driver prepares it and retries).
+     *
+     * @param reprepareMaxIdleSeconds the period in seconds, or {@code 0} to re-prepare
+     * all statements (the default).
+     * @return this {@code QueryOptions} instance.
+     *
+     * @throws IllegalArgumentException if {@code reprepareMaxIdleSeconds < 0}.
+     */
+    public QueryOptions setReprepareMaxIdleSeconds(int reprepareMaxIdleSeconds) {
+        if (reprepareMaxIdleSeconds < 0)
+            throw new IllegalArgumentException("Invalid reprepareMaxIdleSeconds, should be >= 0, got " + reprepareMaxIdleSeconds);
+        this.reprepareMaxIdleSeconds = reprepareMaxIdleSeconds;
+        return this;
+    }
+
+    /**
+     * The period during which a statement must have been executed to be re-prepared
+     * when a host is added or comes back up.
+     *
+     * @return the period in seconds, or {@code 0} if all statements are re-prepared.
+     */
+    public int getReprepareMaxIdleSeconds() {
+        return reprepareMaxIdleSeconds;
+    }
+
+    /**
+     * Sets the text columns of a table whose values are deduplicated when reading rows.
+     * <p>
+     * Columns with a small set of distinct values (a status, a country code...) return the
+     * same strings over and over, and each {@link Row#getString} call would otherwise build
+     * a new instance. For the columns set here, the driver keeps a small cache of the values
+     * it has decoded, and returns the cached instance when a value has the same bytes. This
+     * saves the decoding, and the memory of the strings when rows are kept around.
+     * <p>
+     * The caches are bounded (see {@link #setStringCacheSize(int)}), and work best for columns
+     * that have well under that many distinct values: as a cache fills up, values start to evict
+     * each other and are returned as new instances again. The hits and misses are reported by
+     * {@link Metrics#getStringCacheHits()} and {@link Metrics#getStringCacheMisses()}.
+     * <p>
+     * Keyspace, table and column names follow the same rules as {@link Metadata#getKeyspace(String)}:
+     * they are case-insensitive unless enclosed in double-quotes.
+     *
+     * @param keyspace the keyspace of the table.
+     * @param table the table.
+     * @param columns the columns to deduplicate, replacing the ones previously set for this
+     * table; {@code null} or an empty collection to stop deduplicating the values of this table
+     * (the default).
+     * @return this {@code QueryOptions} instance.
+     */
+    public synchronized QueryOptions setDeduplicatedStringColumns(String keyspace, String table, Collection<String> columns) {
+        keyspace = Metadata.handleId(keyspace);
+        table = Metadata.handleId(table);
+
+        Map<String, Map<String, Set<String>>> newColumns = new HashMap<String, Map<String, Set<String>>>(deduplicatedStringColumns);
+        Map<String, Set<String>> tables = newColumns.containsKey(keyspace)
+                                        ? new HashMap<String, Set<String>>(newColumns.get(keyspace))
+                                        : new HashMap<String, Set<String>>();
+        if (columns == null || columns.isEmpty()) {
+            tables.remove(table);
+        } else {
+            Set<String> names = new HashSet<String>();
+            for (String column : columns)
+                names.add(Metadata.handleId(column));
+            tables.put(table, Collections.unmodifiableSet(names));
+        }
+
+        if (tables.isEmpty())
+            newColumns.remove(keyspace);
+        else
+            newColumns.put(keyspace, Collections.unmodifiableMap(tables));
+        this.deduplicatedStringColumns = Collections.unmodifiableMap(newColumns);
+        return this;
+    }
+
+    /**
+     * The text columns of a table whose values are deduplicated when reading rows.
+     *
+     * @param keyspace the keyspace of the table.
+     * @param table the table.
+     * @return the (internal, i.e. case-sensitive) names of the columns, or an empty set
+     * if the values of this table are not deduplicated.
+     */
+    public Set<String> getDeduplicatedStringColumns(String keyspace, String table) {
+        Map<String, Set<String>> tables = deduplicatedStringColumns.get(Metadata.handleId(keyspace));
+        Set<String> columns = tables == null ? null : tables.get(Metadata.handleId(table));
+        return columns == null ? Collections.<String>emptySet() : columns;
+    }
+
+    boolean hasDeduplicatedStringColumns() {
+        return !deduplicatedStringColumns.isEmpty();
+    }
+
+    // Takes internal names, as found in result metadata
+    boolean isDeduplicatedStringColumn(String keyspace, String table, String column) {
+        Map<String, Set<String>> tables = deduplicatedStringColumns.get(keyspace);
+        Set<String> columns = tables == null ? null : tables.get(table);
+        return columns != null && columns.contains(column);
+    }
+
+    /**
+     * Sets the maximum number of values cached for each deduplicated string column.
+     * <p>
+     * This only applies to the caches created after the call, i.e. to the columns that
+     * haven't been read yet.
+     *
+     * @param stringCacheSize the size, which is rounded up to a power of 2 (and to at least 4).
+     * @return this {@code QueryOptions} instance.
+     *
+     * @throws IllegalArgumentException if {@code stringCacheSize <= 0}.
+     *
+     * @see #setDeduplicatedStringColumns(String, String, Collection)
+     */
+    public QueryOptions setStringCacheSize(int stringCacheSize) {
+        if (stringCacheSize <= 0)
+            throw new IllegalArgumentException("Invalid stringCacheSize, should be > 0, got " + stringCacheSize);
+        this.stringCacheSize = stringCacheSize;
+        return this;
+    }
+
+    /**
+     * The maximum number of values cached for each deduplicated string column.
+     * <p>
+     * It defaults to {@link #DEFAULT_STRING_CACHE_SIZE}.
+     *
+     * @return the size.
+     */
+    public int getStringCacheSize() {
+        return stringCacheSize;
+    }
+
+    /**
+     * Sets whether the collections returned by rows are decoded lazily.
+     * <p>
+     * By default, {@link Row#getList}, {@link Row#getSet} and {@link Row#getMap} decode all
+     * the elements of the collection into a new Java collection. With this option, they
+     * return read-only views on the bytes of the row instead, which decode elements when
+     * they are accessed. This is cheaper when only part of a large collection is used
+     * (its size, a few elements, or a few keys of a map), but more expensive if elements
+     * are accessed repeatedly, since they are decoded on each access:
+     * <ul>
+     *   <li>iterating decodes the elements in order;</li>
+     *   <li>{@code List.get} indexes the positions of the elements on its first call, then
+     *   only decodes the requested element;</li>
+     *   <li>{@code Map.get} and {@code Map.containsKey} decode all the keys on their first
+     *   call, but values only when they are returned;</li>
+     *   <li>{@code Set.contains} decodes elements until it finds a match.</li>
+     * </ul>
+     * Note that a view keeps a reference to the bytes of the row it comes from.
+     *
+     * @param lazyCollectionDecoding whether collections are decoded lazily.
+     * @return this {@code QueryOptions} instance.
+     */
+    public QueryOptions setLazyCollectionDecoding(boolean lazyCollectionDecoding) {
+        this.lazyCollectionDecoding = lazyCollectionDecoding;
+        return this;
+    }
+
+    /**
+     * Whether the collections returned by rows are decoded lazily.
+     * <p>
+     * It defaults to {@link #DEFAULT_LAZY_COLLECTION_DECODING}.
+     *
+     * @return whether collections are decoded lazily.
+     */
+    public boolean isLazyCollectionDecoding() {
+        return lazyCollectionDecoding;
+    }
+
+    /**
+     * Sets whether the fixed-width values of bound statements are serialized into a
+     * shared staging buffer.
+     * <p>
+     * By default, each value set on a {@link BoundStatement} with {@code setInt},
+     * {@code setLong}, {@code setFloat}, {@code setDouble}, {@code setDate} or
+     * {@code setUUID} is serialized into a buffer of its own. With this option, these
+     * values are written into a single array allocated for each statement (sized for
+     * all its fixed-width variables), which saves one allocation per value. The values
+     * are then copied from that array into the request when it is sent.
+     * <p>
+     * This only affects the statements prepared after the option is changed. Note that
+     * with this option, {@link BoundStatement#getBytesUnsafe} may return buffers whose
+     * position is not 0 and that share their backing array with the other values of
+     * the statement.
+     *
+     * @param boundValueStaging whether fixed-width bound values are staged.
+     * @return this {@code QueryOptions} instance.
+     */
+    public QueryOptions setBoundValueStaging(boolean boundValueStaging) {
+        this.boundValueStaging = boundValueStaging;
+        return this;
+    }
+
+    /**
+     * Whether the fixed-width values of bound statements are serialized into a shared
+     * staging buffer.
+     * <p>
+     * It defaults to {@link #DEFAULT_BOUND_VALUE_STAGING}.
+     *
+     * @return whether fixed-width bound values are staged.
+     */
+    public boolean isBoundValueStaging() {
+        return boundValueStaging;
+    }
 }
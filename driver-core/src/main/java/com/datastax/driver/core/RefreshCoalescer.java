@@ -0,0 +1,216 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.datastax.driver.core.SchemaElement.KEYSPACE;
+import static com.datastax.driver.core.SchemaElement.TABLE;
+import static com.datastax.driver.core.SchemaElement.TYPE;
+
+/**
+ * Merges the schema and node list refreshes triggered by server events.
+ * <p>
+ * Refreshes are not run right away: they are accumulated until no new request has
+ * been received for the duration of the {@link QueryOptions#getRefreshWindowMillis() window}
+ * (or the {@link QueryOptions#getMaxRefreshDelayMillis() maximum delay} has elapsed since
+ * the first pending request). The pending requests are then merged:
+ * <ul>
+ *   <li>a full schema refresh supersedes every other schema refresh;</li>
+ *   <li>a keyspace refresh supersedes the table and type refreshes of that keyspace,
+ *   and more than {@link #MAX_ELEMENTS_PER_KEYSPACE} table or type refreshes in the same
+ *   keyspace are collapsed into a keyspace refresh;</li>
+ *   <li>the token map is rebuilt at most once.</li>
+ * </ul>
+ */
+class RefreshCoalescer {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshCoalescer.class);
+
+    @VisibleForTesting
+    static final int MAX_ELEMENTS_PER_KEYSPACE = 5;
+
+    private final Cluster.Manager manager;
+
+    // All the fields below are guarded by this
+    private Pending pending = new Pending();
+    private long firstRequestNanos;
+    private ScheduledFuture<?> flushFuture;
+
+    RefreshCoalescer(Cluster.Manager manager) {
+        this.manager = manager;
+    }
+
+    void submitSchemaRefresh(SchemaElement targetType, String targetKeyspace, String targetName) {
+        synchronized (this) {
+            pending.addSchema(targetType, targetKeyspace, targetName);
+            schedule();
+        }
+    }
+
+    void submitNodeListRefresh() {
+        synchronized (this) {
+            pending.nodeList = true;
+            pending.requests += 1;
+            schedule();
+        }
+    }
+
+    // Must be called while holding the lock
+    private void schedule() {
+        QueryOptions options = manager.configuration.getQueryOptions();
+        long now = System.nanoTime();
+        if (flushFuture == null)
+            firstRequestNanos = now;
+        else
+            flushFuture.cancel(false);
+
+        long remainingMillis = options.getMaxRefreshDelayMillis() - TimeUnit.NANOSECONDS.toMillis(now - firstRequestNanos);
+        long delayMillis = Math.max(0, Math.min(options.getRefreshWindowMillis(), remainingMillis));
+        try {
+            flushFuture = manager.scheduledTasksExecutor.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    flush();
+                }
+            }, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Happens when the cluster is shutting down, the refresh is irrelevant at this point
+            logger.debug("Could not schedule refresh, the cluster is probably shutting down");
+        }
+    }
+
+    private void flush() {
+        final Pending toRun;
+        synchronized (this) {
+            toRun = pending;
+            pending = new Pending();
+            flushFuture = null;
+        }
+        if (toRun.requests == 0)
+            return;
+
+        // Refreshes are blocking, run them on the worker executor like other blocking tasks
+        manager.executor.submit(new ExceptionCatchingRunnable() {
+            @Override
+            public void runMayThrow() throws InterruptedException {
+                toRun.run(manager.controlConnection, manager.metrics);
+            }
+        });
+    }
+
+    /**
+     * A merged set of refresh requests.
+     */
+    @VisibleForTesting
+    static class Pending {
+
+        int requests;
+        boolean fullSchema;
+        boolean nodeList;
+        // keyspace -> pending elements, or null if the whole keyspace must be refreshed
+        final Map<String, Elements> keyspaces = new LinkedHashMap<String, Elements>();
+
+        void addSchema(SchemaElement targetType, String targetKeyspace, String targetName) {
+            requests += 1;
+            if (fullSchema)
+                return;
+
+            if (targetType == null || targetKeyspace == null) {
+                fullSchema = true;
+                keyspaces.clear();
+            } else if (targetType == KEYSPACE) {
+                keyspaces.put(targetKeyspace, null);
+            } else {
+                boolean keyspacePending = keyspaces.containsKey(targetKeyspace);
+                Elements elements = keyspaces.get(targetKeyspace);
+                if (keyspacePending && elements == null)
+                    return; // already refreshing the whole keyspace
+
+                if (elements == null) {
+                    elements = new Elements();
+                    keyspaces.put(targetKeyspace, elements);
+                }
+                (targetType == TYPE ? elements.types : elements.tables).add(targetName);
+                if (elements.size() > MAX_ELEMENTS_PER_KEYSPACE)
+                    keyspaces.put(targetKeyspace, null);
+            }
+        }
+
+        /**
+         * Returns the number of schema refreshes that {@link #run} will issue.
+         */
+        int schemaRefreshCount() {
+            if (fullSchema)
+                return 1;
+            int count = 0;
+            for (Elements elements : keyspaces.values())
+                count += (elements == null) ? 1 : elements.size();
+            return count;
+        }
+
+        /**
+         * Whether {@link #run} will rebuild the token map separately from the schema refreshes.
+         */
+        boolean needsTokenMapRefresh() {
+            if (fullSchema)
+                return false;
+            return nodeList || keyspaces.containsValue(null);
+        }
+
+        void run(ControlConnection controlConnection, Metrics metrics) throws InterruptedException {
+            int refreshes = schemaRefreshCount() + (needsTokenMapRefresh() ? 1 : 0);
+            if (metrics != null && requests > refreshes)
+                metrics.getCoalescedRefreshEvents().inc(requests - refreshes);
+
+            if (fullSchema) {
+                // Also rebuilds the token map
+                controlConnection.refreshSchema(null, null, null, true);
+                return;
+            }
+
+            for (Map.Entry<String, Elements> entry : keyspaces.entrySet()) {
+                String keyspace = entry.getKey();
+                Elements elements = entry.getValue();
+                if (elements == null) {
+                    controlConnection.refreshSchema(KEYSPACE, keyspace, null, false);
+                } else {
+                    for (String table : elements.tables)
+                        controlConnection.refreshSchema(TABLE, keyspace, table, false);
+                    for (String type : elements.types)
+                        controlConnection.refreshSchema(TYPE, keyspace, type, false);
+                }
+            }
+
+            if (needsTokenMapRefresh())
+                controlConnection.refreshNodeListAndTokenMap();
+        }
+    }
+
+    private static class Elements {
+        final Set<String> tables = new LinkedHashSet<String>();
+        final Set<String> types = new LinkedHashSet<String>();
+
+        int size() {
+            return tables.size() + types.size();
+        }
+    }
+}
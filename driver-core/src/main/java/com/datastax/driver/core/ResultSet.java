@@ -78,6 +78,23 @@ public interface ResultSet extends Iterable<Row> {
      */
     public List<Row> all();
 
+    /**
+     * Returns the rows of the current page of this ResultSet, decoded column by
+     * column, and consumes them.
+     * <p>
+     * The rows returned are the ones that follow the last row consumed (through
+     * {@link #one}, {@link #all}, {@link #iterator} or a previous call to this
+     * method) and that were fetched in the same page. If there is no such row
+     * but this ResultSet is not exhausted, this method blocks until the next page
+     * is fetched, like {@link #one} does. Decoding a whole page at once avoids
+     * creating a {@link Row} object for each row, which is useful when processing
+     * a large number of rows of simple types.
+     *
+     * @return the rows of the current page, decoded into columns. If this
+     * ResultSet is exhausted, an empty page is returned.
+     */
+    public ColumnarPage nextPageAsColumns();
+
     /**
      * Returns an iterator over the rows contained in this ResultSet.
      *
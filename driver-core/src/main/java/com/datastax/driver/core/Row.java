@@ -487,6 +487,99 @@ public interface Row extends GettableData {
      */
     public Token getPartitionKeyToken();
 
+    /**
+     * Returns the {@code i}th value of this row, a list or set of INT, as an array.
+     * <p>
+     * This decodes the elements straight into a new array, without creating a boxed object
+     * for each of them as {@link #getList(int, Class)} does.
+     *
+     * @param i the index ({@code 0 <= i < size()}) of the column to retrieve.
+     * @return the value of the {@code i}th column as an array, in the order of the collection. If the
+     * value is NULL, an empty array is returned.
+     *
+     * @throws IndexOutOfBoundsException if {@code i < 0 || i >= this.columns().size()}.
+     * @throws InvalidTypeException if column {@code i} is not a list or a set of INT.
+     */
+    public int[] getIntArray(int i);
+
+    /**
+     * Returns the value of column {@code name}, a list or set of INT, as an array.
+     * <p>
+     * This decodes the elements straight into a new array, without creating a boxed object
+     * for each of them as {@link #getList(String, Class)} does.
+     *
+     * @param name the name of the column to retrieve.
+     * @return the value of column {@code name} as an array, in the order of the collection. If the
+     * value is NULL, an empty array is returned.
+     *
+     * @throws IllegalArgumentException if {@code name} is not part of the
+     * ResultSet this row is part of, i.e. if {@code !this.columns().names().contains(name)}.
+     * @throws InvalidTypeException if column {@code name} is not a list or a set of INT.
+     */
+    public int[] getIntArray(String name);
+
+    /**
+     * Returns the {@code i}th value of this row, a list or set of BIGINT, as an array.
+     * <p>
+     * This decodes the elements straight into a new array, without creating a boxed object
+     * for each of them as {@link #getList(int, Class)} does.
+     *
+     * @param i the index ({@code 0 <= i < size()}) of the column to retrieve.
+     * @return the value of the {@code i}th column as an array, in the order of the collection. If the
+     * value is NULL, an empty array is returned.
+     *
+     * @throws IndexOutOfBoundsException if {@code i < 0 || i >= this.columns().size()}.
+     * @throws InvalidTypeException if column {@code i} is not a list or a set of BIGINT.
+     */
+    public long[] getLongArray(int i);
+
+    /**
+     * Returns the value of column {@code name}, a list or set of BIGINT, as an array.
+     * <p>
+     * This decodes the elements straight into a new array, without creating a boxed object
+     * for each of them as {@link #getList(String, Class)} does.
+     *
+     * @param name the name of the column to retrieve.
+     * @return the value of column {@code name} as an array, in the order of the collection. If the
+     * value is NULL, an empty array is returned.
+     *
+     * @throws IllegalArgumentException if {@code name} is not part of the
+     * ResultSet this row is part of, i.e. if {@code !this.columns().names().contains(name)}.
+     * @throws InvalidTypeException if column {@code name} is not a list or a set of BIGINT.
+     */
+    public long[] getLongArray(String name);
+
+    /**
+     * Returns the {@code i}th value of this row, a list or set of DOUBLE, as an array.
+     * <p>
+     * This decodes the elements straight into a new array, without creating a boxed object
+     * for each of them as {@link #getList(int, Class)} does.
+     *
+     * @param i the index ({@code 0 <= i < size()}) of the column to retrieve.
+     * @return the value of the {@code i}th column as an array, in the order of the collection. If the
+     * value is NULL, an empty array is returned.
+     *
+     * @throws IndexOutOfBoundsException if {@code i < 0 || i >= this.columns().size()}.
+     * @throws InvalidTypeException if column {@code i} is not a list or a set of DOUBLE.
+     */
+    public double[] getDoubleArray(int i);
+
+    /**
+     * Returns the value of column {@code name}, a list or set of DOUBLE, as an array.
+     * <p>
+     * This decodes the elements straight into a new array, without creating a boxed object
+     * for each of them as {@link #getList(String, Class)} does.
+     *
+     * @param name the name of the column to retrieve.
+     * @return the value of column {@code name} as an array, in the order of the collection. If the
+     * value is NULL, an empty array is returned.
+     *
+     * @throws IllegalArgumentException if {@code name} is not part of the
+     * ResultSet this row is part of, i.e. if {@code !this.columns().names().contains(name)}.
+     * @throws InvalidTypeException if column {@code name} is not a list or a set of DOUBLE.
+     */
+    public double[] getDoubleArray(String name);
+
     /**
      * Returns the {@code i}th value of this row as a list.
      *
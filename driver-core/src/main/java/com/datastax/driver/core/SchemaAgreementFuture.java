@@ -0,0 +1,122 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.AbstractFuture;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Waits for the hosts to agree on the schema version, without blocking any thread.
+ * <p>
+ * Each check sends the queries on {@code system.local} and {@code system.peers} together on
+ * the connection, and is completed by the response callbacks; if the versions don't match
+ * yet, the next check is scheduled on the cluster's scheduled tasks executor. The future
+ * completes with {@code true} as soon as the versions converge, or {@code false} if they
+ * still don't after {@link ProtocolOptions#getMaxSchemaAgreementWaitSeconds()}.
+ */
+class SchemaAgreementFuture extends AbstractFuture<Boolean> {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaAgreementFuture.class);
+
+    // let's not flood the node too much
+    private static final long CHECK_INTERVAL_MILLIS = 200;
+
+    private final Connection connection;
+    private final Cluster.Manager cluster;
+    private final long deadlineNanos;
+
+    private SchemaAgreementFuture(Connection connection, Cluster.Manager cluster, long deadlineNanos) {
+        this.connection = connection;
+        this.cluster = cluster;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    static SchemaAgreementFuture start(Connection connection, Cluster.Manager cluster) {
+        int maxSchemaAgreementWaitSeconds = cluster.configuration.getProtocolOptions().getMaxSchemaAgreementWaitSeconds();
+        SchemaAgreementFuture future = new SchemaAgreementFuture(connection, cluster,
+                                                                 System.nanoTime() + TimeUnit.SECONDS.toNanos(maxSchemaAgreementWaitSeconds));
+        if (maxSchemaAgreementWaitSeconds <= 0)
+            future.set(false);
+        else
+            future.check();
+        return future;
+    }
+
+    private void check() {
+        if (isDone())
+            return;
+
+        DefaultResultSetFuture peersFuture = new DefaultResultSetFuture(null, cluster.protocolVersion(), new Requests.Query(ControlConnection.SELECT_SCHEMA_PEERS));
+        DefaultResultSetFuture localFuture = new DefaultResultSetFuture(null, cluster.protocolVersion(), new Requests.Query(ControlConnection.SELECT_SCHEMA_LOCAL));
+        try {
+            connection.write(peersFuture);
+            connection.write(localFuture);
+        } catch (Exception e) {
+            // ConnectionException or BusyConnectionException
+            setException(e);
+            return;
+        }
+
+        Futures.addCallback(Futures.allAsList(ImmutableList.<ListenableFuture<ResultSet>>of(peersFuture, localFuture)), new FutureCallback<List<ResultSet>>() {
+            @Override
+            public void onSuccess(List<ResultSet> results) {
+                boolean agreement;
+                try {
+                    agreement = ControlConnection.checkSchemaAgreement(results.get(0), results.get(1), connection.address, cluster);
+                } catch (RuntimeException e) {
+                    setException(e);
+                    return;
+                }
+
+                if (agreement)
+                    set(true);
+                else if (System.nanoTime() - deadlineNanos >= 0)
+                    set(false);
+                else
+                    scheduleNextCheck();
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                setException(t);
+            }
+        });
+    }
+
+    private void scheduleNextCheck() {
+        try {
+            cluster.scheduledTasksExecutor.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    check();
+                }
+            }, CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Happens when the cluster is shutting down
+            logger.debug("Could not schedule schema agreement check, the cluster is probably shutting down");
+            set(false);
+        }
+    }
+}
@@ -281,6 +281,28 @@ public interface Session extends Closeable {
      */
     public ListenableFuture<PreparedStatement> prepareAsync(RegularStatement statement);
 
+    /**
+     * Prepares this session for a burst of traffic.
+     * <p>
+     * This opens, in parallel, the connections that the pools of the {@code LOCAL} hosts
+     * would otherwise open one by one as the load increases (up to
+     * {@link PoolingOptions#getMaxConnectionsPerHost}), and prepares the provided queries
+     * (which are then served from the session's prepared statement cache, see
+     * {@link QueryOptions#setPreparedStatementCacheSize}). This is typically called after
+     * startup, before the application starts accepting requests.
+     * <p>
+     * Note that with version 3 of the native protocol, pools use a single connection per host
+     * that is opened when the session is initialized, so only the preparation applies. The
+     * additional connections are subject to the usual idle timeout if the load doesn't
+     * require them.
+     *
+     * @param queriesToPrepare the queries to prepare.
+     * @return a future that completes once the connections are open and the queries are
+     * prepared. Failing to open connections doesn't fail the future (the pools will open
+     * connections on demand), but failing to prepare one of the queries does.
+     */
+    public ListenableFuture<Void> warmUpAsync(String... queriesToPrepare);
+
     /**
      * Initiates a shutdown of this session instance.
      * <p>
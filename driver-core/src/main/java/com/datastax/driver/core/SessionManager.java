@@ -22,6 +22,8 @@ import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicReference;
 
 import com.google.common.base.Function;
+import com.google.common.base.Functions;
+import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.*;
@@ -48,6 +50,11 @@ class SessionManager extends AbstractSession {
     final HostConnectionPool.PoolState poolsState;
     final AtomicReference<CloseFuture> closeFuture = new AtomicReference<CloseFuture>();
 
+    // null if disabled
+    private final PreparedStatementCache preparedStatementCache;
+    // null if disabled
+    private final AutoPreparer autoPreparer;
+
     private volatile boolean isInit;
     private volatile boolean isClosing;
 
@@ -56,6 +63,11 @@ class SessionManager extends AbstractSession {
         this.cluster = cluster;
         this.pools = new ConcurrentHashMap<Host, HostConnectionPool>();
         this.poolsState = new HostConnectionPool.PoolState();
+        QueryOptions queryOptions = cluster.manager.configuration.getQueryOptions();
+        int cacheSize = queryOptions.getPreparedStatementCacheSize();
+        this.preparedStatementCache = cacheSize == 0 ? null : new PreparedStatementCache(cacheSize, cluster.manager.metrics);
+        int autoPrepareThreshold = queryOptions.getAutoPrepareThreshold();
+        this.autoPreparer = autoPrepareThreshold == 0 ? null : new AutoPreparer(this, autoPrepareThreshold, queryOptions.getAutoPrepareCacheSize(), cluster.manager.metrics);
     }
 
     public synchronized Session init() {
@@ -94,10 +106,42 @@ class SessionManager extends AbstractSession {
     }
 
     public ResultSetFuture executeAsync(Statement statement) {
+        if (autoPreparer != null && statement instanceof RegularStatement) {
+            // init() locks, so avoid if we know we don't need it (we need the protocol version below).
+            if (!isInit)
+                init();
+            statement = autoPreparer.maybeBind((RegularStatement)statement, cluster.manager.protocolVersion());
+        }
         return executeQuery(makeRequestMessage(statement, null), statement);
     }
 
-    public ListenableFuture<PreparedStatement> prepareAsync(String query) {
+    public ListenableFuture<PreparedStatement> prepareAsync(final String query) {
+        if (preparedStatementCache == null)
+            return prepareOnCluster(query);
+
+        return preparedStatementCache.get(poolsState.keyspace, query, new Supplier<ListenableFuture<PreparedStatement>>() {
+            @Override
+            public ListenableFuture<PreparedStatement> get() {
+                return prepareOnCluster(query);
+            }
+        });
+    }
+
+    public ListenableFuture<Void> warmUpAsync(String... queriesToPrepare) {
+        // init() locks, so avoid if we know we don't need it.
+        if (!isInit)
+            init();
+
+        List<ListenableFuture<?>> futures = Lists.newArrayList();
+        for (HostConnectionPool pool : pools.values())
+            if (pool.hostDistance == HostDistance.LOCAL)
+                futures.add(pool.warmUp());
+        for (String query : queriesToPrepare)
+            futures.add(prepareAsync(query));
+        return Futures.transform(Futures.allAsList(futures), Functions.<Void>constant(null));
+    }
+
+    private ListenableFuture<PreparedStatement> prepareOnCluster(String query) {
         Connection.Future future = new Connection.Future(new Requests.Prepare(query));
         execute(future, Statement.DEFAULT);
         return toPreparedStatement(query, future);
@@ -143,7 +187,7 @@ class SessionManager extends AbstractSession {
                         switch (rm.kind) {
                             case PREPARED:
                                 Responses.Result.Prepared pmsg = (Responses.Result.Prepared)rm;
-                                PreparedStatement stmt = DefaultPreparedStatement.fromMessage(pmsg, cluster.getMetadata(), cluster.getConfiguration().getProtocolOptions().getProtocolVersionEnum(), query, poolsState.keyspace);
+                                PreparedStatement stmt = DefaultPreparedStatement.fromMessage(pmsg, cluster.getMetadata(), cluster.getConfiguration().getProtocolOptions().getProtocolVersionEnum(), cluster.getConfiguration().getCodecRegistry(), cluster.getConfiguration().getQueryOptions().isBoundValueStaging(), query, poolsState.keyspace);
                                 stmt = cluster.manager.addPrepared(stmt);
                                 try {
                                     // All Sessions are connected to the same nodes so it's enough to prepare only the nodes of this session.
@@ -527,6 +571,7 @@ class SessionManager extends AbstractSession {
                     + "You may have used a PreparedStatement that was created with another Cluster instance.", bs.statement.getPreparedId().id));
             }
             bs.ensureAllSet();
+            DefaultPreparedStatement.markUsed(bs.statement);
             boolean skipMetadata = protoVersion != ProtocolVersion.V1 && bs.statement.getPreparedId().resultSetMetadata != null;
             Requests.QueryProtocolOptions options = new Requests.QueryProtocolOptions(cl, Arrays.asList(bs.wrapper.values), skipMetadata,
                                                                                       fetchSize, usedPagingState, scl, defaultTimestamp);
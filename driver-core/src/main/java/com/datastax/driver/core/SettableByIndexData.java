@@ -285,4 +285,22 @@ public interface SettableByIndexData<T extends SettableByIndexData<T>> {
      * @throws IndexOutOfBoundsException if {@code i} is not a valid index for this object.
      */
     public T setToNull(int i);
-}
\ No newline at end of file
+
+    /**
+     * Sets the {@code i}th value to the provided value of the given Java type.
+     * <p>
+     * The value is serialized by the codec that the {@link CodecRegistry} in use (see
+     * {@link Configuration#getCodecRegistry()}) resolves for the CQL type of the value and
+     * {@code sourceClass}.
+     *
+     * @param i the index of the value to set.
+     * @param v the value to set.
+     * @param sourceClass the Java type of {@code v}.
+     * @return this object.
+     *
+     * @throws IndexOutOfBoundsException if {@code i} is not a valid index for this object.
+     * @throws InvalidTypeException if there is no codec for the CQL type of value {@code i}
+     * and {@code sourceClass}.
+     */
+    public <V> T set(int i, V v, Class<V> sourceClass);
+}
@@ -333,4 +333,24 @@ public interface SettableByNameData<T extends SettableData<T>> {
      * @throws IllegalArgumentException if {@code name} is not a valid name for this object.
      */
     public T setToNull(String name);
-}
\ No newline at end of file
+
+    /**
+     * Sets the value for (all occurrences of) variable {@code name} to the provided value
+     * of the given Java type.
+     * <p>
+     * The value is serialized by the codec that the {@link CodecRegistry} in use (see
+     * {@link Configuration#getCodecRegistry()}) resolves for the CQL type of the value and
+     * {@code sourceClass}.
+     *
+     * @param name the name of the value to set; if {@code name} is present multiple
+     * times, all its values are set.
+     * @param v the value to set.
+     * @param sourceClass the Java type of {@code v}.
+     * @return this object.
+     *
+     * @throws IllegalArgumentException if {@code name} is not a valid name for this object.
+     * @throws InvalidTypeException if there is no codec for the CQL type of value {@code name}
+     * and {@code sourceClass}.
+     */
+    public <V> T set(String name, V v, Class<V> sourceClass);
+}
@@ -123,6 +123,12 @@ class SingleConnectionPool extends HostConnectionPool {
         return manager.configuration().getPoolingOptions();
     }
 
+    @Override
+    ListenableFuture<Void> warmUp() {
+        // The only connection is opened at initialization
+        return MoreFutures.VOID_SUCCESS;
+    }
+
     @Override
     public Connection borrowConnection(long timeout, TimeUnit unit) throws ConnectionException, TimeoutException {
         Phase phase = this.phase.get();
@@ -151,6 +157,7 @@ class SingleConnectionPool extends HostConnectionPool {
             }
         }
         connection.setKeyspace(manager.poolsState.keyspace);
+        host.inFlightQueries.incrementAndGet();
         return connection;
     }
 
@@ -234,6 +241,7 @@ class SingleConnectionPool extends HostConnectionPool {
     @Override
     public void returnConnection(Connection connection) {
         int inFlight = connection.inFlight.decrementAndGet();
+        host.inFlightQueries.decrementAndGet();
 
         if (isClosed()) {
             close(connection);
@@ -0,0 +1,144 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Deduplicates the values of a text column, so that rows share the same instance for
+ * equal strings (see {@link QueryOptions#setDeduplicatedStringColumns}).
+ * <p>
+ * This is a 4-way set-associative cache: the hash of a value's bytes determines a set of
+ * 4 slots, and a new value replaces the oldest one when its set is full. This keeps lookups
+ * cheap and the size bounded, while values that share a set don't evict each other as long
+ * as there are no more than 4 of them. It works well for columns whose number of distinct
+ * values is well below the size of the cache; past that, values get evicted and come back as
+ * new instances.
+ * Slots are written without synchronization, which is safe since entries are immutable:
+ * at worst, a concurrent reader misses an entry that was just stored, or an entry is lost.
+ */
+class StringCache {
+
+    private static final int WAYS = 4;
+
+    private final Entry[] entries;
+    private final int setMask;
+    private final Metrics metrics;
+
+    StringCache(int size, Metrics metrics) {
+        // Round up to a power of 2, with at least one set
+        int capacity = Math.max(Integer.highestOneBit(Math.max(size - 1, 1)) << 1, WAYS);
+        this.entries = new Entry[capacity];
+        this.setMask = capacity / WAYS - 1;
+        this.metrics = metrics;
+    }
+
+    String get(ByteBuffer bytes, TypeCodec.StringCodec codec) {
+        int hash = bytes.hashCode();
+        int first = ((hash ^ (hash >>> 16)) & setMask) * WAYS;
+
+        for (int i = first; i < first + WAYS; i++) {
+            Entry entry = entries[i];
+            if (entry == null)
+                break;
+            if (entry.hash == hash && entry.bytes.equals(bytes)) {
+                if (metrics != null)
+                    metrics.getStringCacheHits().inc();
+                return entry.value;
+            }
+        }
+
+        if (metrics != null)
+            metrics.getStringCacheMisses().inc();
+        String value = codec.deserialize(bytes);
+        // Copy the bytes, since the buffer is a view on the response frame
+        byte[] copy = new byte[bytes.remaining()];
+        bytes.duplicate().get(copy);
+        // The set is kept from the newest to the oldest entry, so the oldest one is dropped
+        System.arraycopy(entries, first, entries, first + 1, WAYS - 1);
+        entries[first] = new Entry(hash, ByteBuffer.wrap(copy), value);
+        return value;
+    }
+
+    private static class Entry {
+        final int hash;
+        final ByteBuffer bytes;
+        final String value;
+
+        Entry(int hash, ByteBuffer bytes, String value) {
+            this.hash = hash;
+            this.bytes = bytes;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Creates and holds the caches of the columns configured in {@link QueryOptions}.
+     */
+    static class Factory {
+
+        private final QueryOptions queryOptions;
+        private final Metrics metrics;
+        private final ConcurrentMap<List<String>, StringCache> caches = new ConcurrentHashMap<List<String>, StringCache>();
+
+        Factory(QueryOptions queryOptions, Metrics metrics) {
+            this.queryOptions = queryOptions;
+            this.metrics = metrics;
+        }
+
+        /**
+         * Returns the caches for the columns of a result.
+         *
+         * @return an array indexed like {@code columns}, holding {@code null} for the columns
+         * that are not deduplicated, or {@code null} if no column is.
+         */
+        StringCache[] cachesFor(ColumnDefinitions columns) {
+            if (!queryOptions.hasDeduplicatedStringColumns())
+                return null;
+
+            StringCache[] result = null;
+            for (int i = 0; i < columns.size(); i++) {
+                DataType.Name type = columns.getType(i).getName();
+                if (type != DataType.Name.TEXT && type != DataType.Name.VARCHAR && type != DataType.Name.ASCII)
+                    continue;
+
+                String keyspace = columns.getKeyspace(i), table = columns.getTable(i), column = columns.getName(i);
+                if (!queryOptions.isDeduplicatedStringColumn(keyspace, table, column))
+                    continue;
+
+                if (result == null)
+                    result = new StringCache[columns.size()];
+                result[i] = cacheFor(Arrays.asList(keyspace, table, column));
+            }
+            return result;
+        }
+
+        private StringCache cacheFor(List<String> key) {
+            StringCache cache = caches.get(key);
+            if (cache == null) {
+                StringCache newCache = new StringCache(queryOptions.getStringCacheSize(), metrics);
+                cache = caches.putIfAbsent(key, newCache);
+                if (cache == null)
+                    cache = newCache;
+            }
+            return cache;
+        }
+    }
+}
@@ -30,6 +30,9 @@ import com.datastax.driver.core.exceptions.InvalidTypeException;
 public class TupleType extends DataType {
 
     private final List<DataType> types;
+    private TypeCodec<Object> codec;
+    // The registry of the values of this type, set when the type is obtained from a cluster (see CodecRegistry#attachTo)
+    volatile CodecRegistry codecRegistry = CodecRegistry.DEFAULT_INSTANCE;
 
     TupleType(List<DataType> types) {
         super(DataType.Name.TUPLE);
@@ -39,7 +42,13 @@ public class TupleType extends DataType {
     @SuppressWarnings("unchecked")
     @Override
     TypeCodec<Object> codec(ProtocolVersion protocolVersion) {
-        return (TypeCodec)TypeCodec.tupleOf(this);
+        // The codec doesn't depend on the protocol version. It is immutable, so racing to build it is harmless
+        TypeCodec<Object> codec = this.codec;
+        if (codec == null) {
+            codec = (TypeCodec)TypeCodec.tupleOf(this);
+            this.codec = codec;
+        }
+        return codec;
     }
 
     /**
@@ -46,6 +46,11 @@ public class TupleValue extends AbstractAddressableByIndexData<TupleValue> {
         return "component " + i;
     }
 
+    @Override
+    protected CodecRegistry getCodecRegistry() {
+        return type.codecRegistry;
+    }
+
     /**
      * The tuple type this is a value of.
      *
@@ -17,6 +17,7 @@ package com.datastax.driver.core;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.net.Inet4Address;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.nio.*;
@@ -32,8 +33,9 @@ abstract class TypeCodec<T> {
 
     // Somehow those don't seem to get properly initialized if they're not here. The reason
     // escape me right now so let's just leave it here for now
+    private static final Charset asciiCharset = Charset.forName("US-ASCII");
     public static final StringCodec utf8Instance = new StringCodec(Charset.forName("UTF-8"));
-    public static final StringCodec asciiInstance = new StringCodec(Charset.forName("US-ASCII"));
+    public static final StringCodec asciiInstance = new StringCodec(asciiCharset);
 
     private static final Map<DataType.Name, TypeCodec<?>> primitiveCodecs = new EnumMap<DataType.Name, TypeCodec<?>>(DataType.Name.class);
     static {
@@ -107,6 +109,18 @@ abstract class TypeCodec<T> {
     public abstract ByteBuffer serialize(T value);
     public abstract T deserialize(ByteBuffer bytes);
 
+    // Two-pass serialization, which lets collections, UDTs and tuples write their elements straight into a
+    // single buffer: serializedSize returns the exact number of bytes that serializeInto writes (with relative
+    // puts) at the position of the output.
+    public abstract int serializedSize(T value);
+    public abstract void serializeInto(T value, ByteBuffer output);
+
+    ByteBuffer serializeExactly(T value) {
+        ByteBuffer result = ByteBuffer.allocate(serializedSize(value));
+        serializeInto(value, result);
+        return (ByteBuffer)result.flip();
+    }
+
     @SuppressWarnings("unchecked")
     static <T> TypeCodec<T> createFor(DataType.Name name) {
         assert !name.isCollection();
@@ -229,20 +243,6 @@ abstract class TypeCodec<T> {
         return null;
     }
 
-    private static ByteBuffer pack(List<ByteBuffer> buffers, int elements, ProtocolVersion version) {
-        int size = 0;
-        for (ByteBuffer bb : buffers) {
-            int elemSize = sizeOfValue(bb, version);
-            size += elemSize;
-        }
-
-        ByteBuffer result = ByteBuffer.allocate(sizeOfCollectionSize(elements, version) + size);
-        writeCollectionSize(result, elements, version);
-        for (ByteBuffer bb : buffers)
-            writeCollectionValue(result, bb, version);
-        return (ByteBuffer)result.flip();
-    }
-
     private static void writeCollectionSize(ByteBuffer output, int elements, ProtocolVersion version) {
         switch (version) {
             case V1:
@@ -264,7 +264,7 @@ abstract class TypeCodec<T> {
         return length | (bb.get() & 0xFF);
     }
 
-    private static int readCollectionSize(ByteBuffer input, ProtocolVersion version) {
+    static int readCollectionSize(ByteBuffer input, ProtocolVersion version) {
         switch (version) {
             case V1:
             case V2:
@@ -288,65 +288,137 @@ abstract class TypeCodec<T> {
         }
     }
 
-    private static void writeCollectionValue(ByteBuffer output, ByteBuffer value, ProtocolVersion version) {
+    private static <T> int sizeOfCollectionValue(TypeCodec<T> codec, T value, ProtocolVersion version) {
+        int elemSize = codec.serializedSize(value);
         switch (version) {
             case V1:
             case V2:
-                assert value != null;
-                output.putShort((short)value.remaining());
-                output.put(value.duplicate());
-                break;
+                if (elemSize > 65535)
+                    throw new IllegalArgumentException("Native protocol version 2 supports only elements with size up to 65535 bytes - but element size is " + elemSize + " bytes");
+                return 2 + elemSize;
             case V3:
-                if (value == null) {
-                    output.putInt(-1);
-                } else {
-                    output.putInt(value.remaining());
-                    output.put(value.duplicate());
-                }
-                break;
+                return 4 + elemSize;
             default:
                 throw version.unsupported();
         }
     }
 
-    private static ByteBuffer readBytes(ByteBuffer bb, int length) {
-        ByteBuffer copy = bb.duplicate();
-        copy.limit(copy.position() + length);
-        bb.position(bb.position() + length);
-        return copy;
-    }
-
-    private static ByteBuffer readCollectionValue(ByteBuffer input, ProtocolVersion version) {
-        int size;
+    private static <T> void writeCollectionValue(TypeCodec<T> codec, T value, ByteBuffer output, ProtocolVersion version) {
+        // Serialize the element first and write its size afterwards, rather than computing it again
+        int sizePosition = output.position();
         switch (version) {
             case V1:
             case V2:
-                size = getUnsignedShort(input);
+                output.position(sizePosition + 2);
+                codec.serializeInto(value, output);
+                output.putShort(sizePosition, (short)(output.position() - sizePosition - 2));
                 break;
             case V3:
-                size = input.getInt();
+                output.position(sizePosition + 4);
+                codec.serializeInto(value, output);
+                output.putInt(sizePosition, output.position() - sizePosition - 4);
                 break;
             default:
                 throw version.unsupported();
         }
+    }
+
+    // UDT and tuple values are serialized as a sequence of [bytes]
+    private static int sizeOfFields(ByteBuffer[] values) {
+        int size = 0;
+        for (ByteBuffer v : values)
+            size += 4 + (v == null ? 0 : v.remaining());
+        return size;
+    }
+
+    private static void writeFields(ByteBuffer[] values, ByteBuffer output) {
+        for (ByteBuffer bb : values) {
+            if (bb == null) {
+                output.putInt(-1);
+            } else {
+                output.putInt(bb.remaining());
+                output.put(bb.duplicate());
+            }
+        }
+    }
+
+    private static ByteBuffer readBytes(ByteBuffer bb, int length) {
+        ByteBuffer copy = bb.duplicate();
+        copy.limit(copy.position() + length);
+        bb.position(bb.position() + length);
+        return copy;
+    }
+
+    static ByteBuffer readCollectionValue(ByteBuffer input, ProtocolVersion version) {
+        int size = readCollectionValueSize(input, version);
         return size < 0 ? null : readBytes(input, size);
     }
 
-    private static int sizeOfValue(ByteBuffer value, ProtocolVersion version) {
+    private static int readCollectionValueSize(ByteBuffer input, ProtocolVersion version) {
         switch (version) {
             case V1:
             case V2:
-                int elemSize = value.remaining();
-                if (elemSize > 65535)
-                    throw new IllegalArgumentException("Native protocol version 2 supports only elements with size up to 65535 bytes - but element size is " + elemSize + " bytes");
-                return 2 + elemSize;
+                return getUnsignedShort(input);
             case V3:
-                return value == null ? 4 : 4 + value.remaining();
+                return input.getInt();
             default:
                 throw version.unsupported();
         }
     }
 
+    // The following decode a list or set of numbers straight into an array, without boxing the elements
+
+    static int[] deserializeIntArray(ByteBuffer bytes, ProtocolVersion version) {
+        try {
+            ByteBuffer input = bytes.duplicate();
+            int n = readCollectionSize(input, version);
+            int[] values = new int[n];
+            for (int i = 0; i < n; i++) {
+                int size = readCollectionValueSize(input, version);
+                if (size != 4)
+                    throw new InvalidTypeException("Invalid 32-bits integer value, expecting 4 bytes but got " + size);
+                values[i] = input.getInt();
+            }
+            return values;
+        } catch (BufferUnderflowException e) {
+            throw new InvalidTypeException("Not enough bytes to deserialize collection");
+        }
+    }
+
+    static long[] deserializeLongArray(ByteBuffer bytes, ProtocolVersion version) {
+        try {
+            ByteBuffer input = bytes.duplicate();
+            int n = readCollectionSize(input, version);
+            long[] values = new long[n];
+            for (int i = 0; i < n; i++) {
+                int size = readCollectionValueSize(input, version);
+                if (size != 8)
+                    throw new InvalidTypeException("Invalid 64-bits long value, expecting 8 bytes but got " + size);
+                values[i] = input.getLong();
+            }
+            return values;
+        } catch (BufferUnderflowException e) {
+            throw new InvalidTypeException("Not enough bytes to deserialize collection");
+        }
+    }
+
+    static double[] deserializeDoubleArray(ByteBuffer bytes, ProtocolVersion version) {
+        try {
+            ByteBuffer input = bytes.duplicate();
+            int n = readCollectionSize(input, version);
+            double[] values = new double[n];
+            for (int i = 0; i < n; i++) {
+                int size = readCollectionValueSize(input, version);
+                if (size != 8)
+                    throw new InvalidTypeException("Invalid 64-bits double value, expecting 8 bytes but got " + size);
+                values[i] = input.getDouble();
+            }
+            return values;
+        } catch (BufferUnderflowException e) {
+            throw new InvalidTypeException("Not enough bytes to deserialize collection");
+        }
+    }
+
     static class StringCodec extends TypeCodec<String> {
 
         private final Charset charset;
@@ -402,12 +474,150 @@ abstract class TypeCodec<T> {
 
         @Override
         public ByteBuffer serialize(String value) {
-            return ByteBuffer.wrap(value.getBytes(charset));
+            int length = value.length();
+            byte[] bytes = new byte[length];
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c >= 0x80)
+                    // Non-ASCII: for the ascii type, let the charset apply its replacement
+                    return ByteBuffer.wrap(charset == asciiCharset ? value.getBytes(charset) : encodeUtf8(value));
+                bytes[i] = (byte)c;
+            }
+            return ByteBuffer.wrap(bytes);
+        }
+
+        @Override
+        public int serializedSize(String value) {
+            if (charset != asciiCharset)
+                return utf8Length(value);
+
+            int length = value.length();
+            for (int i = 0; i < length; i++) {
+                if (value.charAt(i) >= 0x80)
+                    return value.getBytes(charset).length;
+            }
+            return length;
+        }
+
+        @Override
+        public void serializeInto(String value, ByteBuffer output) {
+            int length = value.length();
+            if (!output.hasArray() || output.remaining() < length) {
+                output.put(serialize(value));
+                return;
+            }
+
+            byte[] array = output.array();
+            int offset = output.arrayOffset() + output.position();
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c >= 0x80) {
+                    // Non-ASCII: encode from the start, straight into the output if there is enough room
+                    if (charset == asciiCharset || output.remaining() < utf8Length(value)) {
+                        output.put(serialize(value));
+                    } else {
+                        int end = encodeUtf8(value, array, offset);
+                        output.position(end - output.arrayOffset());
+                    }
+                    return;
+                }
+                array[offset + i] = (byte)c;
+            }
+            output.position(output.position() + length);
         }
 
         @Override
+        @SuppressWarnings("deprecation")
         public String deserialize(ByteBuffer bytes) {
-            return new String(Bytes.getArray(bytes), charset);
+            int length = bytes.remaining();
+            if (length == 0)
+                return "";
+
+            byte[] array;
+            int offset;
+            if (bytes.hasArray()) {
+                // Decode straight from the backing array, rather than copying the value first
+                array = bytes.array();
+                offset = bytes.arrayOffset() + bytes.position();
+            } else {
+                array = new byte[length];
+                bytes.duplicate().get(array);
+                offset = 0;
+            }
+
+            // Most values are pure ASCII, in which case the bytes are the chars and don't need
+            // to go through the charset decoder. This is what the deprecated constructor does.
+            return isAscii(array, offset, length)
+                 ? new String(array, 0, offset, length)
+                 : new String(array, offset, length, charset);
+        }
+
+        private static boolean isAscii(byte[] bytes, int offset, int length) {
+            // OR the bytes together rather than testing each one: a simple loop that compiles to fast code
+            int bits = 0;
+            for (int i = offset; i < offset + length; i++)
+                bits |= bytes[i];
+            return bits >= 0;
+        }
+
+        // Encodes into an array of the exact size, rather than going through the charset encoder.
+        // Like the JDK encoder, unpaired surrogates are replaced by '?'.
+        private static byte[] encodeUtf8(String value) {
+            byte[] bytes = new byte[utf8Length(value)];
+            int end = encodeUtf8(value, bytes, 0);
+            assert end == bytes.length;
+            return bytes;
+        }
+
+        // Returns the index that follows the last byte written, bytes must have utf8Length(value) bytes after idx
+        private static int encodeUtf8(String value, byte[] bytes, int idx) {
+            int length = value.length();
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    bytes[idx++] = (byte)c;
+                } else if (c < 0x800) {
+                    bytes[idx++] = (byte)(0xc0 | (c >> 6));
+                    bytes[idx++] = (byte)(0x80 | (c & 0x3f));
+                } else if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+                    if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                        int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                        bytes[idx++] = (byte)(0xf0 | (codePoint >> 18));
+                        bytes[idx++] = (byte)(0x80 | ((codePoint >> 12) & 0x3f));
+                        bytes[idx++] = (byte)(0x80 | ((codePoint >> 6) & 0x3f));
+                        bytes[idx++] = (byte)(0x80 | (codePoint & 0x3f));
+                    } else {
+                        bytes[idx++] = '?';
+                    }
+                } else {
+                    bytes[idx++] = (byte)(0xe0 | (c >> 12));
+                    bytes[idx++] = (byte)(0x80 | ((c >> 6) & 0x3f));
+                    bytes[idx++] = (byte)(0x80 | (c & 0x3f));
+                }
+            }
+            return idx;
+        }
+
+        private static int utf8Length(String value) {
+            int length = value.length();
+            int size = length;
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80)
+                    continue;
+                if (c < 0x800) {
+                    size += 1;
+                } else if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+                    // A pair is 2 chars and 4 bytes, an unpaired surrogate becomes '?'
+                    if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                        size += 2;
+                        i++;
+                    }
+                } else {
+                    size += 2;
+                }
+            }
+            return size;
         }
     }
 
@@ -442,6 +652,16 @@ abstract class TypeCodec<T> {
             return bb;
         }
 
+        @Override
+        public int serializedSize(Long value) {
+            return 8;
+        }
+
+        @Override
+        public void serializeInto(Long value, ByteBuffer output) {
+            output.putLong(value);
+        }
+
         @Override
         public Long deserialize(ByteBuffer bytes) {
             return deserializeNoBoxing(bytes);
@@ -476,6 +696,16 @@ abstract class TypeCodec<T> {
             return value.duplicate();
         }
 
+        @Override
+        public int serializedSize(ByteBuffer value) {
+            return value.remaining();
+        }
+
+        @Override
+        public void serializeInto(ByteBuffer value, ByteBuffer output) {
+            output.put(value.duplicate());
+        }
+
         @Override
         public ByteBuffer deserialize(ByteBuffer bytes) {
             return bytes.duplicate();
@@ -514,6 +744,16 @@ abstract class TypeCodec<T> {
             return value ? TRUE.duplicate() : FALSE.duplicate();
         }
 
+        @Override
+        public int serializedSize(Boolean value) {
+            return 1;
+        }
+
+        @Override
+        public void serializeInto(Boolean value, ByteBuffer output) {
+            output.put((byte)(value ? 1 : 0));
+        }
+
         @Override
         public Boolean deserialize(ByteBuffer bytes) {
             return deserializeNoBoxing(bytes);
@@ -560,6 +800,17 @@ abstract class TypeCodec<T> {
             return bytes;
         }
 
+        @Override
+        public int serializedSize(BigDecimal value) {
+            return 4 + BigIntegerCodec.sizeOf(value.unscaledValue());
+        }
+
+        @Override
+        public void serializeInto(BigDecimal value, ByteBuffer output) {
+            output.putInt(value.scale());
+            output.put(value.unscaledValue().toByteArray());
+        }
+
         @Override
         public BigDecimal deserialize(ByteBuffer bytes) {
             if (bytes.remaining() < 4)
@@ -606,6 +857,16 @@ abstract class TypeCodec<T> {
             return bb;
         }
 
+        @Override
+        public int serializedSize(Double value) {
+            return 8;
+        }
+
+        @Override
+        public void serializeInto(Double value, ByteBuffer output) {
+            output.putDouble(value);
+        }
+
         @Override
         public Double deserialize(ByteBuffer bytes) {
             return deserializeNoBoxing(bytes);
@@ -650,6 +911,16 @@ abstract class TypeCodec<T> {
             return bb;
         }
 
+        @Override
+        public int serializedSize(Float value) {
+            return 4;
+        }
+
+        @Override
+        public void serializeInto(Float value, ByteBuffer output) {
+            output.putFloat(value);
+        }
+
         @Override
         public Float deserialize(ByteBuffer bytes) {
             return deserializeNoBoxing(bytes);
@@ -691,6 +962,16 @@ abstract class TypeCodec<T> {
             return ByteBuffer.wrap(value.getAddress());
         }
 
+        @Override
+        public int serializedSize(InetAddress value) {
+            return value instanceof Inet4Address ? 4 : 16;
+        }
+
+        @Override
+        public void serializeInto(InetAddress value, ByteBuffer output) {
+            output.put(value.getAddress());
+        }
+
         @Override
         public InetAddress deserialize(ByteBuffer bytes) {
             try {
@@ -732,6 +1013,16 @@ abstract class TypeCodec<T> {
             return bb;
         }
 
+        @Override
+        public int serializedSize(Integer value) {
+            return 4;
+        }
+
+        @Override
+        public void serializeInto(Integer value, ByteBuffer output) {
+            output.putInt(value);
+        }
+
         @Override
         public Integer deserialize(ByteBuffer bytes) {
             return deserializeNoBoxing(bytes);
@@ -821,6 +1112,16 @@ abstract class TypeCodec<T> {
             return LongCodec.instance.serializeNoBoxing(value.getTime());
         }
 
+        @Override
+        public int serializedSize(Date value) {
+            return 8;
+        }
+
+        @Override
+        public void serializeInto(Date value, ByteBuffer output) {
+            output.putLong(value.getTime());
+        }
+
         @Override
         public Date deserialize(ByteBuffer bytes) {
             return new Date(LongCodec.instance.deserializeNoBoxing(bytes));
@@ -855,6 +1156,17 @@ abstract class TypeCodec<T> {
             return bb;
         }
 
+        @Override
+        public int serializedSize(UUID value) {
+            return 16;
+        }
+
+        @Override
+        public void serializeInto(UUID value, ByteBuffer output) {
+            output.putLong(value.getMostSignificantBits());
+            output.putLong(value.getLeastSignificantBits());
+        }
+
         @Override
         public UUID deserialize(ByteBuffer bytes) {
             return new UUID(bytes.getLong(bytes.position() + 0), bytes.getLong(bytes.position() + 8));
@@ -909,6 +1221,21 @@ abstract class TypeCodec<T> {
             return ByteBuffer.wrap(value.toByteArray());
         }
 
+        @Override
+        public int serializedSize(BigInteger value) {
+            return sizeOf(value);
+        }
+
+        // The length of value.toByteArray(), which includes at least one sign bit
+        static int sizeOf(BigInteger value) {
+            return value.bitLength() / 8 + 1;
+        }
+
+        @Override
+        public void serializeInto(BigInteger value, ByteBuffer output) {
+            output.put(value.toByteArray());
+        }
+
         @Override
         public BigInteger deserialize(ByteBuffer bytes) {
             return new BigInteger(Bytes.getArray(bytes));
@@ -974,11 +1301,22 @@ abstract class TypeCodec<T> {
 
         @Override
         public ByteBuffer serialize(List<T> value) {
-            List<ByteBuffer> bbs = new ArrayList<ByteBuffer>(value.size());
+            return serializeExactly(value);
+        }
+
+        @Override
+        public int serializedSize(List<T> value) {
+            int size = sizeOfCollectionSize(value.size(), protocolVersion);
             for (T elt : value)
-                bbs.add(eltCodec.serialize(elt));
+                size += sizeOfCollectionValue(eltCodec, elt, protocolVersion);
+            return size;
+        }
 
-            return pack(bbs, value.size(), protocolVersion);
+        @Override
+        public void serializeInto(List<T> value, ByteBuffer output) {
+            writeCollectionSize(output, value.size(), protocolVersion);
+            for (T elt : value)
+                writeCollectionValue(eltCodec, elt, output, protocolVersion);
         }
 
         @Override
@@ -1058,11 +1396,22 @@ abstract class TypeCodec<T> {
 
         @Override
         public ByteBuffer serialize(Set<T> value) {
-            List<ByteBuffer> bbs = new ArrayList<ByteBuffer>(value.size());
+            return serializeExactly(value);
+        }
+
+        @Override
+        public int serializedSize(Set<T> value) {
+            int size = sizeOfCollectionSize(value.size(), protocolVersion);
             for (T elt : value)
-                bbs.add(eltCodec.serialize(elt));
+                size += sizeOfCollectionValue(eltCodec, elt, protocolVersion);
+            return size;
+        }
 
-            return pack(bbs, value.size(), protocolVersion);
+        @Override
+        public void serializeInto(Set<T> value, ByteBuffer output) {
+            writeCollectionSize(output, value.size(), protocolVersion);
+            for (T elt : value)
+                writeCollectionValue(eltCodec, elt, output, protocolVersion);
         }
 
         @Override
@@ -1163,12 +1512,26 @@ abstract class TypeCodec<T> {
 
         @Override
         public ByteBuffer serialize(Map<K, V> value) {
-            List<ByteBuffer> bbs = new ArrayList<ByteBuffer>(2 * value.size());
+            return serializeExactly(value);
+        }
+
+        @Override
+        public int serializedSize(Map<K, V> value) {
+            int size = sizeOfCollectionSize(value.size(), protocolVersion);
+            for (Map.Entry<K, V> entry : value.entrySet()) {
+                size += sizeOfCollectionValue(keyCodec, entry.getKey(), protocolVersion);
+                size += sizeOfCollectionValue(valueCodec, entry.getValue(), protocolVersion);
+            }
+            return size;
+        }
+
+        @Override
+        public void serializeInto(Map<K, V> value, ByteBuffer output) {
+            writeCollectionSize(output, value.size(), protocolVersion);
             for (Map.Entry<K, V> entry : value.entrySet()) {
-                bbs.add(keyCodec.serialize(entry.getKey()));
-                bbs.add(valueCodec.serialize(entry.getValue()));
+                writeCollectionValue(keyCodec, entry.getKey(), output, protocolVersion);
+                writeCollectionValue(valueCodec, entry.getValue(), output, protocolVersion);
             }
-            return pack(bbs, value.size(), protocolVersion);
         }
 
         @Override
@@ -1209,20 +1572,17 @@ abstract class TypeCodec<T> {
 
         @Override
         public ByteBuffer serialize(UDTValue value) {
-            int size = 0;
-            for (ByteBuffer v : value.values)
-                size += 4 + (v == null ? 0 : v.remaining());
-
-            ByteBuffer result = ByteBuffer.allocate(size);
-            for (ByteBuffer bb : value.values) {
-                if (bb == null) {
-                    result.putInt(-1);
-                } else {
-                    result.putInt(bb.remaining());
-                    result.put(bb.duplicate());
-                }
-            }
-            return (ByteBuffer)result.flip();
+            return serializeExactly(value);
+        }
+
+        @Override
+        public int serializedSize(UDTValue value) {
+            return sizeOfFields(value.values);
+        }
+
+        @Override
+        public void serializeInto(UDTValue value, ByteBuffer output) {
+            writeFields(value.values, output);
         }
 
         @Override
@@ -1293,20 +1653,17 @@ abstract class TypeCodec<T> {
 
         @Override
         public ByteBuffer serialize(TupleValue value) {
-            int size = 0;
-            for (ByteBuffer v : value.values)
-                size += 4 + (v == null ? 0 : v.remaining());
-
-            ByteBuffer result = ByteBuffer.allocate(size);
-            for (ByteBuffer bb : value.values) {
-                if (bb == null) {
-                    result.putInt(-1);
-                } else {
-                    result.putInt(bb.remaining());
-                    result.put(bb.duplicate());
-                }
-            }
-            return (ByteBuffer)result.flip();
+            return serializeExactly(value);
+        }
+
+        @Override
+        public int serializedSize(TupleValue value) {
+            return sizeOfFields(value.values);
+        }
+
+        @Override
+        public void serializeInto(TupleValue value, ByteBuffer output) {
+            writeFields(value.values, output);
         }
 
         @Override
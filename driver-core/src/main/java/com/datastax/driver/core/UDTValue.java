@@ -36,6 +36,11 @@ public class UDTValue extends AbstractData<UDTValue> {
         return definition.byIdx[i].getName();
     }
 
+    @Override
+    protected CodecRegistry getCodecRegistry() {
+        return definition.codecRegistry;
+    }
+
     protected int[] getAllIndexesOf(String name) {
         int[] indexes = definition.byName.get(Metadata.handleId(name));
         if (indexes == null)
@@ -46,6 +46,10 @@ public class UserType extends DataType implements Iterable<UserType.Field>{
     // implementation.
     final Map<String, int[]> byName;
 
+    private TypeCodec<Object> codec;
+    // The registry of the values of this type, set when the type is obtained from a cluster (see CodecRegistry#attachTo)
+    volatile CodecRegistry codecRegistry = CodecRegistry.DEFAULT_INSTANCE;
+
     UserType(String keyspace, String typeName, Collection<Field> fields) {
         super(DataType.Name.UDT);
 
@@ -76,7 +80,13 @@ public class UserType extends DataType implements Iterable<UserType.Field>{
     @SuppressWarnings("unchecked")
     @Override
     TypeCodec<Object> codec(ProtocolVersion protocolVersion) {
-        return (TypeCodec)TypeCodec.udtOf(this);
+        // The codec doesn't depend on the protocol version. It is immutable, so racing to build it is harmless
+        TypeCodec<Object> codec = this.codec;
+        if (codec == null) {
+            codec = (TypeCodec)TypeCodec.udtOf(this);
+            this.codec = codec;
+        }
+        return codec;
     }
 
     /**
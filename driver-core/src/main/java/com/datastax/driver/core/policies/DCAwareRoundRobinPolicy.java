@@ -27,7 +27,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import com.google.common.base.Joiner;
 import com.google.common.base.Strings;
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -52,6 +52,10 @@ import com.datastax.driver.core.Statement;
  * {@code LoadBalancingPolicy.RoundRobin} policy, but its DC awareness
  * incurs a slight overhead so the {@code LoadBalancingPolicy.RoundRobin}
  * policy could be preferred to this policy in that case.
+ * <p>
+ * Query plans are built from an immutable snapshot of the live hosts, which
+ * is recomputed each time a host is added, removed, or changes state. Building
+ * a query plan thus only allocates the returned iterator.
  */
 public class DCAwareRoundRobinPolicy implements LoadBalancingPolicy, CloseableLoadBalancingPolicy {
 
@@ -62,6 +66,9 @@ public class DCAwareRoundRobinPolicy implements LoadBalancingPolicy, CloseableLo
     private final ConcurrentMap<String, CopyOnWriteArrayList<Host>> perDcLiveHosts = new ConcurrentHashMap<String, CopyOnWriteArrayList<Host>>();
     private final AtomicInteger index = new AtomicInteger();
 
+    // Immutable view of perDcLiveHosts, rebuilt every time it changes
+    private volatile Topology topology = Topology.EMPTY;
+
     @VisibleForTesting
     volatile String localDc;
 
@@ -206,6 +213,7 @@ public class DCAwareRoundRobinPolicy implements LoadBalancingPolicy, CloseableLo
             else
                 prev.addIfAbsent(host);
         }
+        updateTopology();
 
         if (notInLocalDC.size() > 0) {
             String nonLocalHosts = Joiner.on(",").join(notInLocalDC);
@@ -218,9 +226,28 @@ public class DCAwareRoundRobinPolicy implements LoadBalancingPolicy, CloseableLo
         return dc == null ? localDc : dc;
     }
 
-    @SuppressWarnings("unchecked")
-    private static CopyOnWriteArrayList<Host> cloneList(CopyOnWriteArrayList<Host> list) {
-        return (CopyOnWriteArrayList<Host>)list.clone();
+    // Synchronized so that concurrent updates can't publish their snapshots out of order
+    private synchronized void updateTopology() {
+        String localDc = this.localDc;
+
+        CopyOnWriteArrayList<Host> localLiveHosts = perDcLiveHosts.get(localDc);
+        Host[] local = localLiveHosts == null ? Topology.NO_HOSTS : localLiveHosts.toArray(Topology.NO_HOSTS);
+
+        List<Host[]> remote = new ArrayList<Host[]>();
+        ImmutableSet.Builder<Host> usedRemote = ImmutableSet.builder();
+        if (usedHostsPerRemoteDc > 0) {
+            for (Map.Entry<String, CopyOnWriteArrayList<Host>> entry : perDcLiveHosts.entrySet()) {
+                if (entry.getKey().equals(localDc))
+                    continue;
+                Host[] dcHosts = entry.getValue().toArray(Topology.NO_HOSTS);
+                if (dcHosts.length == 0)
+                    continue;
+                Host[] usedHosts = Arrays.copyOf(dcHosts, Math.min(dcHosts.length, usedHostsPerRemoteDc));
+                remote.add(usedHosts);
+                usedRemote.add(usedHosts);
+            }
+        }
+        topology = new Topology(local, remote.toArray(new Host[remote.size()][]), usedRemote.build());
     }
 
     /**
@@ -242,13 +269,7 @@ public class DCAwareRoundRobinPolicy implements LoadBalancingPolicy, CloseableLo
         if (dc == UNSET || dc.equals(localDc))
             return HostDistance.LOCAL;
 
-        CopyOnWriteArrayList<Host> dcHosts = perDcLiveHosts.get(dc);
-        if (dcHosts == null || usedHostsPerRemoteDc == 0)
-            return HostDistance.IGNORED;
-
-        // We need to clone, otherwise our subList call is not thread safe
-        dcHosts = cloneList(dcHosts);
-        return dcHosts.subList(0, Math.min(dcHosts.size(), usedHostsPerRemoteDc)).contains(host)
+        return topology.usedRemote.contains(host)
              ? HostDistance.REMOTE
              : HostDistance.IGNORED;
     }
@@ -270,70 +291,87 @@ public class DCAwareRoundRobinPolicy implements LoadBalancingPolicy, CloseableLo
      */
     @Override
     public Iterator<Host> newQueryPlan(String loggedKeyspace, final Statement statement) {
+        int startIdx = index.getAndIncrement();
 
-        CopyOnWriteArrayList<Host> localLiveHosts = perDcLiveHosts.get(localDc);
-        final List<Host> hosts = localLiveHosts == null ? Collections.<Host>emptyList() : cloneList(localLiveHosts);
-        final int startIdx = index.getAndIncrement();
-
-        return new AbstractIterator<Host>() {
-
-            private int idx = startIdx;
-            private int remainingLocal = hosts.size();
-
-            // For remote Dcs
-            private Iterator<String> remoteDcs;
-            private List<Host> currentDcHosts;
-            private int currentDcRemaining;
-
-            @Override
-            protected Host computeNext() {
-                while (true) {
-                    if (remainingLocal > 0) {
-                        remainingLocal--;
-                        int c = idx++ % hosts.size();
-                        if (c < 0) {
-                            c += hosts.size();
-                        }
-                        return hosts.get(c);
-                    }
-
-                    if (currentDcHosts != null && currentDcRemaining > 0) {
-                        currentDcRemaining--;
-                        int c = idx++ % currentDcHosts.size();
-                        if (c < 0) {
-                            c += currentDcHosts.size();
-                        }
-                        return currentDcHosts.get(c);
-                    }
-
-                    ConsistencyLevel cl = statement.getConsistencyLevel() == null
-                        ? configuration.getQueryOptions().getConsistencyLevel()
-                        : statement.getConsistencyLevel();
-
-                    if (dontHopForLocalCL && cl.isDCLocal())
-                        return endOfData();
-
-                    if (remoteDcs == null) {
-                        Set<String> copy = new HashSet<String>(perDcLiveHosts.keySet());
-                        copy.remove(localDc);
-                        remoteDcs = copy.iterator();
-                    }
-
-                    if (!remoteDcs.hasNext())
-                        break;
-
-                    String nextRemoteDc = remoteDcs.next();
-                    CopyOnWriteArrayList<Host> nextDcHosts = perDcLiveHosts.get(nextRemoteDc);
-                    if (nextDcHosts != null) {
-                        // Clone for thread safety
-                        List<Host> dcHosts = cloneList(nextDcHosts);
-                        currentDcHosts = dcHosts.subList(0, Math.min(dcHosts.size(), usedHostsPerRemoteDc));
-                        currentDcRemaining = currentDcHosts.size();
-                    }
-                }
-                return endOfData();
+        // Overflow protection; not theoretically thread safe but should be good enough
+        if (startIdx > Integer.MAX_VALUE - 10000)
+            index.set(0);
+
+        return new QueryPlan(topology, startIdx, statement);
+    }
+
+    /**
+     * Iterates over a topology snapshot: all the local hosts, then (if the consistency level allows it)
+     * the used hosts of each remote DC. Hosts are rotated within each DC, starting at {@code startIdx}.
+     */
+    private class QueryPlan implements Iterator<Host> {
+
+        private final Topology topology;
+        private final int startIdx;
+        private final Statement statement;
+
+        // The DC we're currently iterating on: -1 for the local DC, otherwise an index in topology.remote.
+        private int dcIdx = -1;
+        private Host[] currentDcHosts;
+        private int currentDcPosition;
+
+        QueryPlan(Topology topology, int startIdx, Statement statement) {
+            this.topology = topology;
+            this.startIdx = startIdx;
+            this.statement = statement;
+            this.currentDcHosts = topology.local;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (currentDcPosition >= currentDcHosts.length) {
+                if (dcIdx == -1 && (topology.remote.length == 0 || !canHopToRemoteDc()))
+                    return false;
+                if (++dcIdx >= topology.remote.length)
+                    return false;
+                currentDcHosts = topology.remote[dcIdx];
+                currentDcPosition = 0;
             }
-        };
+            return true;
+        }
+
+        @Override
+        public Host next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            int c = (startIdx + currentDcPosition++) % currentDcHosts.length;
+            if (c < 0)
+                c += currentDcHosts.length;
+            return currentDcHosts[c];
+        }
+
+        private boolean canHopToRemoteDc() {
+            ConsistencyLevel cl = statement.getConsistencyLevel() == null
+                ? configuration.getQueryOptions().getConsistencyLevel()
+                : statement.getConsistencyLevel();
+            return !(dontHopForLocalCL && cl.isDCLocal());
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static class Topology {
+        static final Host[] NO_HOSTS = new Host[0];
+        static final Topology EMPTY = new Topology(NO_HOSTS, new Host[0][], ImmutableSet.<Host>of());
+
+        final Host[] local;
+        final Host[][] remote;
+        // All the hosts in remote, for fast distance lookups
+        final Set<Host> usedRemote;
+
+        Topology(Host[] local, Host[][] remote, Set<Host> usedRemote) {
+            this.local = local;
+            this.remote = remote;
+            this.usedRemote = usedRemote;
+        }
     }
 
     @Override
@@ -351,10 +389,13 @@ public class DCAwareRoundRobinPolicy implements LoadBalancingPolicy, CloseableLo
             CopyOnWriteArrayList<Host> newMap = new CopyOnWriteArrayList<Host>(Collections.singletonList(host));
             dcHosts = perDcLiveHosts.putIfAbsent(dc, newMap);
             // If we've successfully put our new host, we're good, otherwise we've been beaten so continue
-            if (dcHosts == null)
+            if (dcHosts == null) {
+                updateTopology();
                 return;
+            }
         }
         dcHosts.addIfAbsent(host);
+        updateTopology();
     }
 
     @Override
@@ -364,8 +405,8 @@ public class DCAwareRoundRobinPolicy implements LoadBalancingPolicy, CloseableLo
     @Override
     public void onDown(Host host) {
         CopyOnWriteArrayList<Host> dcHosts = perDcLiveHosts.get(dc(host));
-        if (dcHosts != null)
-            dcHosts.remove(host);
+        if (dcHosts != null && dcHosts.remove(host))
+            updateTopology();
     }
 
     @Override
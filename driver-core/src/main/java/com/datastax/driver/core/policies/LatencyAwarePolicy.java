@@ -378,7 +378,7 @@ public class LatencyAwarePolicy implements ChainableLoadBalancingPolicy, Closeab
      * coordination work. Such errors are not good indicators of the host's responsiveness,
      * and tend to make the host's score look better than it actually is.
      */
-    private static final Set<Class<? extends DriverException>> EXCLUDED_EXCEPTIONS = ImmutableSet.of(
+    static final Set<Class<? extends DriverException>> EXCLUDED_EXCEPTIONS = ImmutableSet.of(
         UnavailableException.class, // this is done via the snitch and is usually very fast
         OverloadedException.class,
         BootstrappingException.class,
@@ -0,0 +1,178 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core.policies;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Random;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import com.datastax.driver.core.*;
+
+/**
+ * A wrapper load balancing policy that orders the hosts of a child policy
+ * according to their current number of outstanding requests.
+ * <p>
+ * This policy encapsulates another policy. The resulting policy works in
+ * the following way:
+ * <ul>
+ *   <li>the {@code distance} method is inherited from the child policy.</li>
+ *   <li>the iterator returned by the {@code newQueryPlan} method reorders the
+ *   {@code LOCAL} hosts returned first by the child policy so that the least
+ *   loaded ones (as reported by {@link Host#getInFlightQueries()}) are tried
+ *   first. The rest of the child query plan is returned untouched.</li>
+ * </ul>
+ * <p>
+ * Hosts are not strictly sorted by load: every position of the query plan is
+ * filled using the "power of two choices" algorithm, i.e. two candidates are
+ * picked at random and the one with the fewest outstanding requests wins. This
+ * avoids having every client rush to the single least loaded host, while still
+ * ensuring that the most loaded host is never tried first.
+ * <p>
+ * Contrarily to {@link LatencyAwarePolicy}, which bases its decisions on averaged
+ * latencies that are only updated when requests complete, the number of
+ * outstanding requests is read in real time: a replica that becomes slow or
+ * overloaded accumulates requests and is avoided immediately.
+ * <p>
+ * This policy is designed to wrap {@link TokenAwarePolicy}: if the statement has
+ * a routing key, the local replicas returned first by the child policy are
+ * reordered among themselves, and still returned before the non-replica hosts.
+ * For instance:
+ * <pre>
+ *     new LeastOutstandingRequestsPolicy(new TokenAwarePolicy(new DCAwareRoundRobinPolicy("dc1")))
+ * </pre>
+ * Note that the number of outstanding requests is the one seen by this client
+ * only; it does not account for the load generated by other clients.
+ */
+public class LeastOutstandingRequestsPolicy implements ChainableLoadBalancingPolicy, CloseableLoadBalancingPolicy {
+
+    private static final ThreadLocal<Random> RANDOM = new ThreadLocal<Random>() {
+        @Override
+        protected Random initialValue() {
+            return new Random();
+        }
+    };
+
+    private final LoadBalancingPolicy childPolicy;
+    private volatile Metadata clusterMetadata;
+
+    /**
+     * Creates a new {@code LeastOutstandingRequestsPolicy}.
+     *
+     * @param childPolicy the load balancing policy to wrap.
+     */
+    public LeastOutstandingRequestsPolicy(LoadBalancingPolicy childPolicy) {
+        this.childPolicy = childPolicy;
+    }
+
+    @Override
+    public LoadBalancingPolicy getChildPolicy() {
+        return childPolicy;
+    }
+
+    @Override
+    public void init(Cluster cluster, Collection<Host> hosts) {
+        clusterMetadata = cluster.getMetadata();
+        childPolicy.init(cluster, hosts);
+    }
+
+    /**
+     * Return the HostDistance for the provided host.
+     *
+     * @param host the host of which to return the distance of.
+     * @return the HostDistance to {@code host} as returned by the wrapped policy.
+     */
+    @Override
+    public HostDistance distance(Host host) {
+        return childPolicy.distance(host);
+    }
+
+    /**
+     * Returns the hosts to use for a new query.
+     * <p>
+     * The returned plan contains the same hosts as the plan of the child
+     * policy, but the {@code LOCAL} hosts at the beginning of that plan are
+     * reordered by their number of outstanding requests (if the statement has
+     * a routing key, the replicas at the beginning of the plan are reordered
+     * separately from the other hosts, and still come first).
+     *
+     * @param loggedKeyspace the currently logged keyspace.
+     * @param statement the statement for which to build the plan.
+     * @return the new query plan.
+     */
+    @Override
+    public Iterator<Host> newQueryPlan(String loggedKeyspace, Statement statement) {
+        LocalPlanPrefix prefix = LocalPlanPrefix.read(childPolicy, clusterMetadata, loggedKeyspace, statement);
+        Random random = RANDOM.get();
+        order(prefix.hosts, 0, prefix.replicaCount, random);
+        order(prefix.hosts, prefix.replicaCount, prefix.hosts.length, random);
+        return prefix.iterator();
+    }
+
+    /**
+     * Reorders {@code hosts[from, to)} in place, choosing each position with
+     * the "power of two choices" algorithm.
+     */
+    @VisibleForTesting
+    static void order(Host[] hosts, int from, int to, Random random) {
+        for (int i = from; i < to - 1; i++) {
+            int remaining = to - i;
+            int a = i + random.nextInt(remaining);
+            int b = i + random.nextInt(remaining - 1);
+            if (b >= a)
+                b++;
+
+            int best = hosts[b].getInFlightQueries() < hosts[a].getInFlightQueries() ? b : a;
+            if (best != i) {
+                Host tmp = hosts[i];
+                hosts[i] = hosts[best];
+                hosts[best] = tmp;
+            }
+        }
+    }
+
+    @Override
+    public void onUp(Host host) {
+        childPolicy.onUp(host);
+    }
+
+    @Override
+    public void onSuspected(Host host) {
+        childPolicy.onSuspected(host);
+    }
+
+    @Override
+    public void onDown(Host host) {
+        childPolicy.onDown(host);
+    }
+
+    @Override
+    public void onAdd(Host host) {
+        childPolicy.onAdd(host);
+    }
+
+    @Override
+    public void onRemove(Host host) {
+        childPolicy.onRemove(host);
+    }
+
+    @Override
+    public void close() {
+        if (childPolicy instanceof CloseableLoadBalancingPolicy)
+            ((CloseableLoadBalancingPolicy)childPolicy).close();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core.policies;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import com.google.common.collect.AbstractIterator;
+
+import com.datastax.driver.core.*;
+
+/**
+ * The {@code LOCAL} hosts at the beginning of a child policy's query plan, for
+ * wrapping policies that reorder them.
+ * <p>
+ * If the statement has a routing key, the hosts are split in two groups:
+ * the replicas at the beginning of the prefix (typically returned by a
+ * {@link TokenAwarePolicy}), and the other hosts. Wrapping policies reorder
+ * each group separately, so that replicas still come first.
+ */
+class LocalPlanPrefix {
+
+    /** The local hosts, can be reordered in place. The first {@link #replicaCount} ones are replicas. */
+    final Host[] hosts;
+    final int replicaCount;
+
+    private final Host firstNonLocal;
+    private final Iterator<Host> rest;
+
+    private LocalPlanPrefix(Host[] hosts, int replicaCount, Host firstNonLocal, Iterator<Host> rest) {
+        this.hosts = hosts;
+        this.replicaCount = replicaCount;
+        this.firstNonLocal = firstNonLocal;
+        this.rest = rest;
+    }
+
+    /**
+     * Reads the local prefix of a child query plan.
+     *
+     * @param clusterMetadata the metadata used to find the replicas, or {@code null} to never split the
+     *                        hosts in groups.
+     */
+    static LocalPlanPrefix read(LoadBalancingPolicy childPolicy, Metadata clusterMetadata, String loggedKeyspace, Statement statement) {
+        Iterator<Host> childIterator = childPolicy.newQueryPlan(loggedKeyspace, statement);
+
+        List<Host> local = new ArrayList<Host>();
+        Host firstNonLocal = null;
+        while (childIterator.hasNext()) {
+            Host host = childIterator.next();
+            if (childPolicy.distance(host) != HostDistance.LOCAL) {
+                firstNonLocal = host;
+                break;
+            }
+            local.add(host);
+        }
+
+        Host[] hosts = local.toArray(new Host[local.size()]);
+        return new LocalPlanPrefix(hosts, countLeadingReplicas(hosts, clusterMetadata, loggedKeyspace, statement),
+            firstNonLocal, childIterator);
+    }
+
+    private static int countLeadingReplicas(Host[] hosts, Metadata clusterMetadata, String loggedKeyspace, Statement statement) {
+        if (hosts.length == 0 || clusterMetadata == null)
+            return 0;
+
+        ByteBuffer partitionKey = statement.getRoutingKey();
+        String keyspace = statement.getKeyspace();
+        if (keyspace == null)
+            keyspace = loggedKeyspace;
+
+        if (partitionKey == null || keyspace == null)
+            return 0;
+
+        Set<Host> replicas = clusterMetadata.getReplicas(Metadata.quote(keyspace), partitionKey);
+        int count = 0;
+        while (count < hosts.length && replicas.contains(hosts[count]))
+            count++;
+        return count;
+    }
+
+    /**
+     * Returns the query plan: the local hosts (in their current order), followed
+     * by the rest of the child query plan.
+     */
+    Iterator<Host> iterator() {
+        return new AbstractIterator<Host>() {
+
+            private int idx;
+            private boolean firstNonLocalReturned = firstNonLocal == null;
+
+            @Override
+            protected Host computeNext() {
+                if (idx < hosts.length)
+                    return hosts[idx++];
+
+                if (!firstNonLocalReturned) {
+                    firstNonLocalReturned = true;
+                    return firstNonLocal;
+                }
+
+                return rest.hasNext() ? rest.next() : endOfData();
+            }
+        };
+    }
+}
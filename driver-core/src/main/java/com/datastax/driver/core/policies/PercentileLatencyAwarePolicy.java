@@ -0,0 +1,553 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core.policies;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.datastax.driver.core.*;
+
+/**
+ * A wrapper load balancing policy that adds latency awareness to a child policy,
+ * based on a percentile of the latencies of each host.
+ * <p>
+ * This policy works like {@link LatencyAwarePolicy}: hosts whose latency score is
+ * more than {@code exclusionThreshold} times the score of the fastest host are
+ * moved to the end of the query plans of the child policy. The difference lies in
+ * how the score is computed: instead of an exponential moving average, the score
+ * of a host is the latency at a configurable percentile (for example the 99th),
+ * which better reflects the tail latency that an application actually suffers.
+ * <p>
+ * Latencies are recorded with <a href="http://hdrhistogram.github.io/HdrHistogram/">HdrHistogram</a>,
+ * which is an optional dependency of the driver: it must be present in the
+ * classpath to use this class. To avoid contention between the threads that
+ * report latencies, each host has a fixed number of recorders ("stripes"), and each
+ * thread always records into the same stripe. Recording a latency does not
+ * allocate, and does not require any compare-and-set loop. At a fixed rate
+ * (the update rate), a background thread collects the values recorded since the
+ * previous update; once at least {@code minMeasure} values have been collected for
+ * a host, its score is recomputed from them and the collected values are discarded.
+ * <p>
+ * Note that each stripe holds a few histograms, the size of which depends on
+ * the highest trackable latency and the number of significant digits; the memory
+ * used by this policy is thus proportional to
+ * {@code number of hosts * number of stripes}.
+ * <p>
+ * Please see the {@link Builder} class and methods for more details on the
+ * possible parameters of this policy.
+ * <p>
+ * <b>This class is currently provided as a beta preview: it hasn't been extensively tested yet, and the API is still subject
+ * to change.</b>
+ */
+@Beta
+public class PercentileLatencyAwarePolicy implements ChainableLoadBalancingPolicy, CloseableLoadBalancingPolicy {
+
+    private static final Logger logger = LoggerFactory.getLogger(PercentileLatencyAwarePolicy.class);
+
+    private final LoadBalancingPolicy childPolicy;
+    @VisibleForTesting
+    final Tracker latencyTracker;
+    private final ScheduledExecutorService updaterService = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setNameFormat("PercentileLatencyAwarePolicy updater").build());
+
+    private final double exclusionThreshold;
+    private final double percentile;
+    private final long retryPeriod;
+    private final int minMeasure;
+    private final long highestTrackableLatencyMicros;
+    private final int numberOfSignificantValueDigits;
+    private final int stripeMask;
+
+    private PercentileLatencyAwarePolicy(LoadBalancingPolicy childPolicy,
+                                         double exclusionThreshold,
+                                         double percentile,
+                                         long retryPeriod,
+                                         long updateRate,
+                                         int minMeasure,
+                                         long highestTrackableLatencyMicros,
+                                         int numberOfSignificantValueDigits,
+                                         int stripes) {
+        this.childPolicy = childPolicy;
+        this.exclusionThreshold = exclusionThreshold;
+        this.percentile = percentile;
+        this.retryPeriod = retryPeriod;
+        this.minMeasure = minMeasure;
+        this.highestTrackableLatencyMicros = highestTrackableLatencyMicros;
+        this.numberOfSignificantValueDigits = numberOfSignificantValueDigits;
+        this.stripeMask = stripes - 1;
+        this.latencyTracker = new Tracker();
+
+        updaterService.scheduleAtFixedRate(new Updater(), updateRate, updateRate, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Creates a new percentile latency aware policy builder given the child
+     * policy that the resulting policy should wrap.
+     *
+     * @param childPolicy the load balancing policy to wrap with latency
+     * awareness.
+     * @return the created builder.
+     */
+    public static Builder builder(LoadBalancingPolicy childPolicy) {
+        return new Builder(childPolicy);
+    }
+
+    @Override
+    public LoadBalancingPolicy getChildPolicy() {
+        return childPolicy;
+    }
+
+    @Override
+    public void init(Cluster cluster, Collection<Host> hosts) {
+        childPolicy.init(cluster, hosts);
+        cluster.register(latencyTracker);
+    }
+
+    /**
+     * Returns the HostDistance for the provided host.
+     *
+     * @param host the host of which to return the distance of.
+     * @return the HostDistance to {@code host} as returned by the wrapped policy.
+     */
+    @Override
+    public HostDistance distance(Host host) {
+        return childPolicy.distance(host);
+    }
+
+    /**
+     * Returns the hosts to use for a new query.
+     * <p>
+     * The returned plan will be the same as the plan generated by the
+     * child policy, but with the (initial) exclusion of hosts whose latency
+     * score is more than {@code exclusionThreshold * minScore} (where
+     * {@code minScore} is the score of the fastest host).
+     * <p>
+     * The hosts that are initially excluded due to their latency will be returned
+     * by this iterator, but only only after all non-excluded hosts of the
+     * child policy have been returned.
+     *
+     * @param loggedKeyspace the currently logged keyspace.
+     * @param statement the statement for which to build the plan.
+     * @return the new query plan.
+     */
+    @Override
+    public Iterator<Host> newQueryPlan(String loggedKeyspace, Statement statement) {
+        final Iterator<Host> childIter = childPolicy.newQueryPlan(loggedKeyspace, statement);
+        return new AbstractIterator<Host>() {
+
+            private Queue<Host> skipped;
+
+            @Override
+            protected Host computeNext() {
+                long min = latencyTracker.minScore;
+                long now = System.nanoTime();
+                while (childIter.hasNext()) {
+                    Host host = childIter.next();
+                    HostRecorders recorders = latencyTracker.recorders.get(host);
+
+                    // If we don't have a score for this host yet, or the last update of the score is just
+                    // too old, include the host.
+                    if (min < 0 || recorders == null || recorders.score < 0 || (now - recorders.lastUpdate) > retryPeriod)
+                        return host;
+
+                    if (recorders.score <= ((long)(exclusionThreshold * (double)min)))
+                        return host;
+
+                    if (skipped == null)
+                        skipped = new ArrayDeque<Host>();
+                    skipped.offer(host);
+                }
+
+                if (skipped != null && !skipped.isEmpty())
+                    return skipped.poll();
+
+                return endOfData();
+            }
+        };
+    }
+
+    /**
+     * Returns a snapshot of the scores maintained by this policy.
+     *
+     * @return an immutable map containing, for each host that has a score, the
+     * latency (in nanoseconds) at the configured percentile.
+     */
+    public Map<Host, Long> getScoresSnapshot() {
+        ImmutableMap.Builder<Host, Long> builder = ImmutableMap.builder();
+        for (Map.Entry<Host, HostRecorders> entry : latencyTracker.recorders.entrySet()) {
+            long score = entry.getValue().score;
+            if (score >= 0)
+                builder.put(entry.getKey(), TimeUnit.MICROSECONDS.toNanos(score));
+        }
+        return builder.build();
+    }
+
+    @Override
+    public void onUp(Host host) {
+        childPolicy.onUp(host);
+    }
+
+    @Override
+    public void onSuspected(Host host) {
+        childPolicy.onSuspected(host);
+    }
+
+    @Override
+    public void onDown(Host host) {
+        childPolicy.onDown(host);
+        latencyTracker.resetHost(host);
+    }
+
+    @Override
+    public void onAdd(Host host) {
+        childPolicy.onAdd(host);
+    }
+
+    @Override
+    public void onRemove(Host host) {
+        childPolicy.onRemove(host);
+        latencyTracker.resetHost(host);
+    }
+
+    @Override
+    public void close() {
+        if (childPolicy instanceof CloseableLoadBalancingPolicy)
+            ((CloseableLoadBalancingPolicy)childPolicy).close();
+        updaterService.shutdown();
+    }
+
+    @VisibleForTesting
+    class Updater implements Runnable {
+        @Override
+        public void run() {
+            try {
+                logger.trace("Updating PercentileLatencyAwarePolicy scores");
+                latencyTracker.updateScores();
+            } catch (RuntimeException e) {
+                // An unexpected exception would suppress further execution, so catch, log, but swallow after that.
+                logger.error("Error while updating PercentileLatencyAwarePolicy scores", e);
+            }
+        }
+    }
+
+    @VisibleForTesting
+    class Tracker implements LatencyTracker {
+
+        private final ConcurrentMap<Host, HostRecorders> recorders = new ConcurrentHashMap<Host, HostRecorders>();
+        private volatile long minScore = -1L;
+
+        @Override
+        public void update(Host host, Statement statement, Exception exception, long newLatencyNanos) {
+            if (exception != null && LatencyAwarePolicy.EXCLUDED_EXCEPTIONS.contains(exception.getClass()))
+                return;
+
+            HostRecorders hostRecorders = recorders.get(host);
+            if (hostRecorders == null) {
+                hostRecorders = new HostRecorders();
+                HostRecorders old = recorders.putIfAbsent(host, hostRecorders);
+                if (old != null)
+                    hostRecorders = old;
+            }
+            hostRecorders.record(newLatencyNanos);
+        }
+
+        // Only called from the updater thread
+        void updateScores() {
+            long now = System.nanoTime();
+            long newMin = Long.MAX_VALUE;
+            for (HostRecorders hostRecorders : recorders.values()) {
+                hostRecorders.collect(now);
+                long score = hostRecorders.score;
+                if (score >= 0 && (now - hostRecorders.lastUpdate) <= retryPeriod)
+                    newMin = Math.min(newMin, score);
+            }
+            if (newMin != Long.MAX_VALUE)
+                minScore = newMin;
+        }
+
+        void resetHost(Host host) {
+            recorders.remove(host);
+        }
+    }
+
+    private class HostRecorders {
+
+        private final Recorder[] stripes;
+
+        // Only accessed by the updater thread
+        private final Histogram[] recycled;
+        private final Histogram window;
+
+        // in microseconds, -1 if not enough values have been recorded yet
+        volatile long score = -1L;
+        volatile long lastUpdate;
+
+        HostRecorders() {
+            this.stripes = new Recorder[stripeMask + 1];
+            this.recycled = new Histogram[stripes.length];
+            for (int i = 0; i < stripes.length; i++)
+                stripes[i] = new Recorder(highestTrackableLatencyMicros, numberOfSignificantValueDigits);
+            this.window = new Histogram(highestTrackableLatencyMicros, numberOfSignificantValueDigits);
+        }
+
+        void record(long latencyNanos) {
+            // Values over the highest trackable value would throw, just record them as the maximum
+            long latencyMicros = Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), highestTrackableLatencyMicros);
+            int stripe = (int)Thread.currentThread().getId() & stripeMask;
+            stripes[stripe].recordValue(latencyMicros);
+        }
+
+        void collect(long now) {
+            for (int i = 0; i < stripes.length; i++) {
+                Histogram interval = stripes[i].getIntervalHistogram(recycled[i]);
+                window.add(interval);
+                recycled[i] = interval;
+            }
+            if (window.getTotalCount() >= minMeasure) {
+                score = window.getValueAtPercentile(percentile);
+                lastUpdate = now;
+                window.reset();
+            }
+        }
+    }
+
+    /**
+     * Helper builder object to create a percentile latency aware policy.
+     * <p>
+     * The only mandatory parameter is the child policy that will be wrapped
+     * with latency awareness. The other parameters can be set through the
+     * methods of this builder, but all have defaults (that are documented in
+     * the javadoc of each method) if you don't.
+     */
+    public static class Builder {
+
+        private static final double DEFAULT_EXCLUSION_THRESHOLD = 2.0;
+        private static final double DEFAULT_PERCENTILE = 99.0;
+        private static final long DEFAULT_RETRY_PERIOD = TimeUnit.SECONDS.toNanos(10);
+        private static final long DEFAULT_UPDATE_RATE = TimeUnit.MILLISECONDS.toNanos(100);
+        private static final int DEFAULT_MIN_MEASURE = 50;
+        private static final long DEFAULT_HIGHEST_TRACKABLE_LATENCY = TimeUnit.SECONDS.toMicros(15);
+        private static final int DEFAULT_SIGNIFICANT_DIGITS = 2;
+
+        private final LoadBalancingPolicy childPolicy;
+
+        private double exclusionThreshold = DEFAULT_EXCLUSION_THRESHOLD;
+        private double percentile = DEFAULT_PERCENTILE;
+        private long retryPeriod = DEFAULT_RETRY_PERIOD;
+        private long updateRate = DEFAULT_UPDATE_RATE;
+        private int minMeasure = DEFAULT_MIN_MEASURE;
+        private long highestTrackableLatency = DEFAULT_HIGHEST_TRACKABLE_LATENCY;
+        private int numberOfSignificantValueDigits = DEFAULT_SIGNIFICANT_DIGITS;
+        private int stripes = Math.min(8, Runtime.getRuntime().availableProcessors());
+
+        /**
+         * Creates a new percentile latency aware policy builder given the child
+         * policy that the resulting policy wraps.
+         *
+         * @param childPolicy the load balancing policy to wrap with latency
+         * awareness.
+         */
+        public Builder(LoadBalancingPolicy childPolicy) {
+            this.childPolicy = childPolicy;
+        }
+
+        /**
+         * Sets the exclusion threshold to use for the resulting policy.
+         * <p>
+         * The default exclusion threshold (if this method is not called) is <b>2</b>.
+         * In other words, the resulting policy excludes nodes whose score is more
+         * than twice the score of the fastest node.
+         *
+         * @param exclusionThreshold the exclusion threshold to use. Must be
+         * greater or equal to 1.
+         * @return this builder.
+         *
+         * @throws IllegalArgumentException if {@code exclusionThreshold &lt; 1}.
+         */
+        public Builder withExclusionThreshold(double exclusionThreshold) {
+            checkArgument(exclusionThreshold >= 1d,
+                "Invalid exclusion threshold, must be greater than 1 (was %s)", exclusionThreshold);
+            this.exclusionThreshold = exclusionThreshold;
+            return this;
+        }
+
+        /**
+         * Sets the percentile used to compute the score of each host.
+         * <p>
+         * The default (if this method is not called) is the <b>99th</b> percentile.
+         *
+         * @param percentile the percentile (for example, {@code 99.0} for the 99th percentile).
+         * @return this builder.
+         *
+         * @throws IllegalArgumentException if {@code percentile} is not in [0, 100[.
+         */
+        public Builder withPercentile(double percentile) {
+            checkArgument(percentile >= 0.0 && percentile < 100,
+                "percentile must be between 0.0 and 100 (was %s)", percentile);
+            this.percentile = percentile;
+            return this;
+        }
+
+        /**
+         * Sets the retry period for the resulting policy.
+         * <p>
+         * The retry period defines how long a node may be penalized by the
+         * policy before it is given a 2nd chance: a node is only excluded if its
+         * score has been updated since less than {@code retryPeriod}.
+         * <p>
+         * The default retry period (if this method is not called) is <b>10 seconds</b>.
+         *
+         * @param retryPeriod the retry period to use.
+         * @param unit the unit for {@code retryPeriod}.
+         * @return this builder.
+         *
+         * @throws IllegalArgumentException if {@code retryPeriod &lt; 0}.
+         */
+        public Builder withRetryPeriod(long retryPeriod, TimeUnit unit) {
+            checkArgument(retryPeriod >= 0, "Invalid retry period, must be positive (was %s)", retryPeriod);
+            this.retryPeriod = unit.toNanos(retryPeriod);
+            return this;
+        }
+
+        /**
+         * Sets the update rate for the resulting policy.
+         * <p>
+         * The update rate defines how often the recorded latencies are collected
+         * and the scores recomputed.
+         * <p>
+         * The default update rate (if this method is not called) is <b>100 milliseconds</b>.
+         *
+         * @param updateRate the update rate to use.
+         * @param unit the unit for {@code updateRate}.
+         * @return this builder.
+         *
+         * @throws IllegalArgumentException if {@code updateRate &lte; 0}.
+         */
+        public Builder withUpdateRate(long updateRate, TimeUnit unit) {
+            checkArgument(updateRate > 0, "Invalid update rate value, must be strictly positive (was %s)", updateRate);
+            this.updateRate = unit.toNanos(updateRate);
+            return this;
+        }
+
+        /**
+         * Sets the minimum number of measurements used to compute a score.
+         * <p>
+         * The score of a host is only (re)computed once at least that many
+         * latencies have been recorded since the previous computation. If the
+         * load on a host is low, its score will thus be updated less often than
+         * the update rate.
+         * <p>
+         * The default (if this method is not called) is <b>50</b>.
+         *
+         * @param minMeasure the minimum measurements to consider.
+         * @return this builder.
+         *
+         * @throws IllegalArgumentException if {@code minMeasure &lt; 1}.
+         */
+        public Builder withMininumMeasurements(int minMeasure) {
+            checkArgument(minMeasure >= 1, "Invalid minimum measurements value, must be strictly positive (was %s)", minMeasure);
+            this.minMeasure = minMeasure;
+            return this;
+        }
+
+        /**
+         * Sets the highest latency that the histograms can track.
+         * <p>
+         * Higher latencies are recorded as this value. A good rule of thumb is to
+         * set it slightly higher than {@link SocketOptions#getReadTimeoutMillis()}.
+         * <p>
+         * The default (if this method is not called) is <b>15 seconds</b>.
+         *
+         * @param highestTrackableLatency the highest trackable latency.
+         * @param unit the unit for {@code highestTrackableLatency}.
+         * @return this builder.
+         *
+         * @throws IllegalArgumentException if {@code highestTrackableLatency} is less than 1 millisecond.
+         */
+        public Builder withHighestTrackableLatency(long highestTrackableLatency, TimeUnit unit) {
+            checkArgument(unit.toMillis(highestTrackableLatency) >= 1,
+                "Invalid highest trackable latency, must be at least 1 millisecond (was %s %s)", highestTrackableLatency, unit);
+            this.highestTrackableLatency = unit.toMicros(highestTrackableLatency);
+            return this;
+        }
+
+        /**
+         * Sets the number of significant decimal digits to which histograms will maintain value
+         * resolution and separation.
+         * <p>
+         * The default (if this method is not called) is <b>2</b>.
+         *
+         * @param numberOfSignificantValueDigits the new value. Must be between 0 and 5.
+         * @return this builder.
+         *
+         * @see <a href="http://hdrhistogram.github.io/HdrHistogram/JavaDoc/org/HdrHistogram/Histogram.html">the HdrHistogram Javadocs</a>
+         * for a more detailed explanation on how this parameter affects the resolution of recorded samples.
+         */
+        public Builder withNumberOfSignificantValueDigits(int numberOfSignificantValueDigits) {
+            checkArgument(numberOfSignificantValueDigits >= 0 && numberOfSignificantValueDigits <= 5,
+                "Invalid number of significant digits, must be between 0 and 5 (was %s)", numberOfSignificantValueDigits);
+            this.numberOfSignificantValueDigits = numberOfSignificantValueDigits;
+            return this;
+        }
+
+        /**
+         * Sets the number of recorders per host.
+         * <p>
+         * Threads that report latencies are spread over that many recorders,
+         * which reduces contention but increases memory usage. The value is rounded
+         * up to the next power of two.
+         * <p>
+         * The default (if this method is not called) is the number of available
+         * processors, capped at <b>8</b>.
+         *
+         * @param stripes the number of recorders per host.
+         * @return this builder.
+         *
+         * @throws IllegalArgumentException if {@code stripes &lt; 1}.
+         */
+        public Builder withStripes(int stripes) {
+            checkArgument(stripes >= 1, "Invalid number of stripes, must be strictly positive (was %s)", stripes);
+            this.stripes = stripes;
+            return this;
+        }
+
+        /**
+         * Builds a new percentile latency aware policy using the options set on
+         * this builder.
+         *
+         * @return the newly created {@code PercentileLatencyAwarePolicy}.
+         */
+        public PercentileLatencyAwarePolicy build() {
+            int roundedStripes = Integer.highestOneBit(stripes);
+            if (roundedStripes < stripes)
+                roundedStripes <<= 1;
+            return new PercentileLatencyAwarePolicy(childPolicy, exclusionThreshold, percentile, retryPeriod, updateRate,
+                minMeasure, highestTrackableLatency, numberOfSignificantValueDigits, roundedStripes);
+        }
+    }
+}
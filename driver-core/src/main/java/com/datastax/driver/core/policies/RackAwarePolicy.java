@@ -0,0 +1,204 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core.policies;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentMap;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.MapMaker;
+
+import com.datastax.driver.core.*;
+
+/**
+ * A wrapper load balancing policy that prefers the hosts of a given rack.
+ * <p>
+ * This policy encapsulates another policy. The resulting policy works in
+ * the following way:
+ * <ul>
+ *   <li>the {@code distance} method is inherited from the child policy.</li>
+ *   <li>the iterator returned by the {@code newQueryPlan} method moves the hosts
+ *   of the local rack (as reported by {@link Host#getRack()}) to the front of the
+ *   {@code LOCAL} hosts returned first by the child policy. The relative order
+ *   of the hosts is otherwise preserved, and the rest of the child query plan is
+ *   returned untouched.</li>
+ * </ul>
+ * <p>
+ * The local data center is the one of the child policy (i.e. the hosts it
+ * considers {@code LOCAL}); this policy is typically used on top of a
+ * {@link DCAwareRoundRobinPolicy}. It is also designed to wrap {@link TokenAwarePolicy}:
+ * if the statement has a routing key, the replicas returned first by the
+ * child policy still come before the non-replica hosts, so that the query
+ * plan starts with the replicas of the local rack, then the other local
+ * replicas, then the other hosts of the local rack. For instance:
+ * <pre>
+ *     new RackAwarePolicy(new TokenAwarePolicy(new DCAwareRoundRobinPolicy("dc1")), "rack1")
+ * </pre>
+ * <p>
+ * If metrics are enabled, this policy also registers a counter per rack in the
+ * {@link Metrics#getRegistry() metrics registry}, named
+ * {@code requests-by-rack.<datacenter>.<rack>}, that counts the requests sent to
+ * the hosts of that rack.
+ */
+public class RackAwarePolicy implements ChainableLoadBalancingPolicy, CloseableLoadBalancingPolicy {
+
+    private final LoadBalancingPolicy childPolicy;
+    private final String localRack;
+
+    private volatile Metadata clusterMetadata;
+    private volatile Cluster cluster;
+    private volatile RequestCounter requestCounter;
+
+    /**
+     * Creates a new {@code RackAwarePolicy}.
+     *
+     * @param childPolicy the load balancing policy to wrap.
+     * @param localRack the name of the rack whose hosts should be tried first,
+     * as reported by {@link Host#getRack()}.
+     */
+    public RackAwarePolicy(LoadBalancingPolicy childPolicy, String localRack) {
+        if (localRack == null)
+            throw new IllegalArgumentException("localRack cannot be null");
+        this.childPolicy = childPolicy;
+        this.localRack = localRack;
+    }
+
+    @Override
+    public LoadBalancingPolicy getChildPolicy() {
+        return childPolicy;
+    }
+
+    @Override
+    public void init(Cluster cluster, Collection<Host> hosts) {
+        this.cluster = cluster;
+        this.clusterMetadata = cluster.getMetadata();
+        Metrics metrics = cluster.getMetrics();
+        if (metrics != null) {
+            requestCounter = new RequestCounter(metrics.getRegistry());
+            cluster.register(requestCounter);
+        }
+        childPolicy.init(cluster, hosts);
+    }
+
+    /**
+     * Return the HostDistance for the provided host.
+     *
+     * @param host the host of which to return the distance of.
+     * @return the HostDistance to {@code host} as returned by the wrapped policy.
+     */
+    @Override
+    public HostDistance distance(Host host) {
+        return childPolicy.distance(host);
+    }
+
+    /**
+     * Returns the hosts to use for a new query.
+     * <p>
+     * The returned plan contains the same hosts as the plan of the child
+     * policy, but the hosts of the local rack are moved to the front of the
+     * {@code LOCAL} hosts at the beginning of that plan (if the statement has
+     * a routing key, the replicas at the beginning of the plan are reordered
+     * separately from the other hosts, and still come first).
+     *
+     * @param loggedKeyspace the currently logged keyspace.
+     * @param statement the statement for which to build the plan.
+     * @return the new query plan.
+     */
+    @Override
+    public Iterator<Host> newQueryPlan(String loggedKeyspace, Statement statement) {
+        LocalPlanPrefix prefix = LocalPlanPrefix.read(childPolicy, clusterMetadata, loggedKeyspace, statement);
+        moveLocalRackFirst(prefix.hosts, 0, prefix.replicaCount);
+        moveLocalRackFirst(prefix.hosts, prefix.replicaCount, prefix.hosts.length);
+        return prefix.iterator();
+    }
+
+    /**
+     * Stable partition of {@code hosts[from, to)}: the hosts of the local rack
+     * are moved first, without changing the relative order of the hosts.
+     */
+    private void moveLocalRackFirst(Host[] hosts, int from, int to) {
+        int insertAt = from;
+        for (int i = from; i < to; i++) {
+            Host host = hosts[i];
+            if (!localRack.equals(host.getRack()))
+                continue;
+            if (i != insertAt) {
+                System.arraycopy(hosts, insertAt, hosts, insertAt + 1, i - insertAt);
+                hosts[insertAt] = host;
+            }
+            insertAt++;
+        }
+    }
+
+    @Override
+    public void onUp(Host host) {
+        childPolicy.onUp(host);
+    }
+
+    @Override
+    public void onSuspected(Host host) {
+        childPolicy.onSuspected(host);
+    }
+
+    @Override
+    public void onDown(Host host) {
+        childPolicy.onDown(host);
+    }
+
+    @Override
+    public void onAdd(Host host) {
+        childPolicy.onAdd(host);
+    }
+
+    @Override
+    public void onRemove(Host host) {
+        childPolicy.onRemove(host);
+    }
+
+    @Override
+    public void close() {
+        if (requestCounter != null)
+            cluster.unregister(requestCounter);
+        if (childPolicy instanceof CloseableLoadBalancingPolicy)
+            ((CloseableLoadBalancingPolicy)childPolicy).close();
+    }
+
+    @VisibleForTesting
+    static class RequestCounter implements LatencyTracker {
+
+        private final MetricRegistry registry;
+        // Caches the counter of each host, to avoid building the metric name on every request
+        private final ConcurrentMap<Host, Counter> counters = new MapMaker().weakKeys().makeMap();
+
+        RequestCounter(MetricRegistry registry) {
+            this.registry = registry;
+        }
+
+        @Override
+        public void update(Host host, Statement statement, Exception exception, long newLatencyNanos) {
+            Counter counter = counters.get(host);
+            if (counter == null) {
+                // MetricRegistry.counter returns the existing counter if there is one, so racing here is harmless
+                counter = registry.counter(MetricRegistry.name("requests-by-rack", host.getDatacenter(), host.getRack()));
+                counters.put(host, counter);
+            }
+            counter.inc();
+        }
+    }
+}
@@ -45,11 +45,57 @@ import com.datastax.driver.core.*;
  * priority. For example, if you wrap {@link DCAwareRoundRobinPolicy} with this
  * token aware policy, replicas from remote data centers may only be
  * returned after all the host of the local data center.
+ * <p>
+ * The order in which the local replicas are tried is controlled by a
+ * {@link ReplicaOrdering}.
  */
 public class TokenAwarePolicy implements ChainableLoadBalancingPolicy, CloseableLoadBalancingPolicy {
 
+    /**
+     * The order in which a {@code TokenAwarePolicy} tries the local replicas of a query.
+     */
+    public enum ReplicaOrdering {
+        /**
+         * The replicas are tried in the order returned by {@link Metadata#getReplicas}.
+         * <p>
+         * This maximizes the effectiveness of caching on the replicas, since a given
+         * partition is always read from the same replica, but the "primary" replica of
+         * each token range receives most of the load.
+         */
+        TOPOLOGICAL,
+
+        /**
+         * The replicas are shuffled for every query.
+         * <p>
+         * This distributes the load evenly, and can alleviate hotspots caused by "fat"
+         * partitions, but the same partition is read from every replica, which
+         * decreases the effectiveness of caching (especially at consistency level ONE).
+         */
+        RANDOM,
+
+        /**
+         * Each partition is mapped to a preferred replica, using rendezvous hashing on
+         * the routing key and the address of the replicas.
+         * <p>
+         * A given partition is consistently read from the same replica (and every client
+         * using this ordering picks the same one), so that replica's caches stay warm,
+         * while different partitions are evenly spread across the replicas. The other
+         * replicas are ordered the same way, so that if the preferred replica goes down,
+         * its partitions are evenly redistributed among the remaining ones.
+         * <p>
+         * If the preferred replica is overloaded, that is if it has more than twice as
+         * many {@link Host#getInFlightQueries() in-flight queries} as the least loaded
+         * other local replica (plus a small allowance, to ignore bursts on mostly idle
+         * hosts), it is tried last.
+         */
+        PARTITION_AFFINITY
+    }
+
+    // Extra in-flight queries tolerated on the preferred replica before it is considered overloaded
+    private static final int OVERLOAD_ALLOWANCE = 8;
+
     private final LoadBalancingPolicy childPolicy;
-    private final boolean shuffleReplicas;
+    private final ReplicaOrdering replicaOrdering;
     private Metadata clusterMetadata;
 
     /**
@@ -66,8 +112,20 @@ public class TokenAwarePolicy implements ChainableLoadBalancingPolicy, Closeable
      *
      */
     public TokenAwarePolicy(LoadBalancingPolicy childPolicy, boolean shuffleReplicas) {
+        this(childPolicy, shuffleReplicas ? ReplicaOrdering.RANDOM : ReplicaOrdering.TOPOLOGICAL);
+    }
+
+    /**
+     * Creates a new {@code TokenAware} policy with the given ordering of replicas.
+     *
+     * @param childPolicy the load balancing policy to wrap with token awareness.
+     * @param replicaOrdering the order in which to try the replicas.
+     */
+    public TokenAwarePolicy(LoadBalancingPolicy childPolicy, ReplicaOrdering replicaOrdering) {
+        if (replicaOrdering == null)
+            throw new IllegalArgumentException("replicaOrdering cannot be null");
         this.childPolicy = childPolicy;
-        this.shuffleReplicas = shuffleReplicas;
+        this.replicaOrdering = replicaOrdering;
     }
 
     /**
@@ -131,12 +189,17 @@ public class TokenAwarePolicy implements ChainableLoadBalancingPolicy, Closeable
             return childPolicy.newQueryPlan(loggedKeyspace, statement);
 
         final Iterator<Host> iter;
-        if (shuffleReplicas) {
-            List<Host> l = Lists.newArrayList(replicas);
-            Collections.shuffle(l);
-            iter = l.iterator();
-        } else {
-            iter = replicas.iterator();
+        switch (replicaOrdering) {
+            case RANDOM:
+                List<Host> l = Lists.newArrayList(replicas);
+                Collections.shuffle(l);
+                iter = l.iterator();
+                break;
+            case PARTITION_AFFINITY:
+                iter = Arrays.asList(orderByAffinity(replicas, partitionKey)).iterator();
+                break;
+            default:
+                iter = replicas.iterator();
         }
 
         return new AbstractIterator<Host>() {
@@ -165,6 +228,62 @@ public class TokenAwarePolicy implements ChainableLoadBalancingPolicy, Closeable
         };
     }
 
+    /**
+     * Orders replicas by decreasing rendezvous hash of the partition key and
+     * their address, then moves the first local replica last if it is overloaded.
+     */
+    private Host[] orderByAffinity(Set<Host> replicas, ByteBuffer partitionKey) {
+        Host[] hosts = replicas.toArray(new Host[replicas.size()]);
+        long[] weights = new long[hosts.length];
+        int keyHash = partitionKey.hashCode();
+
+        // Insertion sort, there are only a handful of replicas
+        for (int i = 0; i < hosts.length; i++) {
+            Host host = hosts[i];
+            long weight = weight(keyHash, host);
+            int j = i;
+            while (j > 0 && weights[j - 1] < weight) {
+                hosts[j] = hosts[j - 1];
+                weights[j] = weights[j - 1];
+                j--;
+            }
+            hosts[j] = host;
+            weights[j] = weight;
+        }
+
+        int preferred = -1;
+        int minOthers = Integer.MAX_VALUE;
+        for (int i = 0; i < hosts.length; i++) {
+            Host host = hosts[i];
+            if (!host.isUp() || childPolicy.distance(host) != HostDistance.LOCAL)
+                continue;
+            if (preferred < 0)
+                preferred = i;
+            else
+                minOthers = Math.min(minOthers, host.getInFlightQueries());
+        }
+
+        if (preferred >= 0 && minOthers != Integer.MAX_VALUE
+            && hosts[preferred].getInFlightQueries() > 2 * minOthers + OVERLOAD_ALLOWANCE) {
+            Host overloaded = hosts[preferred];
+            System.arraycopy(hosts, preferred + 1, hosts, preferred, hosts.length - preferred - 1);
+            hosts[hosts.length - 1] = overloaded;
+        }
+        return hosts;
+    }
+
+    // Only depends on the key and the host address, so that every client picks the same replica
+    private static long weight(int keyHash, Host host) {
+        long h = ((long)keyHash << 32) ^ (host.getSocketAddress().hashCode() & 0xFFFFFFFFL);
+        // Murmur3 64-bit finalizer
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
     @Override
     public void onUp(Host host) {
         childPolicy.onUp(host);
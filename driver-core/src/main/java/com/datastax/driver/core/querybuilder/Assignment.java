@@ -53,7 +53,7 @@ public abstract class Assignment extends Utils.Appendeable {
         void appendTo(StringBuilder sb, List<Object> variables) {
             appendName(name, sb);
             sb.append('=');
-            appendValue(value, sb, variables);
+            appendValue(name, value, sb, variables);
         }
 
         @Override
@@ -87,7 +87,7 @@ public abstract class Assignment extends Utils.Appendeable {
         void appendTo(StringBuilder sb, List<Object> variables) {
             appendName(name, sb).append('=');
             appendName(name, sb).append(isIncr ? "+" : "-");
-            appendValue(value, sb, variables);
+            appendValue(name, value, sb, variables);
         }
 
         @Override
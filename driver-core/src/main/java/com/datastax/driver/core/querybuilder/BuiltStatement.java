@@ -30,6 +30,7 @@ public abstract class BuiltStatement extends RegularStatement {
 
     private static final Pattern lowercaseId = Pattern.compile("[a-z][a-z0-9_]*");
 
+    private final TableMetadata table;
     private final List<ColumnMetadata> partitionKey;
     private final ByteBuffer[] routingKey;
     final String keyspace;
@@ -47,12 +48,14 @@ public abstract class BuiltStatement extends RegularStatement {
     private boolean forceNoValues;
 
     BuiltStatement(String keyspace) {
+        this.table = null;
         this.partitionKey = null;
         this.routingKey = null;
         this.keyspace = keyspace;
     }
 
     BuiltStatement(TableMetadata tableMetadata) {
+        this.table = tableMetadata;
         this.partitionKey = tableMetadata.getPartitionKey();
         this.routingKey = new ByteBuffer[tableMetadata.getPartitionKey().size()];
         this.keyspace = escapeId(tableMetadata.getKeyspace().getName());
@@ -268,6 +271,50 @@ public abstract class BuiltStatement extends RegularStatement {
         bb.put((byte) (length & 0xFF));
     }
 
+    /**
+     * Freezes the current shape of this statement into a reusable template.
+     * <p>
+     * The query string of the template is rendered once, with bind markers in place of
+     * all the current values of this statement, so that building new statements from it
+     * only costs the serialization of their values. See {@link QueryTemplate} for details.
+     * <p>
+     * Later modifications of this statement don't affect the returned template.
+     *
+     * @return the template.
+     */
+    public QueryTemplate freeze() {
+        // The user's bind markers can't be mixed with ours, so the values are part of the shape
+        if (hasBindMarkers)
+            return new QueryTemplate(maybeAddSemicolon(buildQueryString(null)).toString(), getKeyspace(), getRoutingKey(), isIdempotent());
+
+        QueryTemplate.Variables variables = new QueryTemplate.Variables();
+        String queryString = maybeAddSemicolon(buildQueryString(variables)).toString();
+        if (variables.size() > 65535)
+            throw new IllegalArgumentException("Too many values for built statement, the maximum allowed is 65535");
+
+        DataType[] types = null;
+        int[] routingVariables = null;
+        if (table != null) {
+            types = new DataType[variables.size()];
+            for (int i = 0; i < types.length; i++) {
+                String name = variables.names.get(i);
+                ColumnMetadata column = name == null ? null : table.getColumn(Metadata.quote(name));
+                types[i] = column == null ? null : column.getType();
+            }
+
+            routingVariables = new int[partitionKey.size()];
+            for (int i = 0; i < routingVariables.length; i++) {
+                // Like for the routing key of this statement, the first value of a partition key column is used
+                routingVariables[i] = variables.names.indexOf(partitionKey.get(i).getName());
+                if (routingVariables[i] < 0) {
+                    routingVariables = null;
+                    break;
+                }
+            }
+        }
+        return new QueryTemplate(queryString, getKeyspace(), new ArrayList<Object>(variables), types, routingVariables, isIdempotent());
+    }
+
     /**
      * An utility class to create a BuiltStatement that encapsulate another one.
      */
@@ -380,6 +427,11 @@ public abstract class BuiltStatement extends RegularStatement {
             statement.checkForBindMarkers(value);
         }
 
+        @Override
+        public QueryTemplate freeze() {
+            return statement.freeze();
+        }
+
         @Override
         public String toString() {
             return statement.toString();
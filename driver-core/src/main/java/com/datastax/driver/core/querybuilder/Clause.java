@@ -50,7 +50,7 @@ public abstract class Clause extends Utils.Appendeable {
         @Override
         void appendTo(StringBuilder sb, List<Object> variables) {
             Utils.appendName(name, sb).append(op);
-            Utils.appendValue(value, sb, variables);
+            Utils.appendValue(name, value, sb, variables);
         }
 
         @Override
@@ -94,7 +94,7 @@ public abstract class Clause extends Utils.Appendeable {
             }
 
             Utils.appendName(name, sb).append(" IN (");
-            Utils.joinAndAppendValues(sb, ",", values, variables).append(')');
+            Utils.joinAndAppendValues(sb, ",", name, values, variables).append(')');
         }
 
         @Override
@@ -157,7 +157,7 @@ public abstract class Clause extends Utils.Appendeable {
             for (int i = 0; i < values.size(); i++) {
                 if (i > 0)
                     sb.append(",");
-                Utils.appendValue(values.get(i), sb, variables);
+                Utils.appendValue(names.get(i), values.get(i), sb, variables);
             }
             sb.append(")");
         }
@@ -56,7 +56,11 @@ public class Insert extends BuiltStatement {
         builder.append('(');
         Utils.joinAndAppendNames(builder, ",", names);
         builder.append(") VALUES (");
-        Utils.joinAndAppendValues(builder, ",", values, variables);
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0)
+                builder.append(',');
+            Utils.appendValue((String)names.get(i), values.get(i), builder, variables);
+        }
         builder.append(')');
 
         if (ifNotExists)
@@ -0,0 +1,208 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core.querybuilder;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.SimpleStatement;
+
+/**
+ * The frozen shape of a {@link BuiltStatement}: a query string rendered once, with
+ * bind markers in place of the values.
+ * <p>
+ * Building a statement with the {@link QueryBuilder} renders its query string on each
+ * construction. When the same query is built repeatedly with different values, a
+ * template avoids that work: the query string is rendered once by {@link BuiltStatement#freeze()},
+ * and each execution only provides the new values:
+ * <pre>
+ *     QueryTemplate template = select().all().from("users").where(eq("login", "")).freeze();
+ *     for (String login : logins)
+ *         session.execute(template.bind(login));
+ * </pre>
+ * Every value of the statement at the time it was frozen (the "literals"), including
+ * numbers and the arguments of function calls, is replaced by a bind marker, in the
+ * order in which they appear in the query string. The literals are available through
+ * {@link #getLiteralValues()}. Column names, function names, {@link QueryBuilder#raw raw}
+ * strings and options such as the TTL, the timestamp or the limit are part of the shape
+ * of the template. If the statement already had bind markers set by the user, its values
+ * are inlined instead and the only bind markers are the user's.
+ * <p>
+ * If the statement was built from a {@link com.datastax.driver.core.TableMetadata}, the
+ * template knows the type of the columns its values are for: numbers are converted to
+ * the Java type of their column (so that {@code 1} can be bound to a {@code bigint}), and
+ * the statements returned by {@link #bind} have the routing key computed from their
+ * partition key values. Otherwise, values are serialized according to their Java type,
+ * as for any {@link SimpleStatement}.
+ * <p>
+ * The statements returned by {@link #bind} are sent with their values, which is not
+ * supported by the native protocol version 1. Templates are also a natural fit for
+ * preparation: {@code session.prepare(template.getQueryString())}.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+public class QueryTemplate {
+
+    private final String queryString;
+    private final String keyspace;
+    private final List<Object> literalValues;
+    // The type of the column of each variable, or null if unknown. Null if all are unknown or if the
+    // values are inlined.
+    private final DataType[] types;
+    // The index of the variable of each partition key component. Null if there is no complete partition
+    // key in the variables.
+    private final int[] routingVariables;
+    // Used when the values are inlined, in which case the routing key doesn't depend on the bound values.
+    private final ByteBuffer routingKey;
+    private final boolean idempotent;
+
+    QueryTemplate(String queryString, String keyspace, ByteBuffer routingKey, boolean idempotent) {
+        this.queryString = queryString;
+        this.keyspace = keyspace;
+        this.literalValues = null;
+        this.types = null;
+        this.routingVariables = null;
+        this.routingKey = routingKey;
+        this.idempotent = idempotent;
+    }
+
+    QueryTemplate(String queryString, String keyspace, List<Object> literalValues, DataType[] types, int[] routingVariables, boolean idempotent) {
+        this.queryString = queryString;
+        this.keyspace = keyspace;
+        this.literalValues = Collections.unmodifiableList(literalValues);
+        this.types = types;
+        this.routingVariables = routingVariables;
+        this.routingKey = null;
+        this.idempotent = idempotent;
+    }
+
+    /**
+     * Returns the query string of this template.
+     *
+     * @return the query string, with bind markers in place of the literal values.
+     */
+    public String getQueryString() {
+        return queryString;
+    }
+
+    /**
+     * Returns the literal values of the statement this template was created from.
+     *
+     * @return the values, in the order of their bind markers in the query string. This is
+     * an empty list if the values were inlined in the query string.
+     */
+    public List<Object> getLiteralValues() {
+        return literalValues == null ? Collections.<Object>emptyList() : literalValues;
+    }
+
+    /**
+     * Creates a new statement from this template, with the provided values.
+     * <p>
+     * The returned statement has the keyspace and the idempotence of the statement this
+     * template was created from, and its routing key if it can be computed (see the
+     * class documentation).
+     *
+     * @param values the values of the bind markers of the query string, in order.
+     * @return the new statement.
+     *
+     * @throws IllegalArgumentException if the values replaced the literals of the statement
+     * this template was created from, and {@code values} doesn't have one value per literal.
+     * @throws com.datastax.driver.core.exceptions.InvalidTypeException if a value can't be
+     * converted to the type of its column.
+     */
+    public SimpleStatement bind(Object... values) {
+        if (literalValues != null && values.length != literalValues.size())
+            throw new IllegalArgumentException(String.format("Expected %d values but got %d", literalValues.size(), values.length));
+
+        if (types != null) {
+            Object[] typed = null;
+            for (int i = 0; i < values.length; i++) {
+                Object value = values[i];
+                if (!(value instanceof Number) || types[i] == null || !isNumeric(types[i]) || types[i].asJavaClass().isInstance(value))
+                    continue;
+                if (typed == null)
+                    typed = values.clone();
+                // This is how the number would have been interpreted if it was inlined in the query string
+                typed[i] = types[i].parse(value.toString());
+            }
+            if (typed != null)
+                values = typed;
+        }
+
+        SimpleStatement statement = values.length == 0
+                                  ? new SimpleStatement(queryString)
+                                  : new SimpleStatement(queryString, values);
+        statement.setKeyspace(keyspace);
+        statement.setIdempotent(idempotent);
+
+        if (routingKey != null) {
+            statement.setRoutingKey(routingKey);
+        } else if (routingVariables != null) {
+            ByteBuffer[] components = new ByteBuffer[routingVariables.length];
+            for (int i = 0; i < routingVariables.length; i++) {
+                int variable = routingVariables[i];
+                if (values[variable] == null)
+                    return statement;
+                // Partition keys can't contain non-frozen collections, so the protocol version doesn't matter
+                components[i] = types[variable].serialize(values[variable], ProtocolVersion.NEWEST_SUPPORTED);
+            }
+            if (components.length == 1)
+                statement.setRoutingKey(components[0]);
+            else
+                statement.setRoutingKey(components);
+        }
+        return statement;
+    }
+
+    private static boolean isNumeric(DataType type) {
+        return Number.class.isAssignableFrom(type.asJavaClass());
+    }
+
+    /**
+     * Creates a new statement from this template, with the literal values of the
+     * statement this template was created from.
+     *
+     * @return the new statement.
+     */
+    public SimpleStatement bindLiteralValues() {
+        return bind(getLiteralValues().toArray());
+    }
+
+    @Override
+    public String toString() {
+        return queryString;
+    }
+
+    /**
+     * The variables collected while rendering a template: all the values of the
+     * statement, with the name of their column if known.
+     */
+    static class Variables extends ArrayList<Object> {
+
+        private static final long serialVersionUID = 0;
+
+        final List<String> names = new ArrayList<String>();
+
+        void add(String name, Object value) {
+            add(value);
+            names.add(name);
+        }
+    }
+}
@@ -51,10 +51,14 @@ abstract class Utils {
     }
 
     static StringBuilder joinAndAppendValues(StringBuilder sb, String separator, List<?> values, List<Object> variables) {
+        return joinAndAppendValues(sb, separator, null, values, variables);
+    }
+
+    static StringBuilder joinAndAppendValues(StringBuilder sb, String separator, String name, List<?> values, List<Object> variables) {
         for (int i = 0; i < values.size(); i++) {
             if (i > 0)
                 sb.append(separator);
-            appendValue(values.get(i), sb, variables);
+            appendValue(name, values.get(i), sb, variables);
         }
         return sb;
     }
@@ -87,6 +91,14 @@ abstract class Utils {
     }
 
     static StringBuilder appendValue(Object value, StringBuilder sb, List<Object> variables) {
+        return appendValue(null, value, sb, variables);
+    }
+
+    // name is the column the value is for, if known. It is only used to type the variables of a template.
+    static StringBuilder appendValue(String name, Object value, StringBuilder sb, List<Object> variables) {
+        if (variables instanceof QueryTemplate.Variables)
+            return appendTemplateValue(name, value, sb, (QueryTemplate.Variables)variables);
+
         if (variables == null || !isSerializable(value))
             return appendValue(value, sb);
 
@@ -95,6 +107,27 @@ abstract class Utils {
         return sb;
     }
 
+    // Unlike regular statements, templates bind every value, including fixed size numbers and the
+    // arguments of function calls, so that none of them is part of the template's shape.
+    private static StringBuilder appendTemplateValue(String name, Object value, StringBuilder sb, QueryTemplate.Variables variables) {
+        if (value instanceof FCall) {
+            FCall fcall = (FCall)value;
+            sb.append(fcall.name).append('(');
+            for (int i = 0; i < fcall.parameters.length; i++) {
+                if (i > 0)
+                    sb.append(',');
+                appendTemplateValue(null, fcall.parameters[i], sb, variables);
+            }
+            return sb.append(')');
+        }
+
+        if (value instanceof BindMarker || value instanceof CName || value instanceof RawString)
+            return appendValue(value, sb);
+
+        variables.add(name, value);
+        return sb.append('?');
+    }
+
     static StringBuilder appendValue(Object value, StringBuilder sb) {
         // That is kind of lame but lacking a better solution
         if (appendValueIfLiteral(value, sb))
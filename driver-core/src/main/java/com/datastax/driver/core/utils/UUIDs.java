@@ -23,6 +23,7 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import com.google.common.base.Charsets;
 
@@ -54,6 +55,20 @@ public final class UUIDs {
 
     private static final AtomicLong lastTimestamp = new AtomicLong(0L);
 
+    /*
+     * The striped generator (see stripedTimeBased) has one last timestamp per stripe, each on
+     * its own cache line, and gives each stripe its own clock sequence: the one of timeBased()
+     * plus 1 + the stripe index. Since the clock sequence is part of the UUID, stripes (and
+     * timeBased()) can use the same timestamps without generating the same UUIDs.
+     */
+    private static final int STRIPES = stripeCount();
+    private static final int STRIPE_PADDING = 16; // 128 bytes between two timestamps
+    private static final AtomicLongArray stripeTimestamps = new AtomicLongArray(STRIPES * STRIPE_PADDING);
+    private static final long[] STRIPE_CLOCK_SEQ_AND_NODES = makeStripeClockSeqAndNodes();
+
+    // The number of timestamps available in a millisecond
+    private static final int TIMESTAMPS_PER_MILLI = 10000;
+
     private static long makeEpoch() {
         // UUID v1 timestamp must be in 100-nanoseconds interval since 00:00:00.000 15 Oct 1582.
         Calendar c = Calendar.getInstance(TimeZone.getTimeZone("GMT-0"));
@@ -121,6 +136,25 @@ public final class UUIDs {
         return lsb;
     }
 
+    private static int stripeCount() {
+        // A power of 2 at least equal to the number of processors, so that stripes are rarely shared
+        int processors = Runtime.getRuntime().availableProcessors();
+        int stripes = 1;
+        while (stripes < processors && stripes < 1024)
+            stripes <<= 1;
+        return stripes;
+    }
+
+    private static long[] makeStripeClockSeqAndNodes() {
+        long clock = (CLOCK_SEQ_AND_NODE >>> 48) & 0x0000000000003FFFL;
+        long[] lsbs = new long[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            long stripeClock = (clock + 1 + i) & 0x0000000000003FFFL;
+            lsbs[i] = (CLOCK_SEQ_AND_NODE & ~(0x0000000000003FFFL << 48)) | (stripeClock << 48);
+        }
+        return lsbs;
+    }
+
     /**
      * Creates a new random (version 4) UUID.
      * <p>
@@ -145,6 +179,63 @@ public final class UUIDs {
         return new UUID(makeMSB(getCurrentTimestamp()), CLOCK_SEQ_AND_NODE);
     }
 
+    /**
+     * Creates a new time-based (version 1) UUID, with less contention than
+     * {@link #timeBased} when many threads generate UUIDs concurrently.
+     * <p>
+     * {@link #timeBased} makes all the threads of the JVM share the last
+     * generated timestamp, so that every UUID it generates has a distinct
+     * timestamp. This method instead splits threads into stripes (about one
+     * per processor), which each have their own last timestamp and their own
+     * clock sequence (the part of the UUID that follows the timestamp). The
+     * UUIDs generated by this method are unique, including with the ones of
+     * {@link #timeBased}. UUIDs generated by the same thread have increasing
+     * timestamps. However, two UUIDs generated by different threads may have
+     * the same timestamp.
+     * <p>
+     * This also means that this method can generate more than 10,000 UUIDs
+     * per millisecond (the limit of {@link #timeBased}), since that limit
+     * applies to each stripe.
+     *
+     * @return a new time-based UUID.
+     */
+    public static UUID stripedTimeBased() {
+        int stripe = stripe();
+        return new UUID(makeMSB(reserveTimestamps(stripe, 1)), STRIPE_CLOCK_SEQ_AND_NODES[stripe]);
+    }
+
+    /**
+     * Creates new time-based (version 1) UUIDs in a batch.
+     * <p>
+     * This works like calling {@link #stripedTimeBased} {@code count} times,
+     * but reserves the timestamps of the UUIDs in blocks instead of one by one.
+     * Each block takes the timestamps left in the current millisecond (there
+     * are 10,000 timestamps per millisecond), so the returned UUIDs have
+     * consecutive timestamps, except where a new block starts.
+     *
+     * @param count the number of UUIDs to create.
+     * @return an array of {@code count} new time-based UUIDs, in increasing
+     * timestamp order.
+     *
+     * @throws IllegalArgumentException if {@code count < 0}.
+     */
+    public static UUID[] stripedTimeBased(int count) {
+        if (count < 0)
+            throw new IllegalArgumentException("Invalid count, should be >= 0, got " + count);
+
+        int stripe = stripe();
+        long lsb = STRIPE_CLOCK_SEQ_AND_NODES[stripe];
+        UUID[] uuids = new UUID[count];
+        int i = 0;
+        while (i < count) {
+            long timestamp = reserveTimestamps(stripe, count - i);
+            int blockSize = blockSize(timestamp, count - i);
+            for (int j = 0; j < blockSize; j++)
+                uuids[i++] = new UUID(makeMSB(timestamp + j), lsb);
+        }
+        return uuids;
+    }
+
     /**
      * Creates a "fake" time-based UUID that sorts as the smallest possible
      * version 1 UUID generated at the provided timestamp.
@@ -267,6 +358,44 @@ public final class UUIDs {
         }
     }
 
+    private static int stripe() {
+        // Thread ids are sequential, so this spreads threads evenly, and a thread always uses the same stripe
+        return (int)Thread.currentThread().getId() & (STRIPES - 1);
+    }
+
+    /*
+     * Reserves up to max consecutive timestamps on a stripe and returns the first one. The number
+     * of reserved timestamps is given by blockSize. This is the same algorithm as getCurrentTimestamp,
+     * except that the timestamps left in the current millisecond are reserved at once. The generator
+     * only stalls until the next millisecond if there is none left.
+     */
+    private static long reserveTimestamps(int stripe, int max) {
+        int index = stripe * STRIPE_PADDING;
+        while (true) {
+            long now = fromUnixTimestamp(System.currentTimeMillis());
+            long last = stripeTimestamps.get(index);
+            long first;
+            if (now > last) {
+                first = now;
+            } else {
+                first = last + 1;
+                // If we've used all the timestamps of that millisecond, we restart the whole process
+                // until we get to the next millis (unless the clock went back in time, in which case
+                // we keep counting from the last timestamp)
+                if (millisOf(now) == millisOf(last) && millisOf(first) != millisOf(last))
+                    continue;
+            }
+
+            if (stripeTimestamps.compareAndSet(index, last, first + blockSize(first, max) - 1))
+                return first;
+        }
+    }
+
+    // The number of timestamps reserved by reserveTimestamps: up to max, without leaving the millisecond of first
+    private static int blockSize(long first, int max) {
+        return (int)Math.min(max, TIMESTAMPS_PER_MILLI - first % TIMESTAMPS_PER_MILLI);
+    }
+
     // Package visible for testing
     static long fromUnixTimestamp(long tstamp) {
         return (tstamp - START_EPOCH) * 10000;
@@ -0,0 +1,58 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import com.google.common.collect.ImmutableSet;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.testng.Assert.fail;
+
+import com.datastax.driver.core.exceptions.InvalidTypeException;
+
+public class ArrayBackedRowTest {
+
+    @Test(groups = "unit")
+    public void should_decode_number_collections_into_arrays() {
+        for (ProtocolVersion version : new ProtocolVersion[]{ ProtocolVersion.V2, ProtocolVersion.V3 }) {
+            ColumnDefinitions metadata = new ColumnDefinitions(new ColumnDefinitions.Definition[]{
+                new ColumnDefinitions.Definition("ks", "foo", "i", DataType.list(DataType.cint())),
+                new ColumnDefinitions.Definition("ks", "foo", "l", DataType.set(DataType.bigint())),
+                new ColumnDefinitions.Definition("ks", "foo", "d", DataType.list(DataType.cdouble())),
+                new ColumnDefinitions.Definition("ks", "foo", "n", DataType.list(DataType.cint()))
+            });
+            Row row = ArrayBackedRow.fromData(metadata, null, CodecRegistry.DEFAULT_INSTANCE, null, false, version, Arrays.<ByteBuffer>asList(
+                DataType.list(DataType.cint()).serialize(Arrays.asList(1, -2, 3), version),
+                DataType.set(DataType.bigint()).serialize(ImmutableSet.of(Long.MAX_VALUE, 0L), version),
+                DataType.list(DataType.cdouble()).serialize(Arrays.asList(1.5, -0.25), version),
+                null
+            ));
+
+            assertThat(row.getIntArray(0)).containsExactly(1, -2, 3);
+            assertThat(row.getLongArray("l")).containsExactly(Long.MAX_VALUE, 0L);
+            assertThat(row.getDoubleArray("d")).containsExactly(1.5, -0.25);
+            assertThat(row.getIntArray("n")).isEmpty();
+
+            try {
+                row.getLongArray("i");
+                fail("Expected an InvalidTypeException");
+            } catch (InvalidTypeException e) { /* expected */ }
+        }
+    }
+}
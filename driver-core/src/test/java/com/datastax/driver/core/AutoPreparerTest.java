@@ -0,0 +1,92 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import com.google.common.util.concurrent.Futures;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class AutoPreparerTest {
+
+    private static final String QUERY = "SELECT * FROM foo WHERE k = ?";
+
+    @Test(groups = "unit")
+    public void should_bind_statements_once_threshold_is_reached() {
+        PreparedStatement prepared = mockPrepared("ks");
+        Session session = mockSession("ks", prepared);
+        AutoPreparer autoPreparer = new AutoPreparer(session, 2, 10, null);
+
+        SimpleStatement statement = new SimpleStatement(QUERY, 42);
+        assertThat(autoPreparer.maybeBind(statement, ProtocolVersion.V3)).isSameAs(statement);
+        verify(session, never()).prepareAsync(QUERY);
+        assertThat(autoPreparer.maybeBind(statement, ProtocolVersion.V3)).isSameAs(statement);
+        verify(session).prepareAsync(QUERY);
+
+        statement.setConsistencyLevel(ConsistencyLevel.QUORUM);
+        Statement executed = autoPreparer.maybeBind(statement, ProtocolVersion.V3);
+        assertThat(executed).isInstanceOf(BoundStatement.class);
+        BoundStatement bound = (BoundStatement)executed;
+        assertThat(bound.preparedStatement()).isSameAs(prepared);
+        assertThat(bound.getBytesUnsafe(0)).isEqualTo(DataType.cint().serialize(42, ProtocolVersion.V3));
+        assertThat(bound.getConsistencyLevel()).isEqualTo(ConsistencyLevel.QUORUM);
+        // The routing key is now computed from the values
+        assertThat(bound.getRoutingKey()).isEqualTo(DataType.cint().serialize(42, ProtocolVersion.V3));
+
+        // The query is only prepared once
+        autoPreparer.maybeBind(statement, ProtocolVersion.V3);
+        verify(session).prepareAsync(QUERY);
+    }
+
+    @Test(groups = "unit")
+    public void should_not_bind_when_values_or_keyspace_do_not_match() {
+        // Prepared in another keyspace, e.g. because of a concurrent USE
+        PreparedStatement prepared = mockPrepared("ks2");
+        Session session = mockSession("ks", prepared);
+        AutoPreparer autoPreparer = new AutoPreparer(session, 1, 10, null);
+
+        SimpleStatement statement = new SimpleStatement(QUERY, 42);
+        autoPreparer.maybeBind(statement, ProtocolVersion.V3);
+        assertThat(autoPreparer.maybeBind(statement, ProtocolVersion.V3)).isSameAs(statement);
+
+        prepared = mockPrepared("ks");
+        session = mockSession("ks", prepared);
+        autoPreparer = new AutoPreparer(session, 1, 10, null);
+        SimpleStatement noValues = new SimpleStatement(QUERY);
+        autoPreparer.maybeBind(noValues, ProtocolVersion.V3);
+        assertThat(autoPreparer.maybeBind(noValues, ProtocolVersion.V3)).isSameAs(noValues);
+        assertThat(autoPreparer.maybeBind(statement, ProtocolVersion.V3)).isInstanceOf(BoundStatement.class);
+    }
+
+    private static Session mockSession(String keyspace, PreparedStatement prepared) {
+        Session session = mock(Session.class);
+        when(session.getLoggedKeyspace()).thenReturn(keyspace);
+        when(session.prepareAsync(QUERY)).thenReturn(Futures.immediateFuture(prepared));
+        return session;
+    }
+
+    private static PreparedStatement mockPrepared(String keyspace) {
+        ColumnDefinitions variables = new ColumnDefinitions(new ColumnDefinitions.Definition[]{
+            new ColumnDefinitions.Definition("ks", "foo", "k", DataType.cint())
+        });
+        PreparedStatement prepared = mock(PreparedStatement.class);
+        when(prepared.getVariables()).thenReturn(variables);
+        when(prepared.getQueryKeyspace()).thenReturn(keyspace);
+        when(prepared.getPreparedId()).thenReturn(new PreparedId(MD5Digest.wrap(new byte[16]), variables, null, new int[]{ 0 }, ProtocolVersion.V3));
+        return prepared;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.UUID;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.datastax.driver.core.utils.UUIDs;
+
+public class BoundValueStagingTest {
+
+    @Test(groups = "unit")
+    public void should_encode_staged_values_like_regular_ones() {
+        UUID uuid = UUIDs.timeBased();
+        BoundStatement regular = prepare(false).bind(1, 2L, 3.0, uuid, "foo");
+        BoundStatement staged = prepare(true).bind(1, 2L, 3.0, uuid, "foo");
+
+        assertThat(staged.getInt(0)).isEqualTo(1);
+        assertThat(staged.getLong(1)).isEqualTo(2L);
+        assertThat(staged.getDouble(2)).isEqualTo(3.0);
+        assertThat(staged.getUUID(3)).isEqualTo(uuid);
+        assertThat(staged.getString(4)).isEqualTo("foo");
+        // Fixed-width values share the same array
+        assertThat(staged.getBytesUnsafe(0).array()).isSameAs(staged.getBytesUnsafe(3).array());
+        assertThat(encode(staged)).isEqualTo(encode(regular));
+
+        // Setting a value again does not overwrite the previous one
+        ByteBuffer previous = staged.getBytesUnsafe(0);
+        staged.setInt(0, 42);
+        assertThat(staged.getInt(0)).isEqualTo(42);
+        assertThat(previous.getInt(previous.position())).isEqualTo(1);
+        regular.setInt(0, 42);
+        assertThat(encode(staged)).isEqualTo(encode(regular));
+    }
+
+    private static PreparedStatement prepare(boolean boundValueStaging) {
+        ByteBuf body = Unpooled.buffer();
+        CBUtil.writeBytes(new byte[16], body);
+        // Variables metadata: GLOBAL_TABLES_SPEC, 5 columns
+        body.writeInt(1);
+        body.writeInt(5);
+        CBUtil.writeString("ks", body);
+        CBUtil.writeString("foo", body);
+        writeColumn("i", 0x0009, body);
+        writeColumn("l", 0x0002, body);
+        writeColumn("d", 0x0007, body);
+        writeColumn("u", 0x000F, body);
+        writeColumn("t", 0x000D, body);
+        // Result metadata: NO_METADATA
+        body.writeInt(4);
+        body.writeInt(0);
+
+        Responses.Result.Prepared msg = (Responses.Result.Prepared)Responses.Result.Prepared.subcodec.decode(body, ProtocolVersion.V3);
+        return DefaultPreparedStatement.fromMessage(msg, mock(Metadata.class), ProtocolVersion.V3, CodecRegistry.DEFAULT_INSTANCE,
+                                                    boundValueStaging, "INSERT INTO foo (i, l, d, u, t) VALUES (?, ?, ?, ?, ?)", "ks");
+    }
+
+    private static void writeColumn(String name, int type, ByteBuf body) {
+        CBUtil.writeString(name, body);
+        body.writeShort(type);
+    }
+
+    private static ByteBuf encode(BoundStatement statement) {
+        Requests.QueryProtocolOptions options = new Requests.QueryProtocolOptions(ConsistencyLevel.ONE, Arrays.asList(statement.wrapper.values),
+                                                                                  false, -1, null, ConsistencyLevel.SERIAL, Long.MIN_VALUE);
+        ByteBuf dest = Unpooled.buffer(options.encodedSize(ProtocolVersion.V3));
+        options.encode(dest, ProtocolVersion.V3);
+        assertThat(dest.writableBytes()).isZero();
+        return dest;
+    }
+}
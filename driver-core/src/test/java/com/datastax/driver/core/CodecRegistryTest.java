@@ -0,0 +1,137 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.testng.Assert.fail;
+
+import com.datastax.driver.core.exceptions.InvalidTypeException;
+
+public class CodecRegistryTest {
+
+    @Test(groups = "unit")
+    public void should_memoize_codecs() {
+        DataType listType = DataType.list(DataType.text());
+        assertThat(listType.codec(ProtocolVersion.V3)).isSameAs(listType.codec(ProtocolVersion.V3));
+        assertThat(listType.codec(ProtocolVersion.V2)).isNotSameAs(listType.codec(ProtocolVersion.V3));
+
+        TupleType tupleType = TupleType.of(DataType.cint(), DataType.text());
+        assertThat(tupleType.codec(ProtocolVersion.V3)).isSameAs(tupleType.codec(ProtocolVersion.V3));
+
+        CodecRegistry registry = new CodecRegistry();
+        assertThat(registry.codecFor(listType, List.class)).isSameAs(registry.codecFor(DataType.list(DataType.text()), List.class));
+    }
+
+    @Test(groups = "unit")
+    public void should_use_registered_codecs() {
+        CodecRegistry registry = new CodecRegistry().register(new PointCodec());
+        ColumnDefinitions metadata = new ColumnDefinitions(new ColumnDefinitions.Definition[]{
+            new ColumnDefinitions.Definition("ks", "foo", "p", DataType.text()),
+            new ColumnDefinitions.Definition("ks", "foo", "l", DataType.list(DataType.cint()))
+        });
+        Row row = ArrayBackedRow.fromData(metadata, null, registry, null, false, ProtocolVersion.V3, Arrays.asList(
+            DataType.text().serialize("1,2", ProtocolVersion.V3),
+            null
+        ));
+
+        assertThat(row.get(0, Point.class)).isEqualTo(new Point(1, 2));
+        assertThat(row.get("p", Point.class)).isEqualTo(new Point(1, 2));
+        // The driver's own mappings are still available
+        assertThat(row.get("p", String.class)).isEqualTo("1,2");
+        List<?> list = row.get("l", List.class);
+        assertThat(list).isEmpty();
+
+        try {
+            row.get("l", Point.class);
+            fail("Expected an InvalidTypeException");
+        } catch (InvalidTypeException e) { /* expected */ }
+    }
+
+    @Test(groups = "unit")
+    public void should_set_values_with_codecs() {
+        TupleValue value = TupleType.of(DataType.cint(), DataType.text()).newValue();
+        value.set(0, 42, Integer.class);
+        assertThat(value.getInt(0)).isEqualTo(42);
+        assertThat(value.get(0, Integer.class)).isEqualTo(42);
+
+        try {
+            value.set(1, new Point(1, 2), Point.class);
+            fail("Expected an InvalidTypeException");
+        } catch (InvalidTypeException e) { /* expected */ }
+    }
+
+    @Test(groups = "unit")
+    public void should_use_the_registry_of_their_type_for_udt_and_tuple_values() {
+        CodecRegistry registry = new CodecRegistry().register(new PointCodec());
+        UserType userType = new UserType("ks", "foo", Arrays.asList(
+            new UserType.Field("p", DataType.text()),
+            new UserType.Field("l", DataType.list(TupleType.of(DataType.text())))));
+        registry.attachTo(userType);
+
+        UDTValue udtValue = userType.newValue().set("p", new Point(1, 2), Point.class);
+        assertThat(udtValue.getString("p")).isEqualTo("1,2");
+        assertThat(udtValue.get("p", Point.class)).isEqualTo(new Point(1, 2));
+
+        // Nested types are attached too
+        TupleType tupleType = (TupleType)userType.getFieldType("l").getTypeArguments().get(0);
+        TupleValue tupleValue = tupleType.newValue().set(0, new Point(3, 4), Point.class);
+        assertThat(tupleValue.get(0, Point.class)).isEqualTo(new Point(3, 4));
+    }
+
+    static class Point {
+        final int x, y;
+
+        Point(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Point && ((Point)o).x == x && ((Point)o).y == y;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * x + y;
+        }
+    }
+
+    static class PointCodec extends CustomCodec<Point> {
+        PointCodec() {
+            super(DataType.text(), Point.class);
+        }
+
+        @Override
+        public ByteBuffer serialize(Point value, ProtocolVersion protocolVersion) {
+            return value == null ? null : DataType.text().serialize(value.x + "," + value.y, protocolVersion);
+        }
+
+        @Override
+        public Point deserialize(ByteBuffer bytes, ProtocolVersion protocolVersion) {
+            if (bytes == null)
+                return null;
+            String[] coordinates = ((String)DataType.text().deserialize(bytes, protocolVersion)).split(",");
+            return new Point(Integer.parseInt(coordinates[0]), Integer.parseInt(coordinates[1]));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.testng.Assert.fail;
+
+public class CollectionViewsTest {
+
+    @Test(groups = "unit")
+    public void should_decode_list_elements_on_access() {
+        for (ProtocolVersion version : new ProtocolVersion[]{ ProtocolVersion.V2, ProtocolVersion.V3 }) {
+            DataType type = DataType.list(DataType.text());
+            List<String> expected = Arrays.asList("a", "bb", "", "dddd");
+            List<String> view = CollectionViews.listView(type, type.serialize(expected, version), version);
+
+            assertThat(view).hasSize(4);
+            assertThat(view.get(3)).isEqualTo("dddd");
+            assertThat(view.get(0)).isEqualTo("a");
+            assertThat(view).isEqualTo(expected);
+            assertThat(view.hashCode()).isEqualTo(expected.hashCode());
+            assertThat(view.contains("bb")).isTrue();
+            assertThat(view.indexOf("")).isEqualTo(2);
+
+            try {
+                view.get(4);
+                fail("Expected an IndexOutOfBoundsException");
+            } catch (IndexOutOfBoundsException e) { /* expected */ }
+            try {
+                view.add("e");
+                fail("Expected an UnsupportedOperationException");
+            } catch (UnsupportedOperationException e) { /* expected */ }
+        }
+    }
+
+    @Test(groups = "unit")
+    public void should_decode_set_elements_on_access() {
+        DataType type = DataType.set(DataType.cint());
+        Set<Integer> expected = ImmutableSet.of(1, 2, 3);
+        Set<Integer> view = CollectionViews.setView(type, type.serialize(expected, ProtocolVersion.V3), ProtocolVersion.V3);
+
+        assertThat(view).hasSize(3).containsExactly(1, 2, 3);
+        assertThat(view.contains(2)).isTrue();
+        assertThat(view.contains(4)).isFalse();
+        assertThat(view).isEqualTo(expected);
+    }
+
+    @Test(groups = "unit")
+    public void should_decode_map_values_on_access() {
+        DataType type = DataType.map(DataType.text(), DataType.bigint());
+        Map<String, Long> expected = ImmutableMap.of("a", 1L, "b", 2L, "c", 3L);
+        Map<String, Long> view = CollectionViews.mapView(type, type.serialize(expected, ProtocolVersion.V3), ProtocolVersion.V3);
+
+        assertThat(view.size()).isEqualTo(3);
+        assertThat(view.get("b")).isEqualTo(2L);
+        assertThat(view.get("d")).isNull();
+        assertThat(view.containsKey("c")).isTrue();
+        assertThat(view.keySet()).containsExactly("a", "b", "c");
+        assertThat(view.values()).containsExactly(1L, 2L, 3L);
+        assertThat(view).isEqualTo(expected);
+        assertThat(view.toString()).isEqualTo(expected.toString());
+    }
+
+    @Test(groups = "unit")
+    public void should_return_views_from_rows_when_enabled() {
+        DataType type = DataType.list(DataType.cint());
+        ColumnDefinitions metadata = new ColumnDefinitions(new ColumnDefinitions.Definition[]{
+            new ColumnDefinitions.Definition("ks", "foo", "l", type)
+        });
+        List<ByteBuffer> data = Collections.singletonList(type.serialize(Arrays.asList(1, 2), ProtocolVersion.V3));
+
+        Row eager = ArrayBackedRow.fromData(metadata, null, CodecRegistry.DEFAULT_INSTANCE, null, false, ProtocolVersion.V3, data);
+        Row lazy = ArrayBackedRow.fromData(metadata, null, CodecRegistry.DEFAULT_INSTANCE, null, true, ProtocolVersion.V3, data);
+        assertThat(lazy.getList(0, Integer.class)).isEqualTo(eager.getList(0, Integer.class)).containsExactly(1, 2);
+        assertThat(lazy.getList(0, Integer.class).getClass().getEnclosingClass()).isEqualTo(CollectionViews.class);
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.UUID;
+
+import com.datastax.driver.core.utils.Bytes;
+import com.datastax.driver.core.utils.UUIDs;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.fail;
+
+import com.datastax.driver.core.exceptions.InvalidTypeException;
+
+public class ColumnHandleTest {
+
+    private static final ColumnDefinitions METADATA = new ColumnDefinitions(new ColumnDefinitions.Definition[]{
+        new ColumnDefinitions.Definition("ks", "users", "id", DataType.cint()),
+        new ColumnDefinitions.Definition("ks", "users", "Name", DataType.text())
+    });
+
+    @Test(groups = "unit")
+    public void should_access_rows_by_index() {
+        ColumnHandle.IntHandle id = ColumnHandle.forInt(METADATA, "id");
+        ColumnHandle.StringHandle name = ColumnHandle.forString(METADATA, "\"Name\"");
+        assertThat(name.getIndex()).isEqualTo(1);
+
+        Row row = row(METADATA, 42, "john");
+        assertThat(id.get(row)).isEqualTo(42);
+        assertThat(name.get(row)).isEqualTo("john");
+
+        // Other metadata with the same columns is fine
+        ColumnDefinitions sameMetadata = new ColumnDefinitions(new ColumnDefinitions.Definition[]{
+            new ColumnDefinitions.Definition("ks", "users", "id", DataType.cint()),
+            new ColumnDefinitions.Definition("ks", "users", "Name", DataType.text())
+        });
+        assertThat(name.get(row(sameMetadata, 1, "jane"))).isEqualTo("jane");
+
+        ColumnDefinitions changedMetadata = new ColumnDefinitions(new ColumnDefinitions.Definition[]{
+            new ColumnDefinitions.Definition("ks", "users", "Name", DataType.text()),
+            new ColumnDefinitions.Definition("ks", "users", "id", DataType.cint())
+        });
+        try {
+            id.get(ArrayBackedRow.fromData(changedMetadata, null, CodecRegistry.DEFAULT_INSTANCE, null, false, ProtocolVersion.V3,
+                                           Arrays.<ByteBuffer>asList(null, null)));
+            fail("Expected an IllegalStateException");
+        } catch (IllegalStateException e) { /* expected */ }
+    }
+
+    @Test(groups = "unit")
+    public void should_check_types_on_creation() {
+        try {
+            ColumnHandle.forLong(METADATA, "id");
+            fail("Expected an InvalidTypeException");
+        } catch (InvalidTypeException e) { /* expected */ }
+        try {
+            ColumnHandle.forInt(METADATA, "missing");
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) { /* expected */ }
+    }
+
+    @Test(groups = "unit")
+    public void should_set_bound_values_by_index() {
+        PreparedStatement prepared = mock(PreparedStatement.class);
+        when(prepared.getVariables()).thenReturn(METADATA);
+        when(prepared.getPreparedId()).thenReturn(new PreparedId(null, METADATA, ColumnDefinitions.EMPTY, null, ProtocolVersion.V3));
+
+        ColumnHandle.IntHandle id = ColumnHandle.forInt(prepared.getVariables(), "id");
+        ColumnHandle.StringHandle name = ColumnHandle.forString(prepared.getVariables(), "\"Name\"");
+        BoundStatement statement = name.set(id.set(new BoundStatement(prepared), 1), "john");
+
+        assertThat(statement.getInt("id")).isEqualTo(1);
+        assertThat(statement.getString("\"Name\"")).isEqualTo("john");
+    }
+
+    @Test(groups = "unit")
+    public void should_round_trip_values_of_all_handle_types() {
+        ColumnDefinitions variables = new ColumnDefinitions(new ColumnDefinitions.Definition[]{
+            new ColumnDefinitions.Definition("ks", "t", "l", DataType.bigint()),
+            new ColumnDefinitions.Definition("ks", "t", "f", DataType.cfloat()),
+            new ColumnDefinitions.Definition("ks", "t", "d", DataType.cdouble()),
+            new ColumnDefinitions.Definition("ks", "t", "b", DataType.cboolean()),
+            new ColumnDefinitions.Definition("ks", "t", "a", DataType.ascii()),
+            new ColumnDefinitions.Definition("ks", "t", "u", DataType.timeuuid()),
+            new ColumnDefinitions.Definition("ks", "t", "ts", DataType.timestamp()),
+            new ColumnDefinitions.Definition("ks", "t", "bl", DataType.blob()),
+            // A variable that occurs twice, like in "WHERE l = :l2 OR l2 = :l2"
+            new ColumnDefinitions.Definition("ks", "t", "l2", DataType.bigint()),
+            new ColumnDefinitions.Definition("ks", "t", "l2", DataType.bigint())
+        });
+        PreparedStatement prepared = mock(PreparedStatement.class);
+        when(prepared.getVariables()).thenReturn(variables);
+        when(prepared.getPreparedId()).thenReturn(new PreparedId(null, variables, ColumnDefinitions.EMPTY, null, ProtocolVersion.V3));
+
+        ColumnHandle.LongHandle l = ColumnHandle.forLong(variables, "l");
+        ColumnHandle.FloatHandle f = ColumnHandle.forFloat(variables, "f");
+        ColumnHandle.DoubleHandle d = ColumnHandle.forDouble(variables, "d");
+        ColumnHandle.BoolHandle b = ColumnHandle.forBool(variables, "b");
+        ColumnHandle.StringHandle a = ColumnHandle.forString(variables, "a");
+        ColumnHandle.UUIDHandle u = ColumnHandle.forUUID(variables, "u");
+        ColumnHandle.DateHandle ts = ColumnHandle.forDate(variables, "ts");
+        ColumnHandle.BytesHandle bl = ColumnHandle.forBytes(variables, "bl");
+        ColumnHandle.LongHandle l2 = ColumnHandle.forLong(variables, "l2");
+
+        UUID uuid = UUIDs.timeBased();
+        Date date = new Date(1234567890L);
+        ByteBuffer bytes = Bytes.fromHexString("0xcafe");
+        BoundStatement statement = new BoundStatement(prepared);
+        l.set(statement, 1L);
+        f.set(statement, 2.0f);
+        d.set(statement, 3.0);
+        b.set(statement, true);
+        a.set(statement, "foo");
+        u.set(statement, uuid);
+        ts.set(statement, date);
+        bl.set(statement, bytes);
+        l2.set(statement, 4L);
+
+        // The values are the same as with the setters of the statement
+        assertThat(statement.getLong(0)).isEqualTo(1L);
+        assertThat(statement.getString(4)).isEqualTo("foo");
+        assertThat(statement.getLong(8)).isEqualTo(4L);
+        assertThat(statement.getLong(9)).isEqualTo(4L);
+
+        Row row = ArrayBackedRow.fromData(variables, null, CodecRegistry.DEFAULT_INSTANCE, null, false, ProtocolVersion.V3,
+                                          Arrays.asList(statement.wrapper.values));
+        assertThat(l.get(row)).isEqualTo(1L);
+        assertThat(f.get(row)).isEqualTo(2.0f);
+        assertThat(d.get(row)).isEqualTo(3.0);
+        assertThat(b.get(row)).isTrue();
+        assertThat(a.get(row)).isEqualTo("foo");
+        assertThat(u.get(row)).isEqualTo(uuid);
+        assertThat(ts.get(row)).isEqualTo(date);
+        assertThat(bl.get(row)).isEqualTo(bytes);
+        assertThat(l2.get(row)).isEqualTo(4L);
+
+        // NULL values
+        a.set(statement, null);
+        u.set(statement, null);
+        ts.set(statement, null);
+        bl.set(statement, null);
+        row = ArrayBackedRow.fromData(variables, null, CodecRegistry.DEFAULT_INSTANCE, null, false, ProtocolVersion.V3,
+                                      Arrays.asList(statement.wrapper.values));
+        assertThat(a.get(row)).isNull();
+        assertThat(u.get(row)).isNull();
+        assertThat(ts.get(row)).isNull();
+        assertThat(bl.get(row)).isNull();
+
+        try {
+            u.set(statement, UUID.randomUUID());
+            fail("Expected an InvalidTypeException");
+        } catch (InvalidTypeException e) { /* expected */ }
+    }
+
+    @Test(groups = "unit")
+    public void should_use_public_getters_for_other_row_implementations() {
+        ColumnHandle.IntHandle id = ColumnHandle.forInt(METADATA, "id");
+        Row row = mock(Row.class);
+        when(row.getColumnDefinitions()).thenReturn(METADATA);
+        when(row.getInt(0)).thenReturn(42);
+
+        assertThat(id.get(row)).isEqualTo(42);
+    }
+
+    private static Row row(ColumnDefinitions metadata, int id, String name) {
+        return ArrayBackedRow.fromData(metadata, null, CodecRegistry.DEFAULT_INSTANCE, null, false, ProtocolVersion.V3, Arrays.asList(
+            DataType.cint().serialize(id, ProtocolVersion.V3),
+            DataType.text().serialize(name, ProtocolVersion.V3)
+        ));
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.testng.Assert.fail;
+
+import com.datastax.driver.core.exceptions.InvalidTypeException;
+
+public class ColumnarPageTest {
+
+    @Test(groups = "unit")
+    public void should_decode_rows_into_columns() {
+        ProtocolVersion v = ProtocolVersion.V3;
+        ColumnDefinitions metadata = new ColumnDefinitions(new ColumnDefinitions.Definition[]{
+            new ColumnDefinitions.Definition("ks", "foo", "i", DataType.cint()),
+            new ColumnDefinitions.Definition("ks", "foo", "l", DataType.bigint()),
+            new ColumnDefinitions.Definition("ks", "foo", "d", DataType.cdouble()),
+            new ColumnDefinitions.Definition("ks", "foo", "b", DataType.cboolean()),
+            new ColumnDefinitions.Definition("ks", "foo", "t", DataType.text())
+        });
+        ByteBuffer direct = ByteBuffer.allocateDirect(3);
+        direct.put(DataType.text().serialize("ccc", v)).flip();
+        List<List<ByteBuffer>> rows = ImmutableList.of(
+            Arrays.asList(DataType.cint().serialize(1, v), DataType.bigint().serialize(10L, v),
+                          DataType.cdouble().serialize(1.5, v), DataType.cboolean().serialize(true, v),
+                          DataType.text().serialize("a", v)),
+            Arrays.<ByteBuffer>asList(null, null, null, null, null),
+            Arrays.asList(DataType.cint().serialize(3, v), ByteBuffer.allocate(0),
+                          DataType.cdouble().serialize(-2.0, v), DataType.cboolean().serialize(false, v),
+                          direct)
+        );
+
+        ColumnarPage page = new ColumnarPage(metadata, rows);
+
+        assertThat(page.getRowCount()).isEqualTo(3);
+        assertThat(page.getInts(0)).containsExactly(1, 0, 3);
+        assertThat(page.getLongs(1)).containsExactly(10L, 0L, 0L);
+        assertThat(page.getDoubles(2)).containsExactly(1.5, 0.0, -2.0);
+        assertThat(page.getBooleans(3)).containsExactly(true, false, false);
+        assertThat(page.getOffsets(4)).containsExactly(0, 1, 1, 4);
+        assertThat(page.getString(0, 4)).isEqualTo("a");
+        assertThat(page.getString(1, 4)).isNull();
+        assertThat(page.getString(2, 4)).isEqualTo("ccc");
+
+        // Empty values are not NULL
+        assertThat(page.isNull(1, 0)).isTrue();
+        assertThat(page.isNull(2, 1)).isFalse();
+        assertThat(page.getNullBitmap(4).cardinality()).isEqualTo(1);
+        // The buffers of the rows are not consumed
+        assertThat(direct.remaining()).isEqualTo(3);
+
+        try {
+            page.getLongs(0);
+            fail("Expected an InvalidTypeException");
+        } catch (InvalidTypeException e) { /* expected */ }
+        try {
+            page.getVariableWidthData(0);
+            fail("Expected an InvalidTypeException");
+        } catch (InvalidTypeException e) { /* expected */ }
+        try {
+            page.isNull(3, 0);
+            fail("Expected an IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException e) { /* expected */ }
+    }
+
+    @Test(groups = "unit")
+    public void should_reject_values_of_the_wrong_size() {
+        ColumnDefinitions metadata = new ColumnDefinitions(new ColumnDefinitions.Definition[]{
+            new ColumnDefinitions.Definition("ks", "foo", "i", DataType.cint())
+        });
+        List<List<ByteBuffer>> rows = Collections.singletonList(Collections.singletonList(ByteBuffer.allocate(3)));
+        try {
+            new ColumnarPage(metadata, rows);
+            fail("Expected an InvalidTypeException");
+        } catch (InvalidTypeException e) { /* expected */ }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.ImmutableMap;
+import org.scassandra.http.client.PrimingRequest;
+import org.scassandra.http.client.Query;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConnectionInitTest extends ScassandraTestBase {
+
+    private static final String CLUSTER_NAME_QUERY = "select cluster_name from system.local";
+
+    @Test(groups = "short")
+    public void should_skip_cluster_name_check_for_new_connections_to_up_host() {
+        Cluster cluster = initCluster();
+        try {
+            Host host = retrieveSingleHost(cluster);
+            activityClient.clearAllRecordedActivity();
+
+            cluster.connect();
+            assertThat(countQueries(CLUSTER_NAME_QUERY)).isEqualTo(1);
+            assertThat(host.clusterNameChecked).isTrue();
+
+            // The second session opens a new connection to the same host, which is still up
+            cluster.connect();
+            assertThat(countQueries(CLUSTER_NAME_QUERY)).isEqualTo(1);
+        } finally {
+            cluster.close();
+        }
+    }
+
+    @Test(groups = "short")
+    public void should_check_cluster_name_again_after_host_was_down() {
+        Cluster cluster = initCluster();
+        try {
+            cluster.connect();
+            Host host = retrieveSingleHost(cluster);
+            assertThat(host.clusterNameChecked).isTrue();
+
+            host.setDown();
+            assertThat(host.clusterNameChecked).isFalse();
+            host.setUp();
+            activityClient.clearAllRecordedActivity();
+
+            cluster.connect();
+            assertThat(countQueries(CLUSTER_NAME_QUERY)).isEqualTo(1);
+            assertThat(host.clusterNameChecked).isTrue();
+        } finally {
+            cluster.close();
+        }
+    }
+
+    @Test(groups = "short")
+    public void should_set_session_keyspace_on_pool_connections_during_initialization() throws Exception {
+        Cluster cluster = initCluster();
+        try {
+            SessionManager session = (SessionManager)cluster.connect();
+            Host host = retrieveSingleHost(cluster);
+            // Scassandra doesn't answer USE with the new keyspace, so set it like a SET_KEYSPACE response would
+            session.poolsState.setKeyspace("ks");
+            activityClient.clearAllRecordedActivity();
+
+            // Recreate the pool: its connections are initialized while the session already has a keyspace
+            assertThat(session.forceRenewPool(host, null).get(10, TimeUnit.SECONDS)).isTrue();
+
+            assertThat(countQueries("USE \"ks\"")).isEqualTo(1);
+            List<Connection> connections = connections(session.pools.get(host));
+            assertThat(connections).hasSize(1);
+            for (Connection connection : connections)
+                assertThat(connection.keyspace()).isEqualTo("ks");
+        } finally {
+            cluster.close();
+        }
+    }
+
+    @Test(groups = "short")
+    public void should_not_fail_initialization_if_session_keyspace_cannot_be_set() throws Exception {
+        primingClient.prime(PrimingRequest.queryBuilder()
+            .withQuery("USE \"ks\"")
+            .withResult(PrimingRequest.Result.unavailable)
+            .build());
+        Cluster cluster = initCluster();
+        try {
+            SessionManager session = (SessionManager)cluster.connect();
+            Host host = retrieveSingleHost(cluster);
+            session.poolsState.setKeyspace("ks");
+
+            assertThat(session.forceRenewPool(host, null).get(10, TimeUnit.SECONDS)).isTrue();
+
+            // The keyspace will be set when the connection is borrowed
+            List<Connection> connections = connections(session.pools.get(host));
+            assertThat(connections).hasSize(1);
+            assertThat(connections.get(0).keyspace()).isNull();
+        } finally {
+            cluster.close();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Cluster initCluster() {
+        primingClient.prime(PrimingRequest.queryBuilder()
+            .withQuery(CLUSTER_NAME_QUERY)
+            .withRows(ImmutableMap.of("cluster_name", "test_cluster"))
+            .build());
+        Cluster cluster = createClusterBuilder().build();
+        cluster.init();
+        // Scassandra doesn't report a cluster name, set it so that connections check it
+        cluster.manager.metadata.clusterName = "test_cluster";
+        return cluster;
+    }
+
+    private int countQueries(String query) {
+        int count = 0;
+        for (Query q : activityClient.retrieveQueries()) {
+            if (q.getQuery().equals(query))
+                count += 1;
+        }
+        return count;
+    }
+
+    private static List<Connection> connections(HostConnectionPool pool) {
+        if (pool instanceof DynamicConnectionPool)
+            return ((DynamicConnectionPool)pool).connections;
+        return Collections.singletonList(((SingleConnectionPool)pool).connectionRef.get());
+    }
+}
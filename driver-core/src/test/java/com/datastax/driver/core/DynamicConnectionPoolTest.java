@@ -352,6 +352,28 @@ public class DynamicConnectionPoolTest extends CCMBridge.PerClassSingleNodeClust
         assertThat(pool.connections).hasSize(1);
     }
 
+    /**
+     * Ensures that warming up a session opens the pools of local hosts up to their maximum connections.
+     *
+     * @test_category connection:connection_pool
+     */
+    @Test(groups = "short")
+    public void should_open_max_connections_on_warm_up() throws Exception {
+        cluster.getConfiguration().getPoolingOptions()
+            .setIdleTimeoutSeconds(20);
+
+        DynamicConnectionPool pool = createPool(1, 3);
+        assertThat(pool.connections).hasSize(1);
+
+        pool.manager.warmUpAsync().get(10, TimeUnit.SECONDS);
+        assertThat(pool.connections).hasSize(3);
+        assertThat(pool.opened()).isEqualTo(3);
+
+        // Already at the maximum, this is a no-op
+        pool.manager.warmUpAsync().get(10, TimeUnit.SECONDS);
+        assertThat(pool.opened()).isEqualTo(3);
+    }
+
     private DynamicConnectionPool createPool(int coreConnections, int maxConnections) {
         cluster.getConfiguration().getPoolingOptions()
             .setCoreConnectionsPerHost(HostDistance.LOCAL, coreConnections)
@@ -0,0 +1,67 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LazySchemaLoadingTest extends CCMBridge.PerClassSingleNodeCluster {
+
+    @Override
+    protected Collection<String> getTableDefinitions() {
+        return Collections.singletonList("CREATE TABLE foo (k int PRIMARY KEY, v int)");
+    }
+
+    @Override
+    protected Cluster.Builder configure(Cluster.Builder builder) {
+        return builder.withQueryOptions(new QueryOptions().setLazySchemaLoading(true));
+    }
+
+    @Test(groups = "short")
+    public void should_load_tables_on_first_access() {
+        KeyspaceMetadata ksm = cluster.getMetadata().getKeyspace(keyspace);
+        assertThat(ksm).isNotNull();
+        assertThat(ksm.isLoaded()).isFalse();
+
+        assertThat(ksm.getTable("foo")).isNotNull();
+        assertThat(ksm.isLoaded()).isTrue();
+
+        // Now that the keyspace is loaded, new tables are tracked
+        session.execute("CREATE TABLE bar (k int PRIMARY KEY, v int)");
+        assertThat(ksm.getTable("bar")).isNotNull();
+    }
+
+    @Test(groups = "short")
+    public void should_not_load_tables_of_untracked_keyspaces() {
+        QueryOptions queryOptions = cluster.getConfiguration().getQueryOptions();
+        queryOptions.setTrackedKeyspaces(Collections.singletonList(keyspace));
+        try {
+            session.execute("CREATE KEYSPACE untracked WITH replication = {'class': 'SimpleStrategy', 'replication_factor': 1}");
+            session.execute("CREATE TABLE untracked.foo (k int PRIMARY KEY, v int)");
+
+            KeyspaceMetadata ksm = cluster.getMetadata().getKeyspace("untracked");
+            assertThat(ksm).isNotNull();
+            assertThat(ksm.getTable("foo")).isNull();
+        } finally {
+            queryOptions.setTrackedKeyspaces(null);
+            session.execute("DROP KEYSPACE untracked");
+        }
+    }
+}
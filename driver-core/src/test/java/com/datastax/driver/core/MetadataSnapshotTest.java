@@ -0,0 +1,123 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.UUID;
+
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MetadataSnapshotTest {
+
+    @Test(groups = "unit")
+    public void should_write_and_read_snapshot() throws IOException {
+        File file = File.createTempFile("metadata", ".snapshot");
+        try {
+            UUID schemaVersion = UUID.randomUUID();
+            KeyspaceMetadata ks1 = KeyspaceMetadata.restore("ks1", true,
+                ImmutableMap.of("class", "org.apache.cassandra.locator.SimpleStrategy", "replication_factor", "3"));
+            KeyspaceMetadata ks2 = KeyspaceMetadata.restore("ks2", false,
+                ImmutableMap.of("class", "org.apache.cassandra.locator.NetworkTopologyStrategy", "dc1", "3", "dc2", "2"));
+
+            new MetadataSnapshot("test cluster", schemaVersion, Arrays.asList(ks1, ks2)).write(file);
+            MetadataSnapshot snapshot = MetadataSnapshot.read(file);
+
+            assertThat(snapshot).isNotNull();
+            assertThat(snapshot.clusterName).isEqualTo("test cluster");
+            assertThat(snapshot.schemaVersion).isEqualTo(schemaVersion);
+            assertThat(snapshot.keyspaces).hasSize(2);
+            KeyspaceMetadata restored = snapshot.keyspaces.get(1);
+            assertThat(restored.getName()).isEqualTo("ks2");
+            assertThat(restored.isDurableWrites()).isFalse();
+            assertThat(restored.getReplication()).isEqualTo(ks2.getReplication());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test(groups = "unit")
+    public void should_ignore_missing_or_corrupted_snapshot() throws IOException {
+        File file = File.createTempFile("metadata", ".snapshot");
+        try {
+            FileOutputStream out = new FileOutputStream(file);
+            out.write(new byte[]{ 0, 0, 0, 1, 42 });
+            out.close();
+            assertThat(MetadataSnapshot.read(file)).isNull();
+
+            file.delete();
+            assertThat(MetadataSnapshot.read(file)).isNull();
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test(groups = "unit")
+    public void should_restore_snapshot_and_rebuild_token_map_if_cluster_name_matches() {
+        Cluster cluster = Cluster.builder().addContactPoint("127.0.0.1").build();
+        try {
+            Metadata metadata = new Metadata(cluster.manager);
+            Host host = initMetadata(metadata, "test cluster");
+
+            assertThat(metadata.restore(snapshot("test cluster"))).isTrue();
+
+            assertThat(metadata.getKeyspace("ks1")).isNotNull();
+            assertThat(metadata.getReplicas("ks1", ByteBuffer.wrap(new byte[]{ 1 }))).containsOnly(host);
+        } finally {
+            cluster.close();
+        }
+    }
+
+    @Test(groups = "unit")
+    public void should_not_restore_snapshot_if_cluster_name_does_not_match() {
+        Cluster cluster = Cluster.builder().addContactPoint("127.0.0.1").build();
+        try {
+            Metadata metadata = new Metadata(cluster.manager);
+            initMetadata(metadata, "other cluster");
+
+            assertThat(metadata.restore(snapshot("test cluster"))).isFalse();
+
+            assertThat(metadata.getKeyspaces()).isEmpty();
+            assertThat(metadata.getReplicas("ks1", ByteBuffer.wrap(new byte[]{ 1 }))).isEmpty();
+        } finally {
+            cluster.close();
+        }
+    }
+
+    // Simulates the node list refresh that happens before the snapshot is restored
+    private static Host initMetadata(Metadata metadata, String clusterName) {
+        metadata.clusterName = clusterName;
+        Host host = metadata.add(new InetSocketAddress("127.0.0.2", 9042));
+        metadata.rebuildTokenMap("org.apache.cassandra.dht.Murmur3Partitioner",
+            ImmutableMap.<Host, Collection<String>>of(host, Collections.singleton("0")));
+        return host;
+    }
+
+    private static MetadataSnapshot snapshot(String clusterName) {
+        KeyspaceMetadata ks1 = KeyspaceMetadata.restore("ks1", true,
+            ImmutableMap.of("class", "org.apache.cassandra.locator.SimpleStrategy", "replication_factor", "1"));
+        return new MetadataSnapshot(clusterName, UUID.randomUUID(), Collections.singletonList(ks1));
+    }
+}
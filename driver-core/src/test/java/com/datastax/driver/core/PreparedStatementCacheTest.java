@@ -0,0 +1,90 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.base.Supplier;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class PreparedStatementCacheTest {
+
+    @Test(groups = "unit")
+    public void should_share_in_flight_preparation() throws Exception {
+        PreparedStatementCache cache = new PreparedStatementCache(10, null);
+        SettableFuture<PreparedStatement> preparation = SettableFuture.create();
+        CountingSupplier supplier = new CountingSupplier(preparation);
+
+        ListenableFuture<PreparedStatement> future1 = cache.get("ks", "SELECT * FROM foo", supplier);
+        ListenableFuture<PreparedStatement> future2 = cache.get("ks", "SELECT * FROM foo", supplier);
+        assertThat(supplier.calls.get()).isEqualTo(1);
+
+        // Cancelling a caller's future doesn't affect the others
+        future1.cancel(true);
+
+        PreparedStatement prepared = mock(PreparedStatement.class);
+        preparation.set(prepared);
+        assertThat(future2.get()).isSameAs(prepared);
+        assertThat(cache.get("ks", "SELECT * FROM foo", supplier).get()).isSameAs(prepared);
+        assertThat(supplier.calls.get()).isEqualTo(1);
+
+        // Different keyspace, different entry
+        cache.get("ks2", "SELECT * FROM foo", supplier);
+        assertThat(supplier.calls.get()).isEqualTo(2);
+    }
+
+    @Test(groups = "unit")
+    public void should_not_cache_failed_preparation() {
+        PreparedStatementCache cache = new PreparedStatementCache(10, null);
+        CountingSupplier supplier = new CountingSupplier(Futures.<PreparedStatement>immediateFailedFuture(new RuntimeException()));
+
+        cache.get(null, "SELECT * FROM foo", supplier);
+        cache.get(null, "SELECT * FROM foo", supplier);
+        assertThat(supplier.calls.get()).isEqualTo(2);
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test(groups = "unit")
+    public void should_evict_entries_when_full() {
+        PreparedStatementCache cache = new PreparedStatementCache(2, null);
+        CountingSupplier supplier = new CountingSupplier(Futures.immediateFuture(mock(PreparedStatement.class)));
+
+        for (int i = 0; i < 10; i++)
+            cache.get(null, "SELECT * FROM foo" + i, supplier);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    private static class CountingSupplier implements Supplier<ListenableFuture<PreparedStatement>> {
+        final AtomicInteger calls = new AtomicInteger();
+        final ListenableFuture<PreparedStatement> result;
+
+        CountingSupplier(ListenableFuture<PreparedStatement> result) {
+            this.result = result;
+        }
+
+        @Override
+        public ListenableFuture<PreparedStatement> get() {
+            calls.incrementAndGet();
+            return result;
+        }
+    }
+}
@@ -17,8 +17,11 @@ package com.datastax.driver.core;
 
 import java.net.InetAddress;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 import com.google.common.collect.ImmutableList;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
 import org.testng.annotations.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -329,6 +332,45 @@ public class PreparedStatementTest extends CCMBridge.PerClassSingleNodeCluster {
         reprepareOnNewlyUpNodeTest(null, session);
     }
 
+    @Test(groups = "long")
+    public void should_reprepare_only_recently_used_statements_on_newly_up_node() throws Exception {
+        QueryOptions queryOptions = cluster.getConfiguration().getQueryOptions();
+        int concurrency = queryOptions.getReprepareConcurrency();
+        int maxIdleSeconds = queryOptions.getReprepareMaxIdleSeconds();
+        Logger requestHandlerLogger = Logger.getLogger(RequestHandler.class);
+        Level level = requestHandlerLogger.getLevel();
+        MemoryAppender logs = new MemoryAppender();
+        try {
+            queryOptions.setReprepareConcurrency(1).setReprepareMaxIdleSeconds(60);
+            requestHandlerLogger.setLevel(Level.INFO);
+            requestHandlerLogger.addAppender(logs);
+
+            session.execute("INSERT INTO test (k, i) VALUES ('125', 19)");
+            PreparedStatement recent1 = session.prepare("SELECT i FROM test WHERE k = ?");
+            PreparedStatement recent2 = session.prepare("SELECT k FROM test WHERE k = ?");
+            PreparedStatement idle = session.prepare("SELECT k, i FROM test WHERE k = ?");
+            ((DefaultPreparedStatement)idle).lastUsedNanos = System.nanoTime() - TimeUnit.MINUTES.toNanos(5);
+
+            ccmBridge.stop();
+            waitForDown(CCMBridge.IP_PREFIX + '1', cluster);
+            ccmBridge.start();
+            waitFor(CCMBridge.IP_PREFIX + '1', cluster, 120);
+
+            // The recently used statements were re-prepared when the node came back up
+            assertEquals(session.execute(recent1.bind("125")).one().getInt("i"), 19);
+            assertEquals(session.execute(recent2.bind("125")).one().getString("k"), "125");
+            assertThat(logs.get()).doesNotContain("is not prepared");
+
+            // The idle one was not, and is prepared on its UNPREPARED error
+            assertEquals(session.execute(idle.bind("125")).one().getInt("i"), 19);
+            assertThat(logs.get()).contains("Query SELECT k, i FROM test WHERE k = ? is not prepared");
+        } finally {
+            queryOptions.setReprepareConcurrency(concurrency).setReprepareMaxIdleSeconds(maxIdleSeconds);
+            requestHandlerLogger.setLevel(level);
+            requestHandlerLogger.removeAppender(logs);
+        }
+    }
+
     @Test(groups = "long")
     public void reprepareOnNewlyUpNodeNoKeyspaceTest() throws Exception {
 
@@ -0,0 +1,70 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import static com.datastax.driver.core.SchemaElement.*;
+
+public class RefreshCoalescerTest {
+
+    @Test(groups = "unit")
+    public void should_merge_table_refreshes_and_rebuild_token_map_once() throws InterruptedException {
+        RefreshCoalescer.Pending pending = new RefreshCoalescer.Pending();
+        pending.addSchema(TABLE, "ks1", "t1");
+        pending.addSchema(TABLE, "ks1", "t1");
+        pending.addSchema(TYPE, "ks1", "t1");
+        for (int i = 0; i < RefreshCoalescer.MAX_ELEMENTS_PER_KEYSPACE + 1; i++)
+            pending.addSchema(TABLE, "ks2", "t" + i);
+        pending.nodeList = true;
+        pending.requests += 1;
+
+        ControlConnection controlConnection = mock(ControlConnection.class);
+        pending.run(controlConnection, null);
+
+        verify(controlConnection).refreshSchema(TABLE, "ks1", "t1", false);
+        verify(controlConnection).refreshSchema(TYPE, "ks1", "t1", false);
+        // Too many tables, collapsed in a keyspace refresh
+        verify(controlConnection).refreshSchema(KEYSPACE, "ks2", null, false);
+        verify(controlConnection).refreshNodeListAndTokenMap();
+        verifyNoMoreInteractions(controlConnection);
+    }
+
+    @Test(groups = "unit")
+    public void should_let_broader_refreshes_supersede_narrower_ones() throws InterruptedException {
+        RefreshCoalescer.Pending pending = new RefreshCoalescer.Pending();
+        pending.addSchema(TABLE, "ks1", "t1");
+        pending.addSchema(KEYSPACE, "ks1", null);
+        pending.addSchema(TABLE, "ks1", "t2");
+        assertThat(pending.schemaRefreshCount()).isEqualTo(1);
+        assertThat(pending.needsTokenMapRefresh()).isTrue();
+
+        pending.addSchema(null, null, null);
+        pending.addSchema(TABLE, "ks2", "t1");
+        assertThat(pending.requests).isEqualTo(5);
+        assertThat(pending.schemaRefreshCount()).isEqualTo(1);
+        // Rebuilt by the full schema refresh
+        assertThat(pending.needsTokenMapRefresh()).isFalse();
+
+        ControlConnection controlConnection = mock(ControlConnection.class);
+        pending.run(controlConnection, null);
+        verify(controlConnection).refreshSchema(null, null, null, true);
+        verifyNoMoreInteractions(controlConnection);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.collect.SetMultimap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ReprepareTest {
+
+    @Test(groups = "unit")
+    public void should_record_last_use_with_a_one_second_resolution() {
+        DefaultPreparedStatement statement = prepare("SELECT * FROM foo", "ks");
+        long now = System.nanoTime();
+
+        // Within the resolution, the last use is not updated
+        long recent = now - TimeUnit.MILLISECONDS.toNanos(500);
+        statement.lastUsedNanos = recent;
+        DefaultPreparedStatement.markUsed(statement);
+        assertThat(statement.lastUsedNanos).isEqualTo(recent);
+
+        statement.lastUsedNanos = now - TimeUnit.SECONDS.toNanos(2);
+        DefaultPreparedStatement.markUsed(statement);
+        assertThat(statement.lastUsedNanos).isGreaterThanOrEqualTo(now);
+
+        assertThat(DefaultPreparedStatement.usedSince(statement, now)).isTrue();
+        assertThat(DefaultPreparedStatement.usedSince(statement, System.nanoTime() + TimeUnit.SECONDS.toNanos(1))).isFalse();
+        // Statements we don't track are always considered used
+        assertThat(DefaultPreparedStatement.usedSince(mock(PreparedStatement.class), System.nanoTime() + TimeUnit.SECONDS.toNanos(1))).isTrue();
+    }
+
+    @Test(groups = "unit")
+    public void should_only_reprepare_recently_used_statements_if_configured() {
+        DefaultPreparedStatement recent = prepare("SELECT * FROM foo", "ks");
+        DefaultPreparedStatement recentNoKeyspace = prepare("SELECT * FROM ks.foo", null);
+        DefaultPreparedStatement idle = prepare("SELECT * FROM bar", "ks");
+        idle.lastUsedNanos = System.nanoTime() - TimeUnit.MINUTES.toNanos(5);
+        List<PreparedStatement> statements = Arrays.<PreparedStatement>asList(recent, recentNoKeyspace, idle);
+
+        SetMultimap<String, String> queries = Cluster.queriesToReprepare(statements, 60);
+        assertThat(queries.get("ks")).containsOnly("SELECT * FROM foo");
+        assertThat(queries.get("")).containsOnly("SELECT * FROM ks.foo");
+
+        // By default, all statements are re-prepared
+        queries = Cluster.queriesToReprepare(statements, 0);
+        assertThat(queries.get("ks")).containsOnly("SELECT * FROM foo", "SELECT * FROM bar");
+        assertThat(queries.get("")).containsOnly("SELECT * FROM ks.foo");
+    }
+
+    @Test(groups = "unit")
+    public void should_limit_the_number_of_preparations_in_flight() throws Exception {
+        final Connection connection = mock(Connection.class);
+        final BlockingQueue<Connection.Future> written = new LinkedBlockingQueue<Connection.Future>();
+        final AtomicInteger writes = new AtomicInteger();
+        final AtomicInteger completions = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        when(connection.write(any(Message.Request.class))).thenAnswer(new Answer<Connection.Future>() {
+            @Override
+            public Connection.Future answer(InvocationOnMock invocation) {
+                int inFlight = writes.incrementAndGet() - completions.get();
+                if (inFlight > maxInFlight.get())
+                    maxInFlight.set(inFlight);
+                Connection.Future future = new Connection.Future((Message.Request)invocation.getArguments()[0]);
+                written.add(future);
+                return future;
+            }
+        });
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<Connection.Future>> result = executor.submit(new Callable<List<Connection.Future>>() {
+                @Override
+                public List<Connection.Future> call() throws Exception {
+                    return Cluster.prepareAll(connection, Arrays.asList("q1", "q2", "q3", "q4", "q5"), 2);
+                }
+            });
+
+            // Complete the requests one by one, leaving the writer the time to exceed the limit if it would
+            for (int i = 0; i < 5; i++) {
+                Connection.Future future = written.poll(10, TimeUnit.SECONDS);
+                assertThat(future).isNotNull();
+                Thread.sleep(20);
+                completions.incrementAndGet();
+                future.onSet(connection, null, 0, 0);
+            }
+
+            assertThat(result.get(10, TimeUnit.SECONDS)).hasSize(5);
+            assertThat(writes.get()).isEqualTo(5);
+            assertThat(maxInFlight.get()).isEqualTo(2);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static DefaultPreparedStatement prepare(String query, String keyspace) {
+        ByteBuf body = Unpooled.buffer();
+        CBUtil.writeBytes(new byte[16], body);
+        // Variables metadata: no column
+        body.writeInt(0);
+        body.writeInt(0);
+        // Result metadata: NO_METADATA
+        body.writeInt(4);
+        body.writeInt(0);
+
+        Responses.Result.Prepared msg = (Responses.Result.Prepared)Responses.Result.Prepared.subcodec.decode(body, ProtocolVersion.V3);
+        return DefaultPreparedStatement.fromMessage(msg, mock(Metadata.class), ProtocolVersion.V3, CodecRegistry.DEFAULT_INSTANCE,
+                                                    false, query, keyspace);
+    }
+}
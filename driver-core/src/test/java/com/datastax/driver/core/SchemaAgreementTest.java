@@ -17,6 +17,7 @@ package com.datastax.driver.core;
 
 import java.net.InetAddress;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.AfterMethod;
@@ -100,6 +101,31 @@ public class SchemaAgreementTest {
         }
     }
 
+    @Test(groups = "short")
+    public void should_wait_for_agreement_asynchronously() throws Exception {
+        Cluster controlCluster = null;
+        try {
+            controlCluster = TestUtils.buildControlCluster(cluster);
+            Session controlSession = controlCluster.connect();
+
+            assertThat(cluster.getMetadata().waitForSchemaAgreementAsync().get()).isTrue();
+
+            Row peerRow = controlSession.execute("SELECT peer, schema_version FROM system.peers").one();
+            InetAddress peerAddress = peerRow.getInet("peer");
+            UUID peerVersion = peerRow.getUUID("schema_version");
+
+            // Simulate a disagreement, the future should give up after the max wait
+            protocolOptions.maxSchemaAgreementWaitSeconds = 1;
+            forceSchemaVersion(controlSession, peerAddress, UUIDs.random());
+            assertThat(cluster.getMetadata().waitForSchemaAgreementAsync().get(5, TimeUnit.SECONDS)).isFalse();
+
+            forceSchemaVersion(controlSession, peerAddress, peerVersion);
+        } finally {
+            if (controlCluster != null)
+                controlCluster.close();
+        }
+    }
+
     private static void forceSchemaVersion(Session session, InetAddress peerAddress, UUID schemaVersion) {
         session.execute(String.format("UPDATE system.peers SET schema_version = %s WHERE peer = %s",
             DataType.uuid().format(schemaVersion), DataType.inet().format(peerAddress)));
@@ -0,0 +1,105 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StringCacheTest {
+
+    @Test(groups = "unit")
+    public void should_deduplicate_configured_columns() {
+        QueryOptions queryOptions = new QueryOptions()
+            .setDeduplicatedStringColumns("ks", "Users", Arrays.asList("country", "\"Status\""));
+        assertThat(queryOptions.getDeduplicatedStringColumns("KS", "users")).containsOnly("country", "Status");
+
+        ColumnDefinitions metadata = new ColumnDefinitions(new ColumnDefinitions.Definition[]{
+            new ColumnDefinitions.Definition("ks", "users", "name", DataType.text()),
+            new ColumnDefinitions.Definition("ks", "users", "country", DataType.text()),
+            new ColumnDefinitions.Definition("ks", "users", "Status", DataType.ascii())
+        });
+        StringCache.Factory factory = new StringCache.Factory(queryOptions, null);
+        StringCache[] caches = factory.cachesFor(metadata);
+        assertThat(caches[0]).isNull();
+        assertThat(caches[1]).isNotNull();
+        assertThat(caches[2]).isNotNull();
+        // Caches are shared by all the results of a column
+        assertThat(factory.cachesFor(metadata)[1]).isSameAs(caches[1]);
+
+        Row row1 = row(metadata, caches, "john", "fr", "ACTIVE");
+        Row row2 = row(metadata, caches, "john", "fr", "ACTIVE");
+        assertThat(row1.getString("name")).isNotSameAs(row2.getString("name"));
+        assertThat(row1.getString("country")).isEqualTo("fr").isSameAs(row2.getString("country"));
+        assertThat(row1.getString("\"Status\"")).isEqualTo("ACTIVE").isSameAs(row2.getString("\"Status\""));
+
+        queryOptions.setDeduplicatedStringColumns("ks", "users", Collections.<String>emptyList());
+        assertThat(factory.cachesFor(metadata)).isNull();
+    }
+
+    @Test(groups = "unit")
+    public void should_evict_the_oldest_entry_of_a_full_set() {
+        // A single set of 4 entries
+        StringCache cache = new StringCache(1, null);
+        String[] values = new String[]{ "a", "b", "c", "d" };
+        String[] cached = new String[values.length];
+        for (int i = 0; i < values.length; i++)
+            cached[i] = cache.get(utf8(values[i]), TypeCodec.StringCodec.utf8Instance);
+
+        // All the values of the set are kept
+        for (int i = 0; i < values.length; i++)
+            assertThat(cache.get(utf8(values[i]), TypeCodec.StringCodec.utf8Instance)).isSameAs(cached[i]);
+
+        // A fifth value evicts the oldest one only
+        ByteBuffer e = utf8("e");
+        assertThat(cache.get(e, TypeCodec.StringCodec.utf8Instance)).isEqualTo("e");
+        assertThat(cache.get(utf8("a"), TypeCodec.StringCodec.utf8Instance)).isEqualTo("a").isNotSameAs(cached[0]);
+        assertThat(cache.get(utf8("d"), TypeCodec.StringCodec.utf8Instance)).isSameAs(cached[3]);
+        // Buffers are not consumed
+        assertThat(e.remaining()).isEqualTo(1);
+    }
+
+    @Test(groups = "unit")
+    public void should_keep_a_few_hundred_distinct_values_with_the_default_size() {
+        StringCache cache = new StringCache(QueryOptions.DEFAULT_STRING_CACHE_SIZE, null);
+        int count = 300;
+        String[] cached = new String[count];
+        for (int i = 0; i < count; i++)
+            cached[i] = cache.get(utf8("value" + i), TypeCodec.StringCodec.utf8Instance);
+
+        int shared = 0;
+        for (int i = 0; i < count; i++) {
+            if (cache.get(utf8("value" + i), TypeCodec.StringCodec.utf8Instance) == cached[i])
+                shared += 1;
+        }
+        assertThat(shared).isGreaterThanOrEqualTo(count * 95 / 100);
+    }
+
+    private static ByteBuffer utf8(String value) {
+        return TypeCodec.StringCodec.utf8Instance.serialize(value);
+    }
+
+    private static Row row(ColumnDefinitions metadata, StringCache[] caches, String... values) {
+        ByteBuffer[] data = new ByteBuffer[values.length];
+        for (int i = 0; i < values.length; i++)
+            data[i] = TypeCodec.StringCodec.utf8Instance.serialize(values[i]);
+        return ArrayBackedRow.fromData(metadata, null, CodecRegistry.DEFAULT_INSTANCE, caches, false, ProtocolVersion.V3, Arrays.asList(data));
+    }
+}
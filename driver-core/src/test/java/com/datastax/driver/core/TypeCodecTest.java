@@ -16,10 +16,12 @@
 package com.datastax.driver.core;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Collections;
 import java.util.List;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.base.Strings;
 
@@ -71,4 +73,80 @@ public class TypeCodecTest {
 
         listType.serialize(list);
     }
+
+    @Test(groups = "unit")
+    public void should_encode_and_decode_strings_like_the_jdk() throws Exception {
+        String[] values = { "", "ascii", "caf\u00e9", "\u20ac 100", "\ud83d\ude00 smile", "unpaired \ud83d", "unpaired \ude00 low" };
+        for (String value : values) {
+            for (String charset : new String[]{ "UTF-8", "US-ASCII" }) {
+                TypeCodec.StringCodec codec = charset.equals("UTF-8") ? TypeCodec.StringCodec.utf8Instance : TypeCodec.StringCodec.asciiInstance;
+                byte[] expected = value.getBytes(charset);
+
+                ByteBuffer serialized = codec.serialize(value);
+                Assert.assertEquals(serialized, ByteBuffer.wrap(expected), value);
+
+                // Heap buffer at a non-zero offset, and direct buffer
+                ByteBuffer heap = ByteBuffer.allocate(expected.length + 4);
+                heap.position(2);
+                heap.put(expected).flip();
+                heap.position(2);
+                ByteBuffer slice = heap.slice();
+                ByteBuffer direct = ByteBuffer.allocateDirect(expected.length);
+                direct.put(expected).flip();
+
+                String decoded = new String(expected, charset);
+                Assert.assertEquals(codec.deserialize(slice), decoded);
+                Assert.assertEquals(codec.deserialize(direct), decoded);
+                // The buffers are left untouched
+                Assert.assertEquals(slice.remaining(), expected.length);
+                Assert.assertEquals(direct.remaining(), expected.length);
+            }
+        }
+    }
+
+    @Test(groups = "unit")
+    @SuppressWarnings("unchecked")
+    public void should_serialize_collections_in_a_single_buffer() throws Exception {
+        List<String> strings = Arrays.asList("", "ascii", "caf\u00e9", "\ud83d\ude00 smile", "\u20ac 100");
+        for (ProtocolVersion version : new ProtocolVersion[]{ ProtocolVersion.V2, ProtocolVersion.V3 }) {
+            int sizeLength = version == ProtocolVersion.V3 ? 4 : 2;
+
+            TypeCodec<List<String>> listCodec = TypeCodec.listOf(DataType.text(), version);
+            ByteBuffer expected = ByteBuffer.allocate(1024);
+            putLength(expected, strings.size(), sizeLength);
+            for (String value : strings) {
+                byte[] bytes = value.getBytes("UTF-8");
+                putLength(expected, bytes.length, sizeLength);
+                expected.put(bytes);
+            }
+            expected.flip();
+
+            ByteBuffer serialized = listCodec.serialize(strings);
+            Assert.assertEquals(serialized, expected);
+            Assert.assertEquals(listCodec.serializedSize(strings), serialized.remaining());
+            Assert.assertEquals(listCodec.deserialize(serialized), strings);
+
+            // Nested collections are written into the buffer of their parent
+            DataType mapType = DataType.map(DataType.ascii(), DataType.list(DataType.cint()));
+            TypeCodec<Map<String, List<Integer>>> mapCodec = (TypeCodec<Map<String, List<Integer>>>)(TypeCodec<?>)mapType.codec(version);
+            Map<String, List<Integer>> map = ImmutableMap.of("a", Arrays.asList(1, 2), "b", Collections.<Integer>emptyList());
+            serialized = mapCodec.serialize(map);
+            Assert.assertEquals(mapCodec.serializedSize(map), serialized.remaining());
+            Assert.assertEquals(serialized.capacity(), serialized.remaining());
+            Assert.assertEquals(mapCodec.deserialize(serialized), map);
+        }
+
+        TupleType tupleType = TupleType.of(DataType.cint(), DataType.text(), DataType.varint());
+        TupleValue tuple = tupleType.newValue().setInt(0, 1).setVarint(2, java.math.BigInteger.valueOf(-129));
+        ByteBuffer serialized = tupleType.serialize(tuple, ProtocolVersion.V3);
+        Assert.assertEquals(serialized.remaining(), (4 + 4) + 4 + (4 + 2));
+        Assert.assertEquals(tupleType.deserialize(serialized, ProtocolVersion.V3), tuple);
+    }
+
+    private static void putLength(ByteBuffer output, int length, int sizeLength) {
+        if (sizeLength == 4)
+            output.putInt(length);
+        else
+            output.putShort((short)length);
+    }
 }
@@ -15,18 +15,24 @@
  */
 package com.datastax.driver.core.policies;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
 
+import com.google.common.collect.Lists;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 import org.testng.annotations.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 
 import com.datastax.driver.core.*;
+import com.datastax.driver.core.Configuration;
 
 public class DCAwareRoundRobinPolicyTest {
     Logger policyLogger = Logger.getLogger(DCAwareRoundRobinPolicy.class);
@@ -172,6 +178,57 @@ public class DCAwareRoundRobinPolicyTest {
         }
     }
 
+    @Test(groups = "unit")
+    public void should_round_robin_on_local_hosts_then_use_remote_hosts() {
+        Host local1 = host("dc1"), local2 = host("dc1"), remote1 = host("dc2"), remote2 = host("dc2");
+        DCAwareRoundRobinPolicy policy = new DCAwareRoundRobinPolicy("dc1", 1);
+        policy.init(cluster(), Arrays.asList(local1, local2, remote1, remote2));
+        Statement statement = new SimpleStatement("SELECT * FROM foo").setConsistencyLevel(ConsistencyLevel.ONE);
+
+        List<Host> plan1 = Lists.newArrayList(policy.newQueryPlan("ks", statement));
+        List<Host> plan2 = Lists.newArrayList(policy.newQueryPlan("ks", statement));
+
+        assertThat(plan1).hasSize(3);
+        assertThat(plan1.subList(0, 2)).containsOnly(local1, local2);
+        assertThat(plan2.subList(0, 2)).containsExactly(plan1.get(1), plan1.get(0));
+        assertThat(plan1.get(2)).isEqualTo(remote1);
+        assertThat(policy.distance(remote1)).isEqualTo(HostDistance.REMOTE);
+        assertThat(policy.distance(remote2)).isEqualTo(HostDistance.IGNORED);
+
+        // Local consistency levels never use remote hosts
+        statement.setConsistencyLevel(ConsistencyLevel.LOCAL_ONE);
+        assertThat(Lists.newArrayList(policy.newQueryPlan("ks", statement))).containsOnly(local1, local2);
+    }
+
+    @Test(groups = "unit")
+    public void should_update_query_plans_when_hosts_change_state() {
+        Host local1 = host("dc1"), local2 = host("dc1"), remote1 = host("dc2"), remote2 = host("dc2");
+        DCAwareRoundRobinPolicy policy = new DCAwareRoundRobinPolicy("dc1", 1);
+        policy.init(cluster(), Arrays.asList(local1, remote1));
+        Statement statement = new SimpleStatement("SELECT * FROM foo").setConsistencyLevel(ConsistencyLevel.ONE);
+
+        policy.onAdd(local2);
+        policy.onUp(remote2);
+        assertThat(Lists.newArrayList(policy.newQueryPlan("ks", statement))).containsOnly(local1, local2, remote1);
+
+        policy.onDown(local1);
+        policy.onRemove(remote1);
+        assertThat(Lists.newArrayList(policy.newQueryPlan("ks", statement))).containsExactly(local2, remote2);
+        assertThat(policy.distance(remote2)).isEqualTo(HostDistance.REMOTE);
+    }
+
+    private static Host host(String dc) {
+        Host host = mock(Host.class);
+        when(host.getDatacenter()).thenReturn(dc);
+        return host;
+    }
+
+    private static Cluster cluster() {
+        Cluster cluster = mock(Cluster.class);
+        when(cluster.getConfiguration()).thenReturn(new Configuration());
+        return cluster;
+    }
+
     /**
      * Wraps the policy under test to spy the calls to init.
      */
@@ -0,0 +1,77 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core.policies;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Random;
+
+import com.google.common.collect.Lists;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import com.datastax.driver.core.*;
+
+public class LeastOutstandingRequestsPolicyTest {
+
+    @Test(groups = "unit")
+    public void should_never_return_most_loaded_host_first() {
+        Host idle = host(0), busy = host(10), busiest = host(100);
+        Random random = new Random(42);
+
+        for (int i = 0; i < 1000; i++) {
+            Host[] hosts = new Host[]{ busiest, busy, idle };
+            LeastOutstandingRequestsPolicy.order(hosts, 0, hosts.length, random);
+
+            assertThat(hosts[0]).isNotSameAs(busiest);
+            assertThat(hosts).containsOnly(idle, busy, busiest);
+        }
+    }
+
+    @Test(groups = "unit")
+    public void should_only_reorder_local_hosts_at_start_of_child_plan() {
+        final Host local1 = host(50), local2 = host(0), remote1 = host(0), remote2 = host(0);
+        LoadBalancingPolicy childPolicy = mock(LoadBalancingPolicy.class);
+        when(childPolicy.distance(local1)).thenReturn(HostDistance.LOCAL);
+        when(childPolicy.distance(local2)).thenReturn(HostDistance.LOCAL);
+        when(childPolicy.distance(remote1)).thenReturn(HostDistance.REMOTE);
+        when(childPolicy.distance(remote2)).thenReturn(HostDistance.REMOTE);
+        when(childPolicy.newQueryPlan(anyString(), any(Statement.class))).thenAnswer(new Answer<Iterator<Host>>() {
+            @Override
+            public Iterator<Host> answer(InvocationOnMock invocation) {
+                return Arrays.asList(local1, local2, remote1, remote2).iterator();
+            }
+        });
+
+        LeastOutstandingRequestsPolicy policy = new LeastOutstandingRequestsPolicy(childPolicy);
+        Statement statement = new SimpleStatement("SELECT * FROM foo");
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(Lists.newArrayList(policy.newQueryPlan("ks", statement)))
+                .containsExactly(local2, local1, remote1, remote2);
+        }
+    }
+
+    private static Host host(int inFlightQueries) {
+        Host host = mock(Host.class);
+        when(host.getInFlightQueries()).thenReturn(inFlightQueries);
+        return host;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core.policies;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import com.google.common.collect.Lists;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.Test;
+
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import com.datastax.driver.core.*;
+import com.datastax.driver.core.exceptions.UnavailableException;
+
+public class PercentileLatencyAwarePolicyTest {
+
+    @Test(groups = "unit")
+    public void should_move_slow_host_to_end_of_query_plan() {
+        final Host slow = mock(Host.class), fast = mock(Host.class);
+        LoadBalancingPolicy childPolicy = mock(LoadBalancingPolicy.class);
+        when(childPolicy.newQueryPlan(anyString(), any(Statement.class))).thenAnswer(new Answer<Iterator<Host>>() {
+            @Override
+            public Iterator<Host> answer(InvocationOnMock invocation) {
+                return Arrays.asList(slow, fast).iterator();
+            }
+        });
+        Statement statement = new SimpleStatement("SELECT * FROM foo");
+
+        PercentileLatencyAwarePolicy policy = PercentileLatencyAwarePolicy.builder(childPolicy)
+            .withMininumMeasurements(10)
+            .withUpdateRate(1, HOURS)
+            .build();
+        try {
+            // No scores yet: the child plan is returned as is
+            assertThat(Lists.newArrayList(policy.newQueryPlan("ks", statement))).containsExactly(slow, fast);
+
+            for (int i = 0; i < 10; i++) {
+                policy.latencyTracker.update(slow, statement, null, MILLISECONDS.toNanos(10));
+                policy.latencyTracker.update(fast, statement, null, MILLISECONDS.toNanos(1));
+            }
+            policy.new Updater().run();
+
+            assertThat(policy.getScoresSnapshot()).containsKeys(slow, fast);
+            assertThat(Lists.newArrayList(policy.newQueryPlan("ks", statement))).containsExactly(fast, slow);
+        } finally {
+            policy.close();
+        }
+    }
+
+    @Test(groups = "unit")
+    public void should_not_compute_score_until_enough_measurements() {
+        Host host = mock(Host.class);
+        Statement statement = new SimpleStatement("SELECT * FROM foo");
+
+        PercentileLatencyAwarePolicy policy = PercentileLatencyAwarePolicy.builder(mock(LoadBalancingPolicy.class))
+            .withMininumMeasurements(10)
+            .withUpdateRate(1, HOURS)
+            .build();
+        try {
+            for (int i = 0; i < 9; i++)
+                policy.latencyTracker.update(host, statement, null, MILLISECONDS.toNanos(1));
+            // "fast" errors are not considered
+            policy.latencyTracker.update(host, statement, new UnavailableException(ConsistencyLevel.ONE, 1, 0), MILLISECONDS.toNanos(1));
+            policy.new Updater().run();
+            assertThat(policy.getScoresSnapshot()).isEmpty();
+
+            // Values are accumulated across updates
+            policy.latencyTracker.update(host, statement, null, MILLISECONDS.toNanos(1));
+            policy.new Updater().run();
+            assertThat(policy.getScoresSnapshot()).containsKey(host);
+        } finally {
+            policy.close();
+        }
+    }
+}
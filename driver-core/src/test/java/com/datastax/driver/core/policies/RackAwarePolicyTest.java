@@ -0,0 +1,82 @@
+/*
+ *      Copyright (C) 2012-2015 DataStax Inc.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package com.datastax.driver.core.policies;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.Lists;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import com.datastax.driver.core.*;
+
+public class RackAwarePolicyTest {
+
+    @Test(groups = "unit")
+    public void should_move_local_rack_hosts_first_and_preserve_order() {
+        final Host otherRack1 = host("rack2", HostDistance.LOCAL),
+            localRack1 = host("rack1", HostDistance.LOCAL),
+            otherRack2 = host("rack2", HostDistance.LOCAL),
+            localRack2 = host("rack1", HostDistance.LOCAL),
+            remote = host("rack1", HostDistance.REMOTE);
+        LoadBalancingPolicy childPolicy = mock(LoadBalancingPolicy.class);
+        for (Host host : Arrays.asList(otherRack1, localRack1, otherRack2, localRack2, remote)) {
+            HostDistance distance = host.getDatacenter().equals("dc1") ? HostDistance.LOCAL : HostDistance.REMOTE;
+            when(childPolicy.distance(host)).thenReturn(distance);
+        }
+        when(childPolicy.newQueryPlan(anyString(), any(Statement.class))).thenAnswer(new Answer<Iterator<Host>>() {
+            @Override
+            public Iterator<Host> answer(InvocationOnMock invocation) {
+                return Arrays.asList(otherRack1, localRack1, otherRack2, localRack2, remote).iterator();
+            }
+        });
+
+        RackAwarePolicy policy = new RackAwarePolicy(childPolicy, "rack1");
+
+        // Remote hosts are never moved, even if they are in a rack with the same name
+        assertThat(Lists.newArrayList(policy.newQueryPlan("ks", new SimpleStatement("SELECT * FROM foo"))))
+            .containsExactly(localRack1, localRack2, otherRack1, otherRack2, remote);
+    }
+
+    @Test(groups = "unit")
+    public void should_count_requests_per_rack() {
+        MetricRegistry registry = new MetricRegistry();
+        RackAwarePolicy.RequestCounter counter = new RackAwarePolicy.RequestCounter(registry);
+        Host host1 = host("rack1", HostDistance.LOCAL), host2 = host("rack1", HostDistance.LOCAL), host3 = host("rack2", HostDistance.LOCAL);
+        Statement statement = new SimpleStatement("SELECT * FROM foo");
+
+        counter.update(host1, statement, null, 0);
+        counter.update(host2, statement, null, 0);
+        counter.update(host1, statement, null, 0);
+        counter.update(host3, statement, null, 0);
+
+        assertThat(registry.counter("requests-by-rack.dc1.rack1").getCount()).isEqualTo(3);
+        assertThat(registry.counter("requests-by-rack.dc1.rack2").getCount()).isEqualTo(1);
+    }
+
+    private static Host host(String rack, HostDistance distance) {
+        Host host = mock(Host.class);
+        when(host.getDatacenter()).thenReturn(distance == HostDistance.LOCAL ? "dc1" : "dc2");
+        when(host.getRack()).thenReturn(rack);
+        return host;
+    }
+}
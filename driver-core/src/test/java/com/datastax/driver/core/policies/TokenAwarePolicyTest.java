@@ -15,12 +15,14 @@
  */
 package com.datastax.driver.core.policies;
 
+import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import org.testng.annotations.Test;
 
@@ -90,4 +92,75 @@ public class TokenAwarePolicyTest {
                 ccm.remove();
         }
     }
+
+    @Test(groups = "unit")
+    public void should_map_partitions_to_preferred_replica_with_affinity_ordering() {
+        Host host1 = host(1), host2 = host(2), host3 = host(3);
+        TokenAwarePolicy policy = affinityPolicy(host1, host2, host3);
+
+        Map<Host, Integer> preferredCounts = new HashMap<Host, Integer>();
+        for (int i = 0; i < 300; i++) {
+            Statement statement = statement(i);
+            Host preferred = policy.newQueryPlan(null, statement).next();
+            // Deterministic for a given partition
+            for (int j = 0; j < 3; j++)
+                assertThat(policy.newQueryPlan(null, statement).next()).isSameAs(preferred);
+
+            Integer count = preferredCounts.get(preferred);
+            preferredCounts.put(preferred, count == null ? 1 : count + 1);
+        }
+
+        // Spread across partitions
+        assertThat(preferredCounts).containsKeys(host1, host2, host3);
+        for (int count : preferredCounts.values())
+            assertThat(count).isGreaterThan(50);
+    }
+
+    @Test(groups = "unit")
+    public void should_fall_back_when_preferred_replica_is_down_or_overloaded() {
+        Host host1 = host(1), host2 = host(2), host3 = host(3);
+        TokenAwarePolicy policy = affinityPolicy(host1, host2, host3);
+        Statement statement = statement(42);
+
+        List<Host> plan = Lists.newArrayList(policy.newQueryPlan(null, statement));
+        assertThat(plan).containsOnly(host1, host2, host3);
+        Host preferred = plan.get(0), second = plan.get(1);
+
+        when(preferred.getInFlightQueries()).thenReturn(100);
+        assertThat(Lists.newArrayList(policy.newQueryPlan(null, statement))).containsExactly(second, plan.get(2), preferred);
+
+        when(preferred.getInFlightQueries()).thenReturn(0);
+        when(preferred.isUp()).thenReturn(false);
+        assertThat(policy.newQueryPlan(null, statement).next()).isSameAs(second);
+    }
+
+    private static TokenAwarePolicy affinityPolicy(Host... hosts) {
+        final Set<Host> replicas = ImmutableSet.copyOf(hosts);
+        Metadata metadata = mock(Metadata.class);
+        when(metadata.getReplicas(anyString(), any(ByteBuffer.class))).thenReturn(replicas);
+        Cluster cluster = mock(Cluster.class);
+        when(cluster.getMetadata()).thenReturn(metadata);
+
+        LoadBalancingPolicy childPolicy = mock(LoadBalancingPolicy.class);
+        when(childPolicy.distance(any(Host.class))).thenReturn(HostDistance.LOCAL);
+        when(childPolicy.newQueryPlan(anyString(), any(Statement.class))).thenReturn(Iterators.<Host>emptyIterator());
+
+        TokenAwarePolicy policy = new TokenAwarePolicy(childPolicy, TokenAwarePolicy.ReplicaOrdering.PARTITION_AFFINITY);
+        policy.init(cluster, replicas);
+        return policy;
+    }
+
+    private static Host host(int i) {
+        Host host = mock(Host.class);
+        when(host.isUp()).thenReturn(true);
+        when(host.getSocketAddress()).thenReturn(new InetSocketAddress("127.0.0." + i, 9042));
+        return host;
+    }
+
+    private static Statement statement(int key) {
+        SimpleStatement statement = new SimpleStatement("foo");
+        statement.setKeyspace("ks");
+        statement.setRoutingKey(ByteBuffer.allocate(4).putInt(0, key));
+        return statement;
+    }
 }
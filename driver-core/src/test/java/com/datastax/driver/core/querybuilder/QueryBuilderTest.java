@@ -33,6 +33,8 @@ import com.datastax.driver.core.utils.Bytes;
 import com.datastax.driver.core.utils.CassandraVersion;
 
 import static com.datastax.driver.core.DataType.cint;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.*;
 
 public class QueryBuilderTest {
@@ -767,4 +769,78 @@ public class QueryBuilderTest {
         statement = update("foo").with(prependAll("l", list)).where(eq("k", 1));
         assertThat(statement.toString()).isEqualTo(query);
     }
+
+    @Test(groups = "unit")
+    public void should_freeze_statement_into_template() {
+        Select.Where select = select().all().from("ks", "foo").where(eq("k", 1)).and(eq("c", "a")).and(lt("d", fcall("token", 2, column("e"))));
+        QueryTemplate template = select.freeze();
+        assertThat(template.getQueryString()).isEqualTo("SELECT * FROM ks.foo WHERE k=? AND c=? AND d<token(?,e);");
+        assertThat(template.getLiteralValues()).containsExactly(1, "a", 2);
+
+        // Later changes to the statement don't affect the template
+        select.and(eq("e", "c"));
+        assertThat(template.getQueryString()).isEqualTo("SELECT * FROM ks.foo WHERE k=? AND c=? AND d<token(?,e);");
+
+        SimpleStatement statement = template.bind(5, "x", 6);
+        assertThat(statement.getQueryString()).isEqualTo(template.getQueryString());
+        assertThat(statement.getValues(ProtocolVersion.V2)).containsExactly(
+            cint().serialize(5, ProtocolVersion.V2), DataType.text().serialize("x", ProtocolVersion.V2), cint().serialize(6, ProtocolVersion.V2));
+        assertThat(statement.getKeyspace()).isEqualTo("ks");
+        assertThat(statement.isIdempotent()).isTrue();
+        // Without metadata, there is no routing key
+        assertThat(statement.getRoutingKey()).isNull();
+        assertThat(template.bindLiteralValues().valuesCount()).isEqualTo(3);
+
+        try {
+            template.bind("x", 6);
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        // With user bind markers, values are inlined
+        template = insertInto("foo").value("k", bindMarker()).value("v", "a").freeze();
+        assertThat(template.getQueryString()).isEqualTo("INSERT INTO foo(k,v) VALUES (?,'a');");
+        assertThat(template.getLiteralValues()).isEmpty();
+        assertThat(template.bind(1).valuesCount()).isEqualTo(1);
+    }
+
+    @Test(groups = "unit")
+    public void should_type_template_values_and_compute_routing_key_from_metadata() {
+        ColumnMetadata k = mockColumn("k", DataType.bigint());
+        ColumnMetadata c = mockColumn("c", DataType.text());
+        ColumnMetadata v = mockColumn("v", DataType.cdouble());
+        KeyspaceMetadata keyspace = mock(KeyspaceMetadata.class);
+        when(keyspace.getName()).thenReturn("ks");
+        TableMetadata table = mock(TableMetadata.class);
+        when(table.getName()).thenReturn("foo");
+        when(table.getKeyspace()).thenReturn(keyspace);
+        when(table.getPartitionKey()).thenReturn(Collections.singletonList(k));
+        when(table.getColumn("\"k\"")).thenReturn(k);
+        when(table.getColumn("\"c\"")).thenReturn(c);
+        when(table.getColumn("\"v\"")).thenReturn(v);
+
+        QueryTemplate template = update(table).with(set("v", 1)).where(eq("c", "a")).and(eq("k", 1)).freeze();
+        assertThat(template.getQueryString()).isEqualTo("UPDATE ks.foo SET v=? WHERE c=? AND k=?;");
+
+        SimpleStatement statement = template.bind(2, "b", 42);
+        // Numbers are converted to the type of their column
+        assertThat(statement.getValues(ProtocolVersion.V3)).containsExactly(
+            DataType.cdouble().serialize(2.0, ProtocolVersion.V3),
+            DataType.text().serialize("b", ProtocolVersion.V3),
+            DataType.bigint().serialize(42L, ProtocolVersion.V3));
+        assertThat(statement.getRoutingKey()).isEqualTo(DataType.bigint().serialize(42L, ProtocolVersion.V3));
+        assertThat(template.bind(2, "b", 43).getRoutingKey()).isEqualTo(DataType.bigint().serialize(43L, ProtocolVersion.V3));
+
+        // No routing key without the partition key
+        template = select().all().from(table).where(eq("c", "a")).freeze();
+        assertThat(template.bind("b").getRoutingKey()).isNull();
+    }
+
+    private static ColumnMetadata mockColumn(String name, DataType type) {
+        ColumnMetadata column = mock(ColumnMetadata.class);
+        when(column.getName()).thenReturn(name);
+        when(column.getType()).thenReturn(type);
+        return column;
+    }
 }
@@ -18,10 +18,12 @@ package com.datastax.driver.core.utils;
 import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.testng.annotations.Test;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
 import com.datastax.driver.core.DataType;
@@ -81,6 +83,69 @@ public class UUIDsTest {
         assertEquals(generated.size(), nbThread * nbGenerated);
     }
 
+    @Test(groups = "unit")
+    public void stripedMultiThreadUniquenessTest() throws Exception {
+        int nbThread = 10;
+        final int nbGenerated = 10000;
+        final Set<UUID> generated = new ConcurrentSkipListSet<UUID>();
+        // Assertions in the generating threads would only kill them, so their failures are reported here
+        final AtomicReference<String> failure = new AtomicReference<String>();
+
+        Thread[] threads = new Thread[nbThread];
+        for (int i = 0; i < nbThread; i++) {
+            final boolean batch = i % 2 == 0;
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    UUID[] uuids;
+                    if (batch) {
+                        uuids = UUIDs.stripedTimeBased(nbGenerated);
+                    } else {
+                        uuids = new UUID[nbGenerated];
+                        for (int i = 0; i < nbGenerated; ++i)
+                            uuids[i] = UUIDs.stripedTimeBased();
+                    }
+
+                    // The timestamps generated by a thread are increasing
+                    for (int i = 1; i < uuids.length; i++) {
+                        if (uuids[i - 1].timestamp() >= uuids[i].timestamp()) {
+                            failure.compareAndSet(null, String.format("%s: timestamp %d >= %d at index %d",
+                                getName(), uuids[i - 1].timestamp(), uuids[i].timestamp(), i));
+                            break;
+                        }
+                    }
+                    generated.addAll(Arrays.asList(uuids));
+                }
+            };
+        }
+        for (int i = 0; i < nbThread; i++)
+            threads[i].start();
+        // Also generate with the non-striped generator concurrently
+        for (int i = 0; i < nbGenerated; i++)
+            generated.add(UUIDs.timeBased());
+        for (int i = 0; i < nbThread; i++)
+            threads[i].join();
+
+        assertNull(failure.get(), failure.get());
+        assertEquals(generated.size(), (nbThread + 1) * nbGenerated);
+    }
+
+    @Test(groups = "unit")
+    public void stripedBatchTest() {
+        long now = System.currentTimeMillis();
+        UUID[] uuids = UUIDs.stripedTimeBased(25000);
+
+        assertEquals(uuids.length, 25000);
+        for (int i = 0; i < uuids.length; i++) {
+            assertEquals(uuids[i].version(), 1);
+            assertEquals(uuids[i].variant(), 2);
+            if (i > 0)
+                assertTrue(uuids[i - 1].timestamp() < uuids[i].timestamp());
+        }
+        assertTrue(UUIDs.unixTimestamp(uuids[0]) >= now);
+        assertEquals(UUIDs.stripedTimeBased(0).length, 0);
+    }
+
     @Test(groups = "unit")
     public void timestampIncreasingTest() {
         // Generate 1M uuid and check timestamp are always increasing